@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.benchmarks;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/** Deterministic synthetic data shared by the benchmarks. */
+public final class BenchmarkData {
+
+  public static final long SEED = 42;
+
+  private BenchmarkData() {}
+
+  public static String locationId(int index) {
+    return String.format(Locale.ROOT, "LOC-%06d", index);
+  }
+
+  public static String warehouseCode(int index) {
+    return String.format(Locale.ROOT, "MWH.B%07d", index);
+  }
+
+  /**
+   * Writes a location catalog file of {@code count} locations spread over Europe. Limits are high
+   * enough that the benchmarked creates and replacements are never rejected by them.
+   */
+  public static Path locationCatalog(int count) {
+    Random random = new Random(SEED);
+    StringBuilder csv =
+        new StringBuilder("identification,maxNumberOfWarehouses,maxCapacity,latitude,longitude\n");
+    for (int i = 0; i < count; i++) {
+      double latitude = 36 + random.nextDouble() * 34;
+      double longitude = -10 + random.nextDouble() * 40;
+      csv.append(locationId(i))
+          .append(",1000000,")
+          .append(Integer.MAX_VALUE)
+          .append(String.format(Locale.ROOT, ",%.5f,%.5f%n", latitude, longitude));
+    }
+    try {
+      Path file = Files.createTempFile("benchmark-locations-", ".csv");
+      file.toFile().deleteOnExit();
+      Files.writeString(file, csv, StandardCharsets.UTF_8);
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** {@code count} active warehouses, assigned round-robin to the first {@code locations}. */
+  public static List<Warehouse> warehouses(int count, int locations) {
+    List<Warehouse> warehouses = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      warehouses.add(warehouse(warehouseCode(i), locationId(i % locations)));
+    }
+    return warehouses;
+  }
+
+  public static Warehouse warehouse(String businessUnitCode, String location) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    warehouse.location = location;
+    warehouse.capacity = 100;
+    warehouse.stock = 10;
+    return warehouse;
+  }
+
+  /** Locations used for {@code warehouses} warehouses, about ten warehouses per location. */
+  public static int locationsFor(int warehouses) {
+    return Math.max(10, warehouses / 10);
+  }
+}
@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.benchmarks;
+
+/** Transaction boundary of a benchmark backend, which runs without the container. */
+public interface BenchmarkStore extends AutoCloseable {
+
+  /** Makes the writes of the current operation durable. */
+  void commit();
+
+  @Override
+  void close();
+}
@@ -0,0 +1,161 @@
+package com.fulfilment.application.monolith.benchmarks;
+
+import com.fulfilment.application.monolith.dataset.DatasetGenerator;
+import com.fulfilment.application.monolith.dataset.DatasetLoader;
+import com.fulfilment.application.monolith.dataset.DatasetSpec;
+import com.fulfilment.application.monolith.dataset.SyntheticLocations;
+import com.fulfilment.application.monolith.location.LocationCatalog;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a synthetic dataset and bulk loads it into a migrated database, replacing its stores,
+ * products, warehouses and associations. Options are {@code --name=value}; see the module README.
+ * The target database has to be given with {@code --url}, and its content is only deleted when
+ * {@code --clear} confirms it.
+ */
+public final class DatasetTool {
+
+  private static final String CLEAR = "clear";
+
+  private static final Set<String> OPTIONS =
+      Set.of(
+          "url",
+          "user",
+          "password",
+          "seed",
+          "stores",
+          "products",
+          "warehouses",
+          "archived",
+          "products-per-warehouse",
+          "warehouses-per-store",
+          "density",
+          "skew",
+          "locations",
+          "catalog");
+
+  private DatasetTool() {}
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parse(args);
+    String url = options.get("url");
+    if (url == null) {
+      throw new IllegalArgumentException("--url=<jdbc url> of the database to load is required");
+    }
+    if (!options.containsKey(CLEAR)) {
+      throw new IllegalArgumentException(
+          "Loading deletes every store, product, warehouse and association in "
+              + url
+              + "; pass --clear to confirm");
+    }
+    DatasetSpec spec = new DatasetSpec();
+    spec.seed = Long.parseLong(options.getOrDefault("seed", Long.toString(spec.seed)));
+    spec.stores = intOption(options, "stores", spec.stores);
+    spec.products = intOption(options, "products", spec.products);
+    spec.warehouses = intOption(options, "warehouses", spec.warehouses);
+    spec.archivedVersionsPerWarehouse =
+        doubleOption(options, "archived", spec.archivedVersionsPerWarehouse);
+    spec.productsPerWarehouse =
+        intOption(options, "products-per-warehouse", spec.productsPerWarehouse);
+    spec.warehousesPerStore = intOption(options, "warehouses-per-store", spec.warehousesPerStore);
+    spec.associationDensity = doubleOption(options, "density", spec.associationDensity);
+    spec.skew = doubleOption(options, "skew", spec.skew);
+
+    Collection<Location> locations = locations(options, spec.seed);
+    try (Connection connection =
+        DriverManager.getConnection(
+            url,
+            options.getOrDefault("user", "postgres"),
+            options.getOrDefault("password", "admin"))) {
+      DatasetLoader loader = new DatasetLoader(connection);
+      System.out.printf(
+          "Loading into %s with %s%n", url, loader.usesCopy() ? "COPY" : "batched inserts");
+      long start = System.nanoTime();
+      loader.clear();
+      DatasetGenerator.Summary summary = new DatasetGenerator(spec, locations).generate(loader);
+      System.out.printf(
+          "%d stores, %d products, %d active and %d archived warehouses, %d associations"
+              + " in %.1f s%n",
+          summary.stores(),
+          summary.products(),
+          summary.warehouses(),
+          summary.archivedWarehouses(),
+          summary.associations(),
+          (System.nanoTime() - start) / 1e9);
+    }
+  }
+
+  /**
+   * With {@code --locations=n}, n generated locations, also written to {@code --catalog} for the
+   * application's {@code location.catalog.file}; otherwise the catalog bundled with the
+   * application.
+   */
+  private static Collection<Location> locations(Map<String, String> options, long seed)
+      throws Exception {
+    if (options.containsKey("locations")) {
+      List<Location> locations =
+          SyntheticLocations.generate(Integer.parseInt(options.get("locations")), seed);
+      Path catalog = Path.of(options.getOrDefault("catalog", "dataset-locations.csv"));
+      SyntheticLocations.write(locations, catalog);
+      System.out.printf(
+          "Wrote %d locations to %s, start the application with -Dlocation.catalog.file=%s%n",
+          locations.size(), catalog, catalog.toAbsolutePath());
+      return locations;
+    }
+    if (options.containsKey("catalog")) {
+      Path catalog = Path.of(options.get("catalog"));
+      try (BufferedReader reader = Files.newBufferedReader(catalog, StandardCharsets.UTF_8)) {
+        return LocationCatalog.parse(catalog.toString(), reader).locations();
+      }
+    }
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                DatasetTool.class.getClassLoader().getResourceAsStream("locations.csv"),
+                StandardCharsets.UTF_8))) {
+      return LocationCatalog.parse("locations.csv", reader).locations();
+    }
+  }
+
+  private static Map<String, String> parse(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      if (arg.equals("--" + CLEAR)) {
+        options.put(CLEAR, "true");
+        continue;
+      }
+      int separator = arg.indexOf('=');
+      String name = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+      if (name == null || !OPTIONS.contains(name)) {
+        throw new IllegalArgumentException(
+            "Unknown argument '"
+                + arg
+                + "', expected --clear or --name=value with a name of "
+                + OPTIONS);
+      }
+      options.put(name, arg.substring(separator + 1));
+    }
+    return options;
+  }
+
+  private static int intOption(Map<String, String> options, String name, int defaultValue) {
+    return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+  }
+
+  private static double doubleOption(
+      Map<String, String> options, String name, double defaultValue) {
+    return options.containsKey(name) ? Double.parseDouble(options.get(name)) : defaultValue;
+  }
+}
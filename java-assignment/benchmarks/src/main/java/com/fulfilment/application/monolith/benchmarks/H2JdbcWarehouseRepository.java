@@ -0,0 +1,328 @@
+package com.fulfilment.application.monolith.benchmarks;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+
+/**
+ * Hand-written JDBC stand-in for {@link WarehouseRepository} on an embedded H2 database in
+ * PostgreSQL mode. It is not the application's repository: that one is a Panache repository and
+ * only runs inside Quarkus. The statements mirror what the application sends through Hibernate
+ * (relative location aggregate updates, {@code SELECT ... FOR UPDATE} reservations in location
+ * order, batched inserts), so this measures the SQL and the database, but not Hibernate's flushes,
+ * dirty checking or second-level cache. Lookups by business unit code go to the table, where the
+ * application answers them from its in-memory index.
+ *
+ * <p>The schema comes from the application's {@code db/migration/common} scripts plus the H2
+ * index migrations of its test resources, which the module's build copies to {@code
+ * db/migration/h2}, so the same indexes exist as in the application's tests. One connection,
+ * single-threaded; every benchmark operation ends with {@link #commit()}.
+ */
+public class H2JdbcWarehouseRepository extends WarehouseRepository implements BenchmarkStore {
+
+  private static final String SELECT_WAREHOUSE =
+      "SELECT businessUnitCode, location, capacity, stock, createdAt, archivedAt FROM warehouse";
+
+  private final Connection connection;
+
+  public H2JdbcWarehouseRepository() {
+    String url =
+        "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    Flyway.configure()
+        .dataSource(url, "sa", "")
+        .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+        .load()
+        .migrate();
+    try {
+      connection = DriverManager.getConnection(url, "sa", "");
+      connection.setAutoCommit(false);
+      // As at application start: aggregates of the seeded warehouses
+      execute("DELETE FROM warehouse_location_aggregate");
+      execute(
+          "INSERT INTO warehouse_location_aggregate (location, activeWarehouses, totalCapacity)"
+              + " SELECT location, count(*), coalesce(sum(capacity), 0) FROM warehouse"
+              + " WHERE archivedAt IS NULL GROUP BY location");
+      connection.commit();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Could not initialize the benchmark database", e);
+    }
+  }
+
+  @Override
+  public List<Warehouse> getAll() {
+    try (PreparedStatement statement =
+        connection.prepareStatement(SELECT_WAREHOUSE + " WHERE archivedAt IS NULL")) {
+      return readWarehouses(statement);
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    createAll(List.of(warehouse));
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    Map<String, LocationAggregate> deltas = new HashMap<>();
+    try (PreparedStatement insert =
+        connection.prepareStatement(
+            "INSERT INTO warehouse (id, businessUnitCode, location, capacity, stock, createdAt)"
+                + " VALUES (nextval('warehouse_seq'), ?, ?, ?, ?, ?)")) {
+      for (Warehouse warehouse : warehouses) {
+        insert.setString(1, warehouse.businessUnitCode);
+        insert.setString(2, warehouse.location);
+        setInteger(insert, 3, warehouse.capacity);
+        setInteger(insert, 4, warehouse.stock);
+        insert.setTimestamp(5, now);
+        insert.addBatch();
+        LocationAggregate delta =
+            deltas.computeIfAbsent(warehouse.location, LocationAggregate::empty);
+        delta.activeWarehouses++;
+        delta.totalCapacity += capacityOf(warehouse);
+      }
+      insert.executeBatch();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+    deltas.values().forEach(d -> adjust(d.location, d.activeWarehouses, d.totalCapacity));
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    Warehouse current = findActive(warehouse.businessUnitCode);
+    if (current == null) {
+      return;
+    }
+    adjust(current.location, -1, -capacityOf(current));
+    try (PreparedStatement update =
+        connection.prepareStatement(
+            "UPDATE warehouse SET location = ?, capacity = ?, stock = ?, archivedAt = ?"
+                + " WHERE businessUnitCode = ? AND archivedAt IS NULL")) {
+      update.setString(1, warehouse.location);
+      setInteger(update, 2, warehouse.capacity);
+      setInteger(update, 3, warehouse.stock);
+      update.setTimestamp(
+          4, warehouse.archivedAt == null ? null : Timestamp.valueOf(warehouse.archivedAt));
+      update.setString(5, warehouse.businessUnitCode);
+      update.executeUpdate();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+    if (warehouse.archivedAt == null) {
+      adjust(warehouse.location, 1, capacityOf(warehouse));
+    }
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    Warehouse current = findActive(warehouse.businessUnitCode);
+    if (current != null) {
+      adjust(current.location, -1, -capacityOf(current));
+    }
+    try (PreparedStatement delete =
+        connection.prepareStatement("DELETE FROM warehouse WHERE businessUnitCode = ?")) {
+      delete.setString(1, warehouse.businessUnitCode);
+      delete.executeUpdate();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    return findActive(buCode);
+  }
+
+  @Override
+  public Warehouse findActiveInDatabase(String buCode) {
+    return findActive(buCode);
+  }
+
+  @Override
+  public LocationAggregate getLocationAggregate(String location) {
+    LocationAggregate aggregate = selectAggregate(location, false);
+    return aggregate != null ? aggregate : LocationAggregate.empty(location);
+  }
+
+  @Override
+  public Map<String, LocationAggregate> lockLocationAggregates(Collection<String> locations) {
+    Map<String, LocationAggregate> aggregates = new HashMap<>();
+    for (String location : new TreeSet<>(locations)) {
+      LocationAggregate aggregate = selectAggregate(location, true);
+      if (aggregate == null) {
+        adjust(location, 0, 0);
+        aggregate = selectAggregate(location, true);
+      }
+      aggregates.put(location, aggregate);
+    }
+    return aggregates;
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    Set<String> found = new HashSet<>();
+    if (buCodes.isEmpty()) {
+      return found;
+    }
+    String placeholders = String.join(", ", Collections.nCopies(buCodes.size(), "?"));
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "SELECT businessUnitCode FROM warehouse WHERE archivedAt IS NULL"
+                + " AND businessUnitCode IN ("
+                + placeholders
+                + ")")) {
+      int index = 1;
+      for (String buCode : buCodes) {
+        statement.setString(index++, buCode);
+      }
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          found.add(rows.getString(1));
+        }
+      }
+      return found;
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  @Override
+  public void commit() {
+    try {
+      connection.commit();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      connection.rollback();
+      connection.createStatement().execute("SHUTDOWN");
+      connection.close();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  private Warehouse findActive(String buCode) {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            SELECT_WAREHOUSE + " WHERE businessUnitCode = ? AND archivedAt IS NULL")) {
+      statement.setString(1, buCode);
+      List<Warehouse> warehouses = readWarehouses(statement);
+      return warehouses.isEmpty() ? null : warehouses.get(0);
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  private LocationAggregate selectAggregate(String location, boolean forUpdate) {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "SELECT location, activeWarehouses, totalCapacity FROM warehouse_location_aggregate"
+                + " WHERE location = ?"
+                + (forUpdate ? " FOR UPDATE" : ""))) {
+      statement.setString(1, location);
+      try (ResultSet rows = statement.executeQuery()) {
+        return rows.next()
+            ? new LocationAggregate(rows.getString(1), rows.getLong(2), rows.getLong(3))
+            : null;
+      }
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  private void adjust(String location, long warehouses, long capacity) {
+    if (location == null) {
+      return;
+    }
+    try (PreparedStatement update =
+        connection.prepareStatement(
+            "UPDATE warehouse_location_aggregate SET activeWarehouses = activeWarehouses + ?,"
+                + " totalCapacity = totalCapacity + ? WHERE location = ?")) {
+      update.setLong(1, warehouses);
+      update.setLong(2, capacity);
+      update.setString(3, location);
+      if (update.executeUpdate() == 0) {
+        try (PreparedStatement insert =
+            connection.prepareStatement(
+                "INSERT INTO warehouse_location_aggregate"
+                    + " (location, activeWarehouses, totalCapacity) VALUES (?, ?, ?)")) {
+          insert.setString(1, location);
+          insert.setLong(2, warehouses);
+          insert.setLong(3, capacity);
+          insert.executeUpdate();
+        }
+      }
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.executeUpdate();
+    }
+  }
+
+  private static List<Warehouse> readWarehouses(PreparedStatement statement) throws SQLException {
+    List<Warehouse> warehouses = new ArrayList<>();
+    try (ResultSet rows = statement.executeQuery()) {
+      while (rows.next()) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = rows.getString(1);
+        warehouse.location = rows.getString(2);
+        warehouse.capacity = (Integer) rows.getObject(3);
+        warehouse.stock = (Integer) rows.getObject(4);
+        Timestamp createdAt = rows.getTimestamp(5);
+        warehouse.createdAt = createdAt == null ? null : createdAt.toLocalDateTime();
+        Timestamp archivedAt = rows.getTimestamp(6);
+        warehouse.archivedAt = archivedAt == null ? null : archivedAt.toLocalDateTime();
+        warehouses.add(warehouse);
+      }
+    }
+    return warehouses;
+  }
+
+  private static void setInteger(PreparedStatement statement, int index, Integer value)
+      throws SQLException {
+    if (value == null) {
+      statement.setNull(index, Types.INTEGER);
+    } else {
+      statement.setInt(index, value);
+    }
+  }
+
+  private static long capacityOf(Warehouse warehouse) {
+    return warehouse.capacity != null ? warehouse.capacity : 0;
+  }
+
+  private static IllegalStateException failure(SQLException e) {
+    return new IllegalStateException("Benchmark database operation failed", e);
+  }
+}
@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.benchmarks;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link WarehouseRepository} kept in hash maps, so the use case benchmarks measure the domain
+ * logic without any database work. Active warehouses only, like the application's in-memory index;
+ * single-threaded.
+ */
+public class InMemoryWarehouseRepository extends WarehouseRepository implements BenchmarkStore {
+
+  private final Map<String, Warehouse> active = new HashMap<>();
+  private final Map<String, LocationAggregate> aggregates = new HashMap<>();
+
+  @Override
+  public List<Warehouse> getAll() {
+    return active.values().stream().map(InMemoryWarehouseRepository::copy).toList();
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    Warehouse created = copy(warehouse);
+    created.createdAt = LocalDateTime.now();
+    created.archivedAt = null;
+    active.put(created.businessUnitCode, created);
+    adjust(created.location, 1, capacityOf(created));
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    warehouses.forEach(this::create);
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    Warehouse current = active.get(warehouse.businessUnitCode);
+    if (current == null) {
+      return;
+    }
+    adjust(current.location, -1, -capacityOf(current));
+    if (warehouse.archivedAt == null) {
+      Warehouse updated = copy(warehouse);
+      updated.createdAt = current.createdAt;
+      active.put(updated.businessUnitCode, updated);
+      adjust(updated.location, 1, capacityOf(updated));
+    } else {
+      active.remove(warehouse.businessUnitCode);
+    }
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    Warehouse removed = active.remove(warehouse.businessUnitCode);
+    if (removed != null) {
+      adjust(removed.location, -1, -capacityOf(removed));
+    }
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    return copy(active.get(buCode));
+  }
+
+  @Override
+  public Warehouse findActiveInDatabase(String buCode) {
+    return findByBusinessUnitCode(buCode);
+  }
+
+  @Override
+  public LocationAggregate getLocationAggregate(String location) {
+    LocationAggregate aggregate = aggregates.get(location);
+    return aggregate == null
+        ? LocationAggregate.empty(location)
+        : new LocationAggregate(location, aggregate.activeWarehouses, aggregate.totalCapacity);
+  }
+
+  @Override
+  public Map<String, LocationAggregate> lockLocationAggregates(Collection<String> locations) {
+    Map<String, LocationAggregate> locked = new HashMap<>();
+    for (String location : locations) {
+      locked.put(location, getLocationAggregate(location));
+    }
+    return locked;
+  }
+
+  @Override
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    return buCodes.stream().filter(active::containsKey).collect(Collectors.toSet());
+  }
+
+  @Override
+  public void commit() {}
+
+  @Override
+  public void close() {
+    active.clear();
+    aggregates.clear();
+  }
+
+  private void adjust(String location, long warehouses, long capacity) {
+    LocationAggregate aggregate = aggregates.computeIfAbsent(location, LocationAggregate::empty);
+    aggregate.activeWarehouses += warehouses;
+    aggregate.totalCapacity += capacity;
+  }
+
+  private static long capacityOf(Warehouse warehouse) {
+    return warehouse.capacity != null ? warehouse.capacity : 0;
+  }
+
+  private static Warehouse copy(Warehouse warehouse) {
+    if (warehouse == null) {
+      return null;
+    }
+    Warehouse copy = new Warehouse();
+    copy.businessUnitCode = warehouse.businessUnitCode;
+    copy.location = warehouse.location;
+    copy.capacity = warehouse.capacity;
+    copy.stock = warehouse.stock;
+    copy.createdAt = warehouse.createdAt;
+    copy.archivedAt = warehouse.archivedAt;
+    return copy;
+  }
+}
@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.benchmarks;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.location.LocationGateways;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CreateWarehouseUseCase} and {@link ReplaceWarehouseUseCase} against the in-memory backend
+ * and the JDBC stand-in on H2 ({@link H2JdbcWarehouseRepository}), with the location catalog
+ * served by a {@link LocationGateway}. Each operation leaves the number of active warehouses
+ * unchanged: created warehouses are removed again within the same operation, so the create
+ * benchmarks include that removal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WarehouseUseCaseBenchmark {
+
+  private static final int BATCH_SIZE = 50;
+
+  @Param({"memory", "h2-jdbc"})
+  public String backend;
+
+  @Param({"100", "10000"})
+  public int warehouses;
+
+  private WarehouseRepository repository;
+  private BenchmarkStore store;
+  private CreateWarehouseUseCase createUseCase;
+  private ReplaceWarehouseUseCase replaceUseCase;
+  private List<Warehouse> seeded;
+  private int locations;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    locations = BenchmarkData.locationsFor(warehouses);
+    LocationGateway locationGateway =
+        LocationGateways.fromFile(BenchmarkData.locationCatalog(locations));
+    switch (backend) {
+      case "memory" -> repository = new InMemoryWarehouseRepository();
+      case "h2-jdbc" -> repository = new H2JdbcWarehouseRepository();
+      default -> throw new IllegalArgumentException("Unknown backend " + backend);
+    }
+    store = (BenchmarkStore) repository;
+    createUseCase = new CreateWarehouseUseCase(repository, locationGateway);
+    replaceUseCase = new ReplaceWarehouseUseCase(repository, locationGateway);
+
+    seeded = BenchmarkData.warehouses(warehouses, locations);
+    for (int from = 0; from < seeded.size(); from += 1000) {
+      repository.createAll(seeded.subList(from, Math.min(seeded.size(), from + 1000)));
+      store.commit();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+  }
+
+  @Benchmark
+  public Warehouse createWarehouse() {
+    Warehouse warehouse = newWarehouse();
+    createUseCase.create(warehouse);
+    repository.remove(warehouse);
+    store.commit();
+    return warehouse;
+  }
+
+  @Benchmark
+  public List<WarehouseCreationResult> createWarehouseBatch() {
+    List<Warehouse> batch = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(newWarehouse());
+    }
+    List<WarehouseCreationResult> results = createUseCase.createAll(batch);
+    batch.forEach(repository::remove);
+    store.commit();
+    return results;
+  }
+
+  @Benchmark
+  public Warehouse replaceWarehouse() {
+    Warehouse existing = seeded.get(next++ % seeded.size());
+    Warehouse replacement =
+        BenchmarkData.warehouse(
+            existing.businessUnitCode, BenchmarkData.locationId(next % locations));
+    replaceUseCase.replace(replacement);
+    store.commit();
+    return replacement;
+  }
+
+  /** The rejection path: the business unit code is taken. */
+  @Benchmark
+  public Object rejectExistingWarehouse() {
+    Warehouse existing = seeded.get(next++ % seeded.size());
+    try {
+      createUseCase.create(BenchmarkData.warehouse(existing.businessUnitCode, existing.location));
+      return existing;
+    } catch (WarehouseValidationException e) {
+      return e;
+    }
+  }
+
+  private Warehouse newWarehouse() {
+    int index = next++;
+    return BenchmarkData.warehouse("MWH.N" + index, BenchmarkData.locationId(index % locations));
+  }
+}
@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link FulfillmentService} on an {@link InMemoryFulfillmentRepository} holding {@code
+ * associations} valid associations: each warehouse holds five products and each store is served by
+ * three warehouses, so random requests are a mix of accepted ones and every kind of rejection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FulfillmentServiceBenchmark {
+
+  private static final int PRODUCTS_PER_WAREHOUSE = FulfillmentService.MAX_PRODUCTS_PER_WAREHOUSE;
+  private static final int WAREHOUSES_PER_STORE = FulfillmentService.MAX_WAREHOUSES_PER_STORE;
+
+  @Param({"1000", "100000"})
+  public int associations;
+
+  private FulfillmentService service;
+  private int warehouses;
+  private int stores;
+  private int products;
+  private Random random;
+
+  @Setup
+  public void setUp() {
+    // Every store gets one association per product of each of its warehouses
+    stores = Math.max(1, associations / (WAREHOUSES_PER_STORE * PRODUCTS_PER_WAREHOUSE));
+    warehouses = Math.max(WAREHOUSES_PER_STORE, stores / 10);
+    products = warehouses * PRODUCTS_PER_WAREHOUSE;
+    List<FulfillmentAssociation> seeded = new ArrayList<>(associations);
+    for (int store = 0; store < stores; store++) {
+      for (int w = 0; w < WAREHOUSES_PER_STORE; w++) {
+        int warehouse = (store + w) % warehouses;
+        for (int p = 0; p < PRODUCTS_PER_WAREHOUSE; p++) {
+          long product = (long) warehouse * PRODUCTS_PER_WAREHOUSE + p;
+          if (seeded.size() < associations) {
+            seeded.add(new FulfillmentAssociation(product, code(warehouse), (long) store));
+          }
+        }
+      }
+    }
+    InMemoryFulfillmentRepository repository = new InMemoryFulfillmentRepository();
+    repository.load(
+        seeded,
+        LongStream.range(0, products).boxed().toList(),
+        IntStream.range(0, warehouses).mapToObj(FulfillmentServiceBenchmark::code).toList(),
+        LongStream.range(0, stores).boxed().toList());
+    service = new FulfillmentService();
+    service.fulfillmentRepository = repository;
+    random = new Random(42);
+  }
+
+  /** A random request; created associations are deleted again to keep the graph size constant. */
+  @Benchmark
+  public Object createAssociation() {
+    try {
+      FulfillmentAssociation created =
+          service.createAssociation(
+              randomProduct(), code(random.nextInt(warehouses)), randomStore());
+      service.deleteAssociation(created.id);
+      return created;
+    } catch (FulfillmentValidationException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public FulfillmentConstraintFacts evaluateConstraints() {
+    return service.fulfillmentRepository.evaluateConstraints(
+        randomProduct(), code(random.nextInt(warehouses)), randomStore());
+  }
+
+  @Benchmark
+  public List<FulfillmentAssociation> findByStoreAndWarehouse() {
+    long store = randomStore();
+    return service.find(null, code((int) (store % warehouses)), store, null, 100);
+  }
+
+  @Benchmark
+  public long countByWarehouse() {
+    return service.count(null, code(random.nextInt(warehouses)), null);
+  }
+
+  private long randomProduct() {
+    return random.nextInt(products);
+  }
+
+  private long randomStore() {
+    return random.nextInt(stores);
+  }
+
+  private static String code(int warehouse) {
+    return "MWH.B" + warehouse;
+  }
+}
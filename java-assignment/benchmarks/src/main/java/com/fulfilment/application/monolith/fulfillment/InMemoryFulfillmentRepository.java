@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link FulfillmentRepository} without a database: associations live in the {@link
+ * FulfillmentGraph} only and the existence checks read fixed sets of ids. There is no transaction,
+ * so the graph applies every change straight away. Single-threaded.
+ */
+class InMemoryFulfillmentRepository extends FulfillmentRepository {
+
+  private final Map<Long, FulfillmentAssociation> byId = new HashMap<>();
+  private final Set<Long> products = new HashSet<>();
+  private final Set<String> warehouses = new HashSet<>();
+  private final Set<Long> stores = new HashSet<>();
+  private long sequence;
+
+  InMemoryFulfillmentRepository() {
+    graph = new FulfillmentGraph(new NoTransactionRegistry());
+  }
+
+  /** Replaces the content with the given associations and the ids they may refer to. */
+  void load(
+      Collection<FulfillmentAssociation> associations,
+      Collection<Long> productIds,
+      Collection<String> warehouseCodes,
+      Collection<Long> storeIds) {
+    byId.clear();
+    for (FulfillmentAssociation association : associations) {
+      association.id = ++sequence;
+      byId.put(association.id, association);
+    }
+    products.addAll(productIds);
+    warehouses.addAll(warehouseCodes);
+    stores.addAll(storeIds);
+    graph.reload(associations);
+  }
+
+  @Override
+  public void persist(FulfillmentAssociation association) {
+    association.id = ++sequence;
+    byId.put(association.id, association);
+    graph.add(association);
+  }
+
+  @Override
+  public void delete(FulfillmentAssociation association) {
+    byId.remove(association.id);
+    graph.remove(association);
+  }
+
+  @Override
+  public FulfillmentAssociation findById(Long id) {
+    return byId.get(id);
+  }
+
+  @Override
+  public List<FulfillmentAssociation> listAll() {
+    return List.copyOf(byId.values());
+  }
+
+  @Override
+  public FulfillmentConstraintFacts evaluateConstraints(
+      Long productId, String warehouseCode, Long storeId) {
+    return graph.evaluate(
+        productId,
+        warehouseCode,
+        storeId,
+        products.contains(productId),
+        warehouses.contains(warehouseCode),
+        stores.contains(storeId));
+  }
+
+  /** Registry of a thread that never runs inside a transaction. */
+  private static final class NoTransactionRegistry implements TransactionSynchronizationRegistry {
+
+    @Override
+    public Object getTransactionKey() {
+      return null;
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+      throw new IllegalStateException("No transaction");
+    }
+
+    @Override
+    public Object getResource(Object key) {
+      return null;
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+      throw new IllegalStateException("No transaction");
+    }
+
+    @Override
+    public int getTransactionStatus() {
+      return Status.STATUS_NO_TRANSACTION;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+      throw new IllegalStateException("No transaction");
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.benchmarks.BenchmarkData;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Location lookups through {@link LocationGateway}, per catalog size. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationGatewayBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int locations;
+
+  private LocationGateway gateway;
+  private String[] identifiers;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    gateway = LocationGateways.fromFile(BenchmarkData.locationCatalog(locations));
+    // Spread the lookups over the catalog instead of hitting one hot entry
+    identifiers = new String[1024];
+    for (int i = 0; i < identifiers.length; i++) {
+      identifiers[i] = BenchmarkData.locationId((int) ((long) i * 7919 % locations));
+    }
+  }
+
+  @Benchmark
+  public Location resolveByIdentifier() {
+    return gateway.resolveByIdentifier(identifiers[next++ & (identifiers.length - 1)]);
+  }
+
+  @Benchmark
+  public Location resolveUnknownIdentifier() {
+    return gateway.resolveByIdentifier("UNKNOWN-LOCATION");
+  }
+
+  @Benchmark
+  public List<NearbyLocation> findNearestFive() {
+    return gateway.findNearest(52.37, 4.89, 5, location -> true);
+  }
+}
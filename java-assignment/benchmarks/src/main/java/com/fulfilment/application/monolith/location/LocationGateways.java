@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.location;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/** Builds {@link LocationGateway}s outside the container, reading a given catalog file. */
+public final class LocationGateways {
+
+  private LocationGateways() {}
+
+  public static LocationGateway fromFile(Path catalog) {
+    LocationGateway gateway = new LocationGateway();
+    gateway.catalogFile = Optional.of(catalog.toString());
+    gateway.init();
+    // init() falls back to the bundled catalog, which would silently skew a benchmark
+    if (!gateway.getCatalog().getSource().equals(catalog.toString())) {
+      throw new IllegalStateException("Could not load location catalog " + catalog);
+    }
+    return gateway;
+  }
+}
@@ -0,0 +1,215 @@
+package com.fulfilment.application.monolith.dataset;
+
+import com.fulfilment.application.monolith.fulfillment.FulfillmentService;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a dataset that the application accepts as if it had been built through its API:
+ *
+ * <ul>
+ *   <li>Warehouses are spread over the locations in identification order. No location gets more
+ *       active warehouses than its {@code maxNumberOfWarehouses}, and their capacities add up to
+ *       at most its {@code maxCapacity}; stock never exceeds capacity. When the locations cannot
+ *       hold {@link DatasetSpec#warehouses}, fewer are created.
+ *   <li>Every business unit code has one active row and a geometric number of archived versions
+ *       before it, with consecutive validity periods.
+ *   <li>Every active warehouse fulfils up to {@link DatasetSpec#productsPerWarehouse} products and
+ *       every store is fulfilled by up to {@link DatasetSpec#warehousesPerStore} warehouses, with
+ *       at most {@value FulfillmentService#MAX_WAREHOUSES_PER_PRODUCT_PER_STORE} warehouses per
+ *       product and store, so the rules of {@link FulfillmentService} hold for every row.
+ * </ul>
+ *
+ * <p>Products and warehouses are picked with a Zipf distribution over their ids, so low ids are
+ * hot. Each table draws from its own random stream derived from the seed, so changing, say, the
+ * number of stores does not change the generated warehouses. Rows are streamed to the sink and
+ * only the warehouses' product sets are kept in memory.
+ */
+public class DatasetGenerator {
+
+  /** Counts of the generated rows. */
+  public record Summary(
+      long stores, long products, long warehouses, long archivedWarehouses, long associations) {}
+
+  private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+  private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+
+  private static final long STORE_STREAM = 1;
+  private static final long PRODUCT_STREAM = 2;
+  private static final long WAREHOUSE_STREAM = 3;
+  private static final long ASSOCIATION_STREAM = 4;
+
+  private final DatasetSpec spec;
+  private final List<Location> locations;
+
+  public DatasetGenerator(DatasetSpec spec, Collection<Location> locations) {
+    spec.validate();
+    this.spec = spec;
+    this.locations = new ArrayList<>(locations);
+    this.locations.sort(Comparator.comparing(location -> location.identification));
+  }
+
+  public static String storeName(long id) {
+    return String.format(Locale.ROOT, "STORE-%08d", id);
+  }
+
+  public static String productName(long id) {
+    return String.format(Locale.ROOT, "PRODUCT-%08d", id);
+  }
+
+  public static String warehouseCode(long index) {
+    return String.format(Locale.ROOT, "MWH.G%07d", index);
+  }
+
+  public Summary generate(DatasetSink sink) {
+    generateStores(sink);
+    generateProducts(sink);
+    List<String> codes = new ArrayList<>();
+    long archived = generateWarehouses(sink, codes);
+    long associations = generateAssociations(sink, codes);
+    sink.finish();
+    return new Summary(spec.stores, spec.products, codes.size(), archived, associations);
+  }
+
+  private void generateStores(DatasetSink sink) {
+    SplittableRandom random = stream(STORE_STREAM);
+    for (long id = 1; id <= spec.stores; id++) {
+      sink.store(id, storeName(id), random.nextInt(1001));
+    }
+  }
+
+  private void generateProducts(DatasetSink sink) {
+    SplittableRandom random = stream(PRODUCT_STREAM);
+    for (long id = 1; id <= spec.products; id++) {
+      sink.product(
+          id,
+          productName(id),
+          "Generated product " + id,
+          BigDecimal.valueOf(100 + random.nextInt(100_000), 2),
+          random.nextInt(1001));
+    }
+  }
+
+  private long generateWarehouses(DatasetSink sink, List<String> codes) {
+    SplittableRandom random = stream(WAREHOUSE_STREAM);
+    long id = 0;
+    long archived = 0;
+    int remaining = spec.warehouses;
+    for (int i = 0; i < locations.size() && remaining > 0; i++) {
+      Location location = locations.get(i);
+      int fairShare = (remaining + locations.size() - i - 1) / (locations.size() - i);
+      int slots =
+          Math.min(fairShare, Math.min(location.maxNumberOfWarehouses, location.maxCapacity));
+      if (slots <= 0) {
+        continue;
+      }
+      int capacityPerSlot = location.maxCapacity / slots;
+      for (int slot = 0; slot < slots; slot++) {
+        String code = warehouseCode(codes.size());
+        LocalDateTime createdAt = EPOCH.plusMinutes(random.nextInt(MINUTES_PER_YEAR));
+        int versions = geometric(random, spec.archivedVersionsPerWarehouse);
+        for (int version = 0; version < versions; version++) {
+          int capacity = capacity(random, capacityPerSlot);
+          LocalDateTime archivedAt = createdAt.plusDays(1 + random.nextInt(365));
+          sink.warehouse(
+              ++id,
+              code,
+              location.identification,
+              capacity,
+              random.nextInt(capacity + 1),
+              createdAt,
+              archivedAt);
+          createdAt = archivedAt;
+          archived++;
+        }
+        int capacity = capacity(random, capacityPerSlot);
+        sink.warehouse(
+            ++id,
+            code,
+            location.identification,
+            capacity,
+            random.nextInt(capacity + 1),
+            createdAt,
+            null);
+        codes.add(code);
+      }
+      remaining -= slots;
+    }
+    return archived;
+  }
+
+  private long generateAssociations(DatasetSink sink, List<String> codes) {
+    if (codes.isEmpty() || spec.products == 0 || spec.stores == 0) {
+      return 0;
+    }
+    SplittableRandom random = stream(ASSOCIATION_STREAM);
+    ZipfSampler products = new ZipfSampler(spec.products, spec.skew);
+    ZipfSampler warehouses = new ZipfSampler(codes.size(), spec.skew);
+
+    // Product indexes fulfilled by each active warehouse
+    int[][] held = new int[codes.size()][];
+    for (int w = 0; w < held.length; w++) {
+      int count = 1 + random.nextInt(Math.min(spec.productsPerWarehouse, spec.products));
+      held[w] = products.distinct(random, count);
+    }
+
+    long id = 0;
+    int[] taken = new int[DatasetSpec.MAX_WAREHOUSES * DatasetSpec.MAX_PRODUCTS];
+    for (long storeId = 1; storeId <= spec.stores; storeId++) {
+      int count = 1 + random.nextInt(Math.min(spec.warehousesPerStore, codes.size()));
+      int takenCount = 0;
+      for (int w : warehouses.distinct(random, count)) {
+        boolean any = false;
+        for (int p = 0; p < held[w].length; p++) {
+          int product = held[w][p];
+          boolean last = p == held[w].length - 1;
+          // Every chosen warehouse fulfils at least one product of the store
+          boolean wanted = random.nextDouble() < spec.associationDensity || (last && !any);
+          if (wanted
+              && occurrences(taken, takenCount, product)
+                  < FulfillmentService.MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
+            taken[takenCount++] = product;
+            sink.association(++id, product + 1L, codes.get(w), storeId);
+            any = true;
+          }
+        }
+      }
+    }
+    return id;
+  }
+
+  static int occurrences(int[] values, int length, int value) {
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      if (values[i] == value) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Between half and all of {@code upperBound}, at least 1. */
+  private static int capacity(SplittableRandom random, int upperBound) {
+    return Math.max(1, upperBound - random.nextInt(upperBound / 2 + 1));
+  }
+
+  /** Number of failures before the first success, with the given mean. */
+  private static int geometric(SplittableRandom random, double mean) {
+    if (mean == 0) {
+      return 0;
+    }
+    double u = 1 - random.nextDouble();
+    return (int) Math.floor(Math.log(u) / Math.log(mean / (mean + 1)));
+  }
+
+  private SplittableRandom stream(long stream) {
+    return new SplittableRandom(spec.seed * 31 + stream);
+  }
+}
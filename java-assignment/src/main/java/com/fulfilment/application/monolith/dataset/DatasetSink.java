@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.dataset;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Receives the rows of a generated dataset, table by table: all stores, then all products, then
+ * all warehouses, then all associations, and finally {@link #finish()}. Ids are dense and start at
+ * 1 per table.
+ */
+public interface DatasetSink {
+
+  void store(long id, String name, int quantityProductsInStock);
+
+  void product(long id, String name, String description, BigDecimal price, int stock);
+
+  /** An active warehouse when {@code archivedAt} is null, an archived version otherwise. */
+  void warehouse(
+      long id,
+      String businessUnitCode,
+      String location,
+      int capacity,
+      int stock,
+      LocalDateTime createdAt,
+      LocalDateTime archivedAt);
+
+  void association(long id, long productId, String warehouseCode, long storeId);
+
+  /** Called once after the last row. */
+  default void finish() {}
+}
@@ -0,0 +1,68 @@
+package com.fulfilment.application.monolith.dataset;
+
+import com.fulfilment.application.monolith.fulfillment.FulfillmentService;
+
+/**
+ * Size and shape of a synthetic dataset. Every field has a default, so only what differs from it
+ * needs to be set. Two generators built from equal specs and the same locations produce the same
+ * rows.
+ */
+public class DatasetSpec {
+
+  /** Seed of every random choice. */
+  public long seed = 42;
+
+  public int stores = 10_000;
+
+  public int products = 10_000;
+
+  /**
+   * Active warehouses to create. Fewer are created when the locations cannot hold that many, see
+   * {@link DatasetGenerator}.
+   */
+  public int warehouses = 1_000;
+
+  /** Mean number of archived versions kept per business unit code, 0 for none. */
+  public double archivedVersionsPerWarehouse = 1;
+
+  /** Upper bound of the products one warehouse fulfils, at most {@value #MAX_PRODUCTS}. */
+  public int productsPerWarehouse = FulfillmentService.MAX_PRODUCTS_PER_WAREHOUSE;
+
+  /** Upper bound of the warehouses one store is fulfilled by, at most {@value #MAX_WAREHOUSES}. */
+  public int warehousesPerStore = FulfillmentService.MAX_WAREHOUSES_PER_STORE;
+
+  /** Share of the products of a chosen warehouse that a store takes from it, in (0, 1]. */
+  public double associationDensity = 0.5;
+
+  /**
+   * Zipf exponent of the popularity of products and warehouses. 0 picks uniformly; around 1 a few
+   * low ids and the first warehouses receive most of the associations.
+   */
+  public double skew = 1.0;
+
+  static final int MAX_PRODUCTS = FulfillmentService.MAX_PRODUCTS_PER_WAREHOUSE;
+  static final int MAX_WAREHOUSES = FulfillmentService.MAX_WAREHOUSES_PER_STORE;
+
+  void validate() {
+    if (stores < 0 || products < 0 || warehouses < 0) {
+      throw new IllegalArgumentException("Row counts must not be negative");
+    }
+    if (archivedVersionsPerWarehouse < 0) {
+      throw new IllegalArgumentException("Archived versions per warehouse must not be negative");
+    }
+    if (productsPerWarehouse < 1 || productsPerWarehouse > MAX_PRODUCTS) {
+      throw new IllegalArgumentException(
+          "Products per warehouse must be between 1 and " + MAX_PRODUCTS);
+    }
+    if (warehousesPerStore < 1 || warehousesPerStore > MAX_WAREHOUSES) {
+      throw new IllegalArgumentException(
+          "Warehouses per store must be between 1 and " + MAX_WAREHOUSES);
+    }
+    if (!(associationDensity > 0 && associationDensity <= 1)) {
+      throw new IllegalArgumentException("Association density must be in (0, 1]");
+    }
+    if (!(skew >= 0)) {
+      throw new IllegalArgumentException("Skew must not be negative");
+    }
+  }
+}
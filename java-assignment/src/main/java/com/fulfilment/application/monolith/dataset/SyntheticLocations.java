@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.dataset;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Location catalogs large enough for generated datasets. The bundled catalog holds a few dozen
+ * warehouses at most; a generated one is written to a file and handed to the application through
+ * {@code location.catalog.file}, so both the loaded rows and the running application see the same
+ * limits.
+ */
+public final class SyntheticLocations {
+
+  private SyntheticLocations() {}
+
+  public static String locationId(int index) {
+    return String.format(Locale.ROOT, "GEN-%07d", index);
+  }
+
+  /**
+   * {@code count} locations spread over Europe, each allowing 1 to 20 warehouses with an average
+   * capacity of 50 to 500 per allowed warehouse.
+   */
+  public static List<Location> generate(int count, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    List<Location> locations = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int maxWarehouses = 1 + random.nextInt(20);
+      int maxCapacity = maxWarehouses * (50 + random.nextInt(451));
+      double latitude = 36 + random.nextDouble() * 34;
+      double longitude = -10 + random.nextDouble() * 40;
+      locations.add(new Location(locationId(i), maxWarehouses, maxCapacity, latitude, longitude));
+    }
+    return locations;
+  }
+
+  /** Writes {@code locations} in the format read by {@code LocationCatalog.parse}. */
+  public static void write(Collection<Location> locations, Path file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("identification,maxNumberOfWarehouses,maxCapacity,latitude,longitude\n");
+      for (Location location : locations) {
+        writer.write(location.identification + "," + location.maxNumberOfWarehouses + ",");
+        writer.write(Integer.toString(location.maxCapacity));
+        if (location.hasCoordinates()) {
+          writer.write(
+              String.format(
+                  Locale.ROOT, ",%.5f,%.5f", location.latitude, location.longitude));
+        }
+        writer.write('\n');
+      }
+    }
+  }
+}
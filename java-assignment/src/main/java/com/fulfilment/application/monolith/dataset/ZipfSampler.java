@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Indexes 0 to {@code size - 1} with probability proportional to {@code 1 / (index + 1)^exponent},
+ * so index 0 is the most popular. Exponent 0 is uniform. Thread-safe; the caller brings the random
+ * stream.
+ */
+public final class ZipfSampler {
+
+  // Rejection sampling for distinct picks gives up after this many repeats and takes the lowest
+  // free index, which keeps high skews from looping
+  private static final int MAX_REPEATS = 64;
+
+  private final int size;
+  // Cumulative probabilities, null when uniform
+  private final double[] cumulative;
+
+  public ZipfSampler(int size, double exponent) {
+    if (size < 1 || !(exponent >= 0)) {
+      throw new IllegalArgumentException("Size must be positive and exponent not negative");
+    }
+    this.size = size;
+    if (exponent == 0) {
+      cumulative = null;
+      return;
+    }
+    cumulative = new double[size];
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += Math.pow(i + 1, -exponent);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < size; i++) {
+      cumulative[i] /= sum;
+    }
+  }
+
+  public int next(SplittableRandom random) {
+    if (cumulative == null) {
+      return random.nextInt(size);
+    }
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min(index >= 0 ? index + 1 : -index - 1, size - 1);
+  }
+
+  /** {@code count} different indexes, {@code count <= size}. */
+  public int[] distinct(SplittableRandom random, int count) {
+    int[] picked = new int[count];
+    int length = 0;
+    int repeats = 0;
+    while (length < count) {
+      int candidate = next(random);
+      if (DatasetGenerator.occurrences(picked, length, candidate) == 0) {
+        picked[length++] = candidate;
+      } else if (++repeats == MAX_REPEATS) {
+        candidate = 0;
+        while (DatasetGenerator.occurrences(picked, length, candidate) > 0) {
+          candidate++;
+        }
+        picked[length++] = candidate;
+        repeats = 0;
+      }
+    }
+    return picked;
+  }
+}
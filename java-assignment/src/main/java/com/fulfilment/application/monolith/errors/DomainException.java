@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.errors;
+
+/**
+ * A business rule rejected the request. These are expected outcomes rather than faults, so no
+ * stack trace is captured: rejections cost about as much as the checks that produce them, also
+ * under validation-heavy load such as bulk imports.
+ */
+public abstract class DomainException extends RuntimeException {
+
+  private final ErrorCode code;
+
+  protected DomainException(ErrorCode code, String message) {
+    super(message, null, false, false);
+    this.code = code;
+  }
+
+  public ErrorCode getCode() {
+    return code;
+  }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.errors;
+
+/** Reason a request was rejected, with the HTTP status it is reported with. */
+public enum ErrorCode {
+  VALIDATION_FAILED(400),
+
+  // Warehouses
+  WAREHOUSE_NOT_FOUND(404),
+  WAREHOUSE_ALREADY_EXISTS(400),
+  WAREHOUSE_DUPLICATED_IN_BATCH(400),
+  LOCATION_NOT_FOUND(400),
+  LOCATION_WAREHOUSE_LIMIT_REACHED(400),
+  LOCATION_CAPACITY_EXCEEDED(400),
+  STOCK_EXCEEDS_CAPACITY(400),
+  CAPACITY_BELOW_STOCK(400),
+  STOCK_MISMATCH(400),
+  INVALID_LOCATION_SEARCH(400),
+
+  // Fulfillment associations
+  UNKNOWN_PRODUCT(400),
+  UNKNOWN_WAREHOUSE(400),
+  UNKNOWN_STORE(400),
+  ASSOCIATION_ALREADY_EXISTS(400),
+  PRODUCT_WAREHOUSE_LIMIT_REACHED(400),
+  STORE_WAREHOUSE_LIMIT_REACHED(400),
+  WAREHOUSE_PRODUCT_LIMIT_REACHED(400),
+  ASSOCIATION_NOT_FOUND(404);
+
+  private final int status;
+
+  ErrorCode(int status) {
+    this.status = status;
+  }
+
+  public int status() {
+    return status;
+  }
+}
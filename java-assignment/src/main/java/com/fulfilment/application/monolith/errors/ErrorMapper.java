@@ -0,0 +1,90 @@
+package com.fulfilment.application.monolith.errors;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jboss.logging.Logger;
+
+/**
+ * Turns every exception escaping a resource into a JSON error body:
+ *
+ * <pre>{"exceptionType": "...", "code": 400, "errorCode": "STOCK_MISMATCH", "error": "..."}</pre>
+ *
+ * <p>{@code errorCode} is only present for {@link DomainException}s. Everything before {@code
+ * error} is serialized once per error code, so a rejection only encodes its message. Rejections
+ * and other client errors are logged at debug level without a stack trace; server errors are
+ * logged with one.
+ */
+@Provider
+public class ErrorMapper implements ExceptionMapper<Exception> {
+
+  private static final Logger LOGGER = Logger.getLogger(ErrorMapper.class.getName());
+
+  private static final byte[] ERROR_FIELD = bytes(",\"error\":\"");
+  private static final byte[] END = bytes("\"}");
+  private static final byte[] NO_ERROR_END = bytes("}");
+
+  // Serialized body up to the message, per exception type, status and error code
+  private final Map<Prefix, byte[]> prefixes = new ConcurrentHashMap<>();
+
+  @Override
+  public Response toResponse(Exception exception) {
+    ErrorCode code = null;
+    int status = 500;
+    if (exception instanceof DomainException domain) {
+      code = domain.getCode();
+      status = code.status();
+    } else if (exception instanceof WebApplicationException web) {
+      status = web.getResponse().getStatus();
+    }
+    byte[] prefix =
+        prefixes.computeIfAbsent(
+            new Prefix(exception.getClass(), status, code), ErrorMapper::serialize);
+
+    if (status >= 500) {
+      LOGGER.error("Failed to handle request", exception);
+    } else {
+      LOGGER.debugf("Rejected request (%d): %s", status, exception.getMessage());
+    }
+
+    return Response.status(status)
+        .type(MediaType.APPLICATION_JSON_TYPE)
+        .entity(body(prefix, exception.getMessage()))
+        .build();
+  }
+
+  private static byte[] body(byte[] prefix, String message) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream(prefix.length + 64);
+    body.writeBytes(prefix);
+    if (message == null) {
+      body.writeBytes(NO_ERROR_END);
+    } else {
+      body.writeBytes(ERROR_FIELD);
+      body.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(message));
+      body.writeBytes(END);
+    }
+    return body.toByteArray();
+  }
+
+  private static byte[] serialize(Prefix prefix) {
+    return bytes(
+        "{\"exceptionType\":\""
+            + prefix.type().getName()
+            + "\",\"code\":"
+            + prefix.status()
+            + (prefix.code() != null ? ",\"errorCode\":\"" + prefix.code().name() + "\"" : ""));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private record Prefix(Class<?> type, int status, ErrorCode code) {}
+}
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+/**
+ * Everything {@link FulfillmentService} needs to validate a new (product, warehouse, store)
+ * association, gathered by {@link FulfillmentRepository#evaluateConstraints}: the counts from the
+ * in-memory {@link FulfillmentGraph}, the existence checks from the entity manager and the active
+ * warehouse index.
+ */
+public class FulfillmentConstraintFacts {
+
+  public final boolean productExists;
+
+  // only active (non-archived) warehouses count as existing
+  public final boolean warehouseExists;
+
+  public final boolean storeExists;
+
+  public final boolean associationExists;
+
+  // associations of this product with this store, i.e. warehouses fulfilling it there
+  public final long warehousesForProductInStore;
+
+  public final boolean warehouseAlreadyAssociatedWithStore;
+
+  public final long distinctWarehousesForStore;
+
+  public final boolean productAlreadyInWarehouse;
+
+  public final long distinctProductsInWarehouse;
+
+  public FulfillmentConstraintFacts(
+      boolean productExists,
+      boolean warehouseExists,
+      boolean storeExists,
+      boolean associationExists,
+      long warehousesForProductInStore,
+      boolean warehouseAlreadyAssociatedWithStore,
+      long distinctWarehousesForStore,
+      boolean productAlreadyInWarehouse,
+      long distinctProductsInWarehouse) {
+    this.productExists = productExists;
+    this.warehouseExists = warehouseExists;
+    this.storeExists = storeExists;
+    this.associationExists = associationExists;
+    this.warehousesForProductInStore = warehousesForProductInStore;
+    this.warehouseAlreadyAssociatedWithStore = warehouseAlreadyAssociatedWithStore;
+    this.distinctWarehousesForStore = distinctWarehousesForStore;
+    this.productAlreadyInWarehouse = productAlreadyInWarehouse;
+    this.distinctProductsInWarehouse = distinctProductsInWarehouse;
+  }
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+/** Outcome of one item of a bulk association request. */
+public class FulfillmentCreationResult {
+
+  public FulfillmentAssociation association;
+
+  // reason the association was not created, null when it was
+  public String error;
+
+  public FulfillmentCreationResult(FulfillmentAssociation association, String error) {
+    this.association = association;
+    this.error = error;
+  }
+
+  public static FulfillmentCreationResult created(FulfillmentAssociation association) {
+    return new FulfillmentCreationResult(association, null);
+  }
+
+  public static FulfillmentCreationResult rejected(
+      FulfillmentAssociation association, String error) {
+    return new FulfillmentCreationResult(association, error);
+  }
+
+  public boolean isCreated() {
+    return error == null;
+  }
+}
@@ -0,0 +1,493 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory graph of the fulfillment associations, so the association rules and the lookups by
+ * product, warehouse or store run without SQL. It assumes this application is the only writer of
+ * the fulfillment_association table, and is kept in step by {@link FulfillmentRepository}.
+ *
+ * <p>Product ids, warehouse codes and store ids are dictionary-encoded to dense ints; the degrees
+ * the rules look at are bitsets over those ints, keyed by the pair they belong to.
+ *
+ * <p>The graph has two views. The rule checks see every association that is committed or still
+ * being written by an open transaction, so two transactions can never both take the last free
+ * slot; a rolled-back association frees its slot again. The lookups only see committed
+ * associations, plus the changes of the calling transaction itself. Removals only free their slot
+ * once they commit.
+ */
+@ApplicationScoped
+public class FulfillmentGraph {
+
+  private static final Object PENDING_CHANGES_KEY = new Object();
+
+  private final TransactionSynchronizationRegistry transactionRegistry;
+
+  // Everything below is guarded by this
+
+  private final Dictionary<Long> products = new Dictionary<>();
+  private final Dictionary<String> warehouses = new Dictionary<>();
+  private final Dictionary<Long> stores = new Dictionary<>();
+
+  /** Committed associations, in id order and by each of their ends, also in id order. */
+  private final NavigableMap<Long, Edge> committed = new TreeMap<>();
+
+  private final List<List<Edge>> edgesByProduct = new ArrayList<>();
+  private final List<List<Edge>> edgesByWarehouse = new ArrayList<>();
+  private final List<List<Edge>> edgesByStore = new ArrayList<>();
+
+  /** Committed plus in-flight associations, as seen by the rule checks. */
+  private final Map<Long, BitSet> warehousesByProductStore = new HashMap<>();
+
+  private final Map<Long, BitSet> productsByWarehouseStore = new HashMap<>();
+  private final Map<Long, BitSet> storesByProductWarehouse = new HashMap<>();
+  private final List<BitSet> warehousesByStore = new ArrayList<>();
+  private final List<BitSet> productsByWarehouse = new ArrayList<>();
+
+  @Inject
+  public FulfillmentGraph(TransactionSynchronizationRegistry transactionRegistry) {
+    this.transactionRegistry = transactionRegistry;
+  }
+
+  /**
+   * The association counts behind the rules for a new (product, warehouse, store) association,
+   * combined with the existence checks done by the caller.
+   */
+  public synchronized FulfillmentConstraintFacts evaluate(
+      Long productId,
+      String warehouseCode,
+      Long storeId,
+      boolean productExists,
+      boolean warehouseExists,
+      boolean storeExists) {
+    int product = products.lookup(productId);
+    int warehouse = warehouses.lookup(warehouseCode);
+    int store = stores.lookup(storeId);
+
+    BitSet warehousesForProductInStore =
+        product < 0 || store < 0 ? null : warehousesByProductStore.get(pair(product, store));
+    BitSet warehousesForStore = store < 0 ? null : at(warehousesByStore, store);
+    BitSet productsInWarehouse = warehouse < 0 ? null : at(productsByWarehouse, warehouse);
+
+    return new FulfillmentConstraintFacts(
+        productExists,
+        warehouseExists,
+        storeExists,
+        contains(warehousesForProductInStore, warehouse),
+        cardinality(warehousesForProductInStore),
+        contains(warehousesForStore, warehouse),
+        cardinality(warehousesForStore),
+        contains(productsInWarehouse, product),
+        cardinality(productsInWarehouse));
+  }
+
+  /**
+   * Adds a persisted association. It counts for the rule checks straight away and shows up in
+   * lookups of other transactions once the current transaction commits.
+   */
+  public void add(FulfillmentAssociation association) {
+    Edge edge;
+    synchronized (this) {
+      edge =
+          new Edge(
+              association.id,
+              products.encode(association.productId),
+              warehouses.encode(association.warehouseCode),
+              stores.encode(association.storeId));
+      reserve(edge);
+    }
+    stage(new Change(edge, true));
+  }
+
+  /** Removes an association; its slot is freed once the current transaction commits. */
+  public void remove(FulfillmentAssociation association) {
+    Edge edge;
+    synchronized (this) {
+      edge = committed.get(association.id);
+    }
+    if (edge == null) {
+      edge = pendingEdge(association.id);
+    }
+    if (edge != null) {
+      stage(new Change(edge, false));
+    }
+  }
+
+  public List<FulfillmentAssociation> findByProduct(Long productId) {
+    return find(productId, null, null, null, Integer.MAX_VALUE);
+  }
+
+  public List<FulfillmentAssociation> findByWarehouse(String warehouseCode) {
+    return find(null, warehouseCode, null, null, Integer.MAX_VALUE);
+  }
+
+  public List<FulfillmentAssociation> findByStore(Long storeId) {
+    return find(null, null, storeId, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Associations matching every non-null filter with an id above {@code after} (when set), in id
+   * order, at most {@code limit} of them. Only the shortest adjacency list among the filtered ends
+   * is scanned, or the id-ordered map of all associations when there is no filter; the adjacency
+   * lists are kept in id order, so a page starts with a binary search.
+   */
+  public List<FulfillmentAssociation> find(
+      Long productId, String warehouseCode, Long storeId, Long after, int limit) {
+    List<Change> pending = pendingChanges(false);
+    int removals = pending == null ? 0 : (int) pending.stream().filter(c -> !c.added).count();
+    List<Edge> edges = new ArrayList<>();
+    Filter filter;
+    synchronized (this) {
+      filter = filter(productId, warehouseCode, storeId);
+      if (filter == null) {
+        return List.of();
+      }
+      // Read past the limit by the number of own removals, which may drop rows from the page
+      collect(filter, after, (int) Math.min((long) limit + removals, Integer.MAX_VALUE), edges);
+    }
+    if (pending != null) {
+      // The calling transaction sees its own changes
+      for (Change change : pending) {
+        if (!change.added) {
+          edges.removeIf(edge -> edge.id == change.edge.id);
+        } else if (filter.matches(change.edge) && (after == null || change.edge.id > after)) {
+          edges.add(change.edge);
+        }
+      }
+      edges.sort(Comparator.comparingLong(Edge::id));
+    }
+    List<FulfillmentAssociation> associations = new ArrayList<>(Math.min(edges.size(), limit));
+    synchronized (this) {
+      for (Edge edge : edges.subList(0, Math.min(edges.size(), limit))) {
+        associations.add(toAssociation(edge));
+      }
+    }
+    return associations;
+  }
+
+  /** Number of associations matching every non-null filter, found the same way as {@link #find}. */
+  public long count(Long productId, String warehouseCode, Long storeId) {
+    if (pendingChanges(false) != null) {
+      return find(productId, warehouseCode, storeId, null, Integer.MAX_VALUE).size();
+    }
+    synchronized (this) {
+      Filter filter = filter(productId, warehouseCode, storeId);
+      if (filter == null) {
+        return 0;
+      }
+      List<Edge> source = narrowest(filter);
+      if (source == null) {
+        return committed.size();
+      }
+      if (filter.filtered() == 1) {
+        return source.size();
+      }
+      return source.stream().filter(filter::matches).count();
+    }
+  }
+
+  /**
+   * Replaces the whole graph, e.g. with the rows read at startup. Must not run while associations
+   * are being written.
+   */
+  public synchronized void reload(Collection<FulfillmentAssociation> associations) {
+    committed.clear();
+    edgesByProduct.clear();
+    edgesByWarehouse.clear();
+    edgesByStore.clear();
+    warehousesByProductStore.clear();
+    productsByWarehouseStore.clear();
+    storesByProductWarehouse.clear();
+    warehousesByStore.clear();
+    productsByWarehouse.clear();
+    for (FulfillmentAssociation association : associations) {
+      Edge edge =
+          new Edge(
+              association.id,
+              products.encode(association.productId),
+              warehouses.encode(association.warehouseCode),
+              stores.encode(association.storeId));
+      reserve(edge);
+      commit(edge);
+    }
+  }
+
+  /** Number of committed associations. */
+  public synchronized int size() {
+    return committed.size();
+  }
+
+  /** Encodes the filters; null when a filter value is unknown, so nothing can match. */
+  private Filter filter(Long productId, String warehouseCode, Long storeId) {
+    int product = productId == null ? Filter.ANY : products.lookup(productId);
+    int warehouse = warehouseCode == null ? Filter.ANY : warehouses.lookup(warehouseCode);
+    int store = storeId == null ? Filter.ANY : stores.lookup(storeId);
+    if (product == -1 || warehouse == -1 || store == -1) {
+      return null;
+    }
+    return new Filter(product, warehouse, store);
+  }
+
+  /** The shortest adjacency list of the filtered ends, null without filters. */
+  private List<Edge> narrowest(Filter filter) {
+    List<Edge> narrowest = null;
+    if (filter.product != Filter.ANY) {
+      narrowest = edgesAt(edgesByProduct, filter.product);
+    }
+    if (filter.warehouse != Filter.ANY) {
+      narrowest = shorter(narrowest, edgesAt(edgesByWarehouse, filter.warehouse));
+    }
+    if (filter.store != Filter.ANY) {
+      narrowest = shorter(narrowest, edgesAt(edgesByStore, filter.store));
+    }
+    return narrowest;
+  }
+
+  private void collect(Filter filter, Long after, int limit, List<Edge> edges) {
+    List<Edge> source = narrowest(filter);
+    if (source == null) {
+      Collection<Edge> all =
+          after == null ? committed.values() : committed.tailMap(after, false).values();
+      for (Edge edge : all) {
+        if (edges.size() >= limit) {
+          return;
+        }
+        edges.add(edge);
+      }
+      return;
+    }
+    for (int i = after == null ? 0 : firstAfter(source, after);
+        i < source.size() && edges.size() < limit;
+        i++) {
+      Edge edge = source.get(i);
+      if (filter.matches(edge)) {
+        edges.add(edge);
+      }
+    }
+  }
+
+  private static List<Edge> shorter(List<Edge> current, List<Edge> candidate) {
+    return current == null || candidate.size() < current.size() ? candidate : current;
+  }
+
+  /** Index of the first edge with an id above {@code after} in an id-ordered list. */
+  private static int firstAfter(List<Edge> edges, long after) {
+    int low = 0;
+    int high = edges.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (edges.get(middle).id <= after) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static void insertInIdOrder(List<Edge> edges, Edge edge) {
+    edges.add(firstAfter(edges, edge.id), edge);
+  }
+
+  private Edge pendingEdge(Long id) {
+    List<Change> pending = pendingChanges(false);
+    if (pending != null) {
+      for (Change change : pending) {
+        if (change.added && change.edge.id == id) {
+          return change.edge;
+        }
+      }
+    }
+    return null;
+  }
+
+  private void stage(Change change) {
+    List<Change> pending = pendingChanges(true);
+    if (pending == null) {
+      // no transaction, nothing to wait for
+      complete(List.of(change), true);
+    } else {
+      pending.add(change);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Change> pendingChanges(boolean create) {
+    if (transactionRegistry.getTransactionKey() == null) {
+      return null;
+    }
+    List<Change> pending = (List<Change>) transactionRegistry.getResource(PENDING_CHANGES_KEY);
+    if (pending == null && create) {
+      List<Change> changes = new ArrayList<>();
+      transactionRegistry.putResource(PENDING_CHANGES_KEY, changes);
+      transactionRegistry.registerInterposedSynchronization(
+          new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+              complete(changes, status == Status.STATUS_COMMITTED);
+            }
+          });
+      pending = changes;
+    }
+    return pending;
+  }
+
+  private synchronized void complete(List<Change> changes, boolean commit) {
+    for (Change change : changes) {
+      if (commit && change.added) {
+        commit(change.edge);
+      } else if (commit) {
+        uncommit(change.edge);
+        release(change.edge);
+      } else if (change.added) {
+        // rolled back: the reserved slot is free again
+        release(change.edge);
+      }
+    }
+  }
+
+  private void commit(Edge edge) {
+    committed.put(edge.id, edge);
+    insertInIdOrder(edgesAt(edgesByProduct, edge.product), edge);
+    insertInIdOrder(edgesAt(edgesByWarehouse, edge.warehouse), edge);
+    insertInIdOrder(edgesAt(edgesByStore, edge.store), edge);
+  }
+
+  private void uncommit(Edge edge) {
+    if (committed.remove(edge.id) != null) {
+      edgesByProduct.get(edge.product).remove(edge);
+      edgesByWarehouse.get(edge.warehouse).remove(edge);
+      edgesByStore.get(edge.store).remove(edge);
+    }
+  }
+
+  private void reserve(Edge edge) {
+    bits(warehousesByProductStore, pair(edge.product, edge.store)).set(edge.warehouse);
+    bits(productsByWarehouseStore, pair(edge.warehouse, edge.store)).set(edge.product);
+    bits(storesByProductWarehouse, pair(edge.product, edge.warehouse)).set(edge.store);
+    at(warehousesByStore, edge.store).set(edge.warehouse);
+    at(productsByWarehouse, edge.warehouse).set(edge.product);
+  }
+
+  private void release(Edge edge) {
+    clear(warehousesByProductStore, pair(edge.product, edge.store), edge.warehouse);
+    // The warehouse still serves the store while it has another product there, and likewise
+    if (clear(productsByWarehouseStore, pair(edge.warehouse, edge.store), edge.product)) {
+      warehousesByStore.get(edge.store).clear(edge.warehouse);
+    }
+    if (clear(storesByProductWarehouse, pair(edge.product, edge.warehouse), edge.store)) {
+      productsByWarehouse.get(edge.warehouse).clear(edge.product);
+    }
+  }
+
+  private FulfillmentAssociation toAssociation(Edge edge) {
+    FulfillmentAssociation association =
+        new FulfillmentAssociation(
+            products.key(edge.product), warehouses.key(edge.warehouse), stores.key(edge.store));
+    association.id = edge.id;
+    return association;
+  }
+
+  private static BitSet bits(Map<Long, BitSet> bitsets, long key) {
+    return bitsets.computeIfAbsent(key, k -> new BitSet());
+  }
+
+  /** Clears a bit and reports whether the bitset became empty. */
+  private static boolean clear(Map<Long, BitSet> bitsets, long key, int bit) {
+    BitSet bitset = bitsets.get(key);
+    if (bitset == null) {
+      return true;
+    }
+    bitset.clear(bit);
+    if (bitset.isEmpty()) {
+      bitsets.remove(key);
+      return true;
+    }
+    return false;
+  }
+
+  private static BitSet at(List<BitSet> bitsets, int index) {
+    while (bitsets.size() <= index) {
+      bitsets.add(new BitSet());
+    }
+    return bitsets.get(index);
+  }
+
+  private static List<Edge> edgesAt(List<List<Edge>> lists, int index) {
+    while (lists.size() <= index) {
+      lists.add(new ArrayList<>());
+    }
+    return lists.get(index);
+  }
+
+  private static boolean contains(BitSet bitset, int bit) {
+    return bitset != null && bit >= 0 && bitset.get(bit);
+  }
+
+  private static long cardinality(BitSet bitset) {
+    return bitset == null ? 0 : bitset.cardinality();
+  }
+
+  private static long pair(int first, int second) {
+    return ((long) first << 32) | (second & 0xffffffffL);
+  }
+
+  private record Edge(long id, int product, int warehouse, int store) {}
+
+  private record Change(Edge edge, boolean added) {}
+
+  /** Encoded filters, {@link #ANY} where a filter is not set. */
+  private record Filter(int product, int warehouse, int store) {
+    static final int ANY = -2;
+
+    boolean matches(Edge edge) {
+      return (product == ANY || edge.product == product)
+          && (warehouse == ANY || edge.warehouse == warehouse)
+          && (store == ANY || edge.store == store);
+    }
+
+    int filtered() {
+      return (product == ANY ? 0 : 1) + (warehouse == ANY ? 0 : 1) + (store == ANY ? 0 : 1);
+    }
+  }
+
+  /** Maps keys to dense ints in order of first appearance; codes are never reused. */
+  private static final class Dictionary<K> {
+    private final Map<K, Integer> codes = new HashMap<>();
+    private final List<K> keys = new ArrayList<>();
+
+    int encode(K key) {
+      return codes.computeIfAbsent(
+          key,
+          k -> {
+            keys.add(k);
+            return keys.size() - 1;
+          });
+    }
+
+    int lookup(K key) {
+      Integer code = key == null ? null : codes.get(key);
+      return code == null ? -1 : code;
+    }
+
+    K key(int code) {
+      return keys.get(code);
+    }
+  }
+}
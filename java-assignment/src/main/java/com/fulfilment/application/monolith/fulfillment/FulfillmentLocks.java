@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks serializing the rule checks per store and per warehouse. The store limits (rules
+ * 1 and 2) only depend on associations of that store and the warehouse limit (rule 3) only on
+ * associations of that warehouse, so two creations only have to wait for each other when they
+ * share a store or a warehouse. Stripes are always taken in ascending order, which rules out
+ * deadlocks between callers locking several of them.
+ */
+class FulfillmentLocks {
+
+  static final int DEFAULT_STRIPES = 256;
+
+  private final ReentrantLock[] stripes;
+
+  FulfillmentLocks(int stripes) {
+    this.stripes = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /** Locks the stripes of the given stores and warehouses; release them by closing the handle. */
+  Held lock(Collection<Long> storeIds, Collection<String> warehouseCodes) {
+    TreeSet<Integer> indexes = new TreeSet<>();
+    storeIds.forEach(storeId -> indexes.add(stripe("store:" + storeId)));
+    warehouseCodes.forEach(code -> indexes.add(stripe("warehouse:" + code)));
+    int[] locked = new int[indexes.size()];
+    int count = 0;
+    try {
+      for (int index : indexes) {
+        stripes[index].lock();
+        locked[count++] = index;
+      }
+    } catch (RuntimeException | Error e) {
+      unlock(locked, count);
+      throw e;
+    }
+    int held = count;
+    return () -> unlock(locked, held);
+  }
+
+  private void unlock(int[] locked, int count) {
+    for (int i = count - 1; i >= 0; i--) {
+      stripes[locked[i]].unlock();
+    }
+  }
+
+  private int stripe(String key) {
+    return Math.floorMod(key.hashCode(), stripes.length);
+  }
+
+  /** Stripes held by one caller. */
+  interface Held extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,36 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Associations proposed by the fulfillment planner. Nothing is persisted: the associations can be
+ * created with the bulk endpoint, where they are validated again.
+ */
+public class FulfillmentPlan {
+
+  // proposed associations, ordered by store as requested, then by product
+  public List<FulfillmentAssociation> associations = new ArrayList<>();
+
+  // requested products the plan could not place
+  public List<Unassigned> unassigned = new ArrayList<>();
+
+  // true when the time budget ran out before every store was searched exhaustively
+  public boolean timedOut;
+
+  /** A requested product of a store that no proposed association covers. */
+  public static class Unassigned {
+
+    public Long storeId;
+
+    public Long productId;
+
+    public String reason;
+
+    public Unassigned(Long storeId, Long productId, String reason) {
+      this.storeId = storeId;
+      this.productId = productId;
+      this.reason = reason;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+/** What the fulfillment planner optimizes once every product it can place is placed. */
+public enum FulfillmentPlanObjective {
+
+  /** Open as few new warehouses per store as possible, then balance load. */
+  MIN_WAREHOUSES,
+
+  /** Keep the associations per unit of warehouse capacity as even as possible. */
+  BALANCE_LOAD
+}
@@ -0,0 +1,353 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static com.fulfilment.application.monolith.fulfillment.FulfillmentService.MAX_PRODUCTS_PER_WAREHOUSE;
+import static com.fulfilment.application.monolith.fulfillment.FulfillmentService.MAX_WAREHOUSES_PER_STORE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Searches associations covering the products requested per store without breaking the limits of
+ * {@link FulfillmentService}. A product already fulfilled for a store counts as covered, any other
+ * requested product gets one warehouse. The store limits (rules 1 and 2) only depend on the store
+ * itself, so the stores are searched in parallel against the same state. The limit they share
+ * (rule 3, product types per warehouse) is enforced while merging the store plans in request
+ * order: a store whose plan needs a product slot that an earlier store already took is searched
+ * again against the merged state.
+ *
+ * <p>Per store, a greedy pick of warehouses gives the first solution, then every combination of
+ * the new warehouses the store may still open is tried, smallest combinations first. Solutions
+ * rank by unplaced products, then by the objective: new warehouses, product slots taken and peak
+ * load for {@code MIN_WAREHOUSES}, peak load first for {@code BALANCE_LOAD}. Once the time budget
+ * runs out, each store keeps the best solution found so far.
+ */
+class FulfillmentPlanSolver {
+
+  static final String NO_SLOT_REASON =
+      "No warehouse with a free product slot within the store's warehouse limit";
+  static final String STALE_REASON = "Previous proposal no longer fits, re-plan the store";
+
+  private final NavigableMap<String, Integer> capacities;
+  private final FulfillmentPlanObjective objective;
+  private final Comparator<Solution> ranking;
+
+  // Existing associations, the kept ones of the previous plan and the store plans merged so far
+  private final Map<String, Set<Long>> productsByWarehouse = new HashMap<>();
+  private final Map<Long, Set<String>> warehousesByStore = new HashMap<>();
+  private final Map<Long, Set<Long>> productsByStore = new HashMap<>();
+  private final Map<String, Integer> load = new HashMap<>();
+
+  /**
+   * @param capacities capacity of every active warehouse, by business unit code; only these
+   *     warehouses are proposed
+   * @param existing the associations that already exist
+   */
+  FulfillmentPlanSolver(
+      Map<String, Integer> capacities,
+      Collection<FulfillmentAssociation> existing,
+      FulfillmentPlanObjective objective) {
+    this.capacities = new TreeMap<>(capacities);
+    this.objective = objective;
+    Comparator<Solution> byUnassigned = Comparator.comparingInt(s -> s.unassigned.size());
+    this.ranking =
+        objective == FulfillmentPlanObjective.MIN_WAREHOUSES
+            ? byUnassigned
+                .thenComparingInt(Solution::opened)
+                .thenComparingInt(Solution::slots)
+                .thenComparingDouble(Solution::maxLoad)
+            : byUnassigned
+                .thenComparingDouble(Solution::maxLoad)
+                .thenComparingInt(Solution::opened)
+                .thenComparingInt(Solution::slots);
+    existing.forEach(this::apply);
+  }
+
+  /**
+   * Plans the given stores, searching them on {@code executor}. The associations of {@code
+   * previous} for stores that are not planned again are kept as they are, so a change of one store
+   * is re-planned without moving the others.
+   */
+  FulfillmentPlan solve(
+      List<StoreDemand> demands,
+      List<FulfillmentAssociation> previous,
+      long budgetMillis,
+      Executor executor) {
+    FulfillmentPlan plan = new FulfillmentPlan();
+    Set<Long> replanned = demands.stream().map(d -> d.storeId).collect(Collectors.toSet());
+    for (FulfillmentAssociation association : previous) {
+      if (replanned.contains(association.storeId) || served(association)) {
+        continue;
+      }
+      if (fits(association)) {
+        apply(association);
+        plan.associations.add(association);
+      } else {
+        plan.unassigned.add(
+            new FulfillmentPlan.Unassigned(
+                association.storeId, association.productId, STALE_REASON));
+      }
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    List<CompletableFuture<StorePlan>> searches =
+        demands.stream()
+            .map(demand -> CompletableFuture.supplyAsync(() -> search(demand, deadline), executor))
+            .toList();
+    // The searches only read the state, which is not updated before they are all done
+    CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).join();
+
+    for (int i = 0; i < demands.size(); i++) {
+      StorePlan storePlan = searches.get(i).join();
+      if (!fits(storePlan.solution)) {
+        storePlan = search(demands.get(i), deadline);
+      }
+      for (FulfillmentAssociation association : storePlan.solution.assignments) {
+        apply(association);
+        plan.associations.add(association);
+      }
+      for (Long productId : storePlan.solution.unassigned) {
+        plan.unassigned.add(
+            new FulfillmentPlan.Unassigned(storePlan.storeId, productId, NO_SLOT_REASON));
+      }
+      plan.timedOut |= storePlan.timedOut;
+    }
+    return plan;
+  }
+
+  private StorePlan search(StoreDemand demand, long deadline) {
+    Set<Long> served = productsByStore.getOrDefault(demand.storeId, Set.of());
+    List<Long> needed =
+        demand.productIds == null
+            ? List.of()
+            : demand.productIds.stream()
+                .filter(Objects::nonNull)
+                .filter(productId -> !served.contains(productId))
+                .distinct()
+                .sorted()
+                .toList();
+    Set<String> used = warehousesByStore.getOrDefault(demand.storeId, Set.of());
+    List<String> candidates =
+        capacities.keySet().stream()
+            .filter(code -> !used.contains(code) && useful(code, needed))
+            .toList();
+    Search search =
+        new Search(
+            demand.storeId,
+            needed,
+            used.stream().filter(capacities::containsKey).sorted().toList(),
+            deadline);
+    return search.run(candidates, Math.max(0, MAX_WAREHOUSES_PER_STORE - used.size()));
+  }
+
+  /** Searches one store; only reads the shared state. */
+  private final class Search {
+
+    private final Long storeId;
+    private final List<Long> needed;
+    private final List<String> used;
+    private final long deadline;
+    private Solution best;
+    private boolean timedOut;
+
+    Search(Long storeId, List<Long> needed, List<String> used, long deadline) {
+      this.storeId = storeId;
+      this.needed = needed;
+      this.used = used;
+      this.deadline = deadline;
+    }
+
+    StorePlan run(List<String> candidates, int open) {
+      best = assign(List.of());
+      if (!needed.isEmpty() && open > 0) {
+        greedy(candidates, open);
+        for (int size = 1; size <= Math.min(open, candidates.size()) && !timedOut; size++) {
+          if (objective == FulfillmentPlanObjective.MIN_WAREHOUSES
+              && best.unassigned.isEmpty()
+              && best.opened < size) {
+            // Larger combinations open more warehouses and cannot rank better
+            break;
+          }
+          combinations(candidates, new String[size], 0, 0);
+        }
+      }
+      return new StorePlan(storeId, best, timedOut);
+    }
+
+    /** Adds the best warehouse at a time while that places more products; ignores the budget. */
+    private void greedy(List<String> candidates, int open) {
+      List<String> chosen = new ArrayList<>();
+      Solution current = best;
+      for (int step = 0; step < open; step++) {
+        Solution stepBest = null;
+        String pick = null;
+        for (String candidate : candidates) {
+          if (chosen.contains(candidate)) {
+            continue;
+          }
+          chosen.add(candidate);
+          Solution solution = assign(chosen);
+          chosen.remove(chosen.size() - 1);
+          if (stepBest == null || ranking.compare(solution, stepBest) < 0) {
+            stepBest = solution;
+            pick = candidate;
+          }
+        }
+        if (pick == null || stepBest.unassigned.size() >= current.unassigned.size()) {
+          return;
+        }
+        chosen.add(pick);
+        current = stepBest;
+        consider(current);
+      }
+    }
+
+    private void combinations(List<String> candidates, String[] chosen, int depth, int from) {
+      if (depth == chosen.length) {
+        consider(assign(List.of(chosen)));
+        timedOut = System.nanoTime() - deadline > 0;
+        return;
+      }
+      for (int i = from; i <= candidates.size() - (chosen.length - depth) && !timedOut; i++) {
+        chosen[depth] = candidates.get(i);
+        combinations(candidates, chosen, depth + 1, i + 1);
+      }
+    }
+
+    private void consider(Solution solution) {
+      if (ranking.compare(solution, best) < 0) {
+        best = solution;
+      }
+    }
+
+    /**
+     * Gives every needed product a warehouse among the store's warehouses and {@code chosen}: one
+     * that already holds the product if possible, as it takes no product slot, and the least
+     * loaded one among those.
+     */
+    private Solution assign(List<String> chosen) {
+      List<String> open = Stream.concat(used.stream(), chosen.stream()).toList();
+      Map<String, Integer> slotsTaken = new HashMap<>();
+      Map<String, Integer> added = new HashMap<>();
+      List<FulfillmentAssociation> assignments = new ArrayList<>();
+      List<Long> unassigned = new ArrayList<>();
+      for (Long productId : needed) {
+        String pick = null;
+        boolean pickHolds = false;
+        double pickLoad = 0;
+        for (String code : open) {
+          boolean holds = holds(code, productId);
+          if (!holds && freeSlots(code) <= slotsTaken.getOrDefault(code, 0)) {
+            continue;
+          }
+          double loadAfter = loadAfter(code, added.getOrDefault(code, 0) + 1);
+          if (pick == null
+              || (holds && !pickHolds)
+              || (holds == pickHolds && loadAfter < pickLoad)) {
+            pick = code;
+            pickHolds = holds;
+            pickLoad = loadAfter;
+          }
+        }
+        if (pick == null) {
+          unassigned.add(productId);
+          continue;
+        }
+        assignments.add(new FulfillmentAssociation(productId, pick, storeId));
+        added.merge(pick, 1, Integer::sum);
+        if (!pickHolds) {
+          slotsTaken.merge(pick, 1, Integer::sum);
+        }
+      }
+      int opened = (int) chosen.stream().filter(added::containsKey).count();
+      double maxLoad =
+          added.entrySet().stream()
+              .mapToDouble(e -> loadAfter(e.getKey(), e.getValue()))
+              .max()
+              .orElse(0);
+      int slots = slotsTaken.values().stream().mapToInt(Integer::intValue).sum();
+      return new Solution(assignments, unassigned, opened, slots, maxLoad);
+    }
+  }
+
+  /** Whether the product slots a store solution takes are still free in the merged state. */
+  private boolean fits(Solution solution) {
+    Map<String, Integer> slots = new HashMap<>();
+    for (FulfillmentAssociation association : solution.assignments) {
+      if (!holds(association.warehouseCode, association.productId)) {
+        slots.merge(association.warehouseCode, 1, Integer::sum);
+      }
+    }
+    return slots.entrySet().stream().allMatch(e -> e.getValue() <= freeSlots(e.getKey()));
+  }
+
+  /** Whether one more association keeps the store and warehouse limits. */
+  private boolean fits(FulfillmentAssociation association) {
+    Set<String> storeWarehouses = warehousesByStore.getOrDefault(association.storeId, Set.of());
+    return capacities.containsKey(association.warehouseCode)
+        && (storeWarehouses.contains(association.warehouseCode)
+            || storeWarehouses.size() < MAX_WAREHOUSES_PER_STORE)
+        && (holds(association.warehouseCode, association.productId)
+            || freeSlots(association.warehouseCode) > 0);
+  }
+
+  private boolean served(FulfillmentAssociation association) {
+    return productsByStore
+        .getOrDefault(association.storeId, Set.of())
+        .contains(association.productId);
+  }
+
+  private boolean useful(String code, List<Long> needed) {
+    return freeSlots(code) > 0 || needed.stream().anyMatch(productId -> holds(code, productId));
+  }
+
+  private boolean holds(String code, Long productId) {
+    return productsByWarehouse.getOrDefault(code, Set.of()).contains(productId);
+  }
+
+  private int freeSlots(String code) {
+    return MAX_PRODUCTS_PER_WAREHOUSE - productsByWarehouse.getOrDefault(code, Set.of()).size();
+  }
+
+  /** Associations per unit of capacity once {@code extra} more are added to the warehouse. */
+  private double loadAfter(String code, int extra) {
+    Integer capacity = capacities.get(code);
+    int units = capacity == null ? 1 : Math.max(1, capacity);
+    return (load.getOrDefault(code, 0) + extra) / (double) units;
+  }
+
+  private void apply(FulfillmentAssociation association) {
+    productsByWarehouse
+        .computeIfAbsent(association.warehouseCode, code -> new HashSet<>())
+        .add(association.productId);
+    warehousesByStore
+        .computeIfAbsent(association.storeId, storeId -> new HashSet<>())
+        .add(association.warehouseCode);
+    productsByStore
+        .computeIfAbsent(association.storeId, storeId -> new HashSet<>())
+        .add(association.productId);
+    load.merge(association.warehouseCode, 1, Integer::sum);
+  }
+
+  private record Solution(
+      List<FulfillmentAssociation> assignments,
+      List<Long> unassigned,
+      int opened,
+      int slots,
+      double maxLoad) {}
+
+  private record StorePlan(Long storeId, Solution solution, boolean timedOut) {}
+}
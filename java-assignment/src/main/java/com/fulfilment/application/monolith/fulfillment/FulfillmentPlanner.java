@@ -0,0 +1,133 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Proposes the associations that fulfill the products each store needs, without creating them.
+ * The plan starts from the current associations and active warehouses and is computed by {@link
+ * FulfillmentPlanSolver}, with one task per store on a pool of {@code fulfillment.plan.threads}
+ * threads owned by the planner. Long searches therefore only queue behind each other instead of
+ * occupying the common pool the rest of the JVM relies on.
+ */
+@ApplicationScoped
+public class FulfillmentPlanner {
+
+  private static final Logger LOGGER = Logger.getLogger(FulfillmentPlanner.class.getName());
+
+  @Inject FulfillmentRepository fulfillmentRepository;
+
+  @Inject ProductRepository productRepository;
+
+  @Inject WarehouseStore warehouseStore;
+
+  @ConfigProperty(name = "fulfillment.plan.threads", defaultValue = "4")
+  int threads;
+
+  private ExecutorService searchPool;
+
+  @PostConstruct
+  void init() {
+    AtomicInteger count = new AtomicInteger();
+    searchPool =
+        Executors.newFixedThreadPool(
+            threads,
+            task -> {
+              Thread thread = new Thread(task, "fulfillment-planner-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    searchPool.shutdownNow();
+  }
+
+  /**
+   * Plans the given stores within {@code budgetMillis}. The associations of {@code previous} for
+   * the other stores are kept, which re-plans a changed store without moving the rest of an
+   * earlier plan. Unknown stores and products are reported as unassigned.
+   */
+  public FulfillmentPlan plan(
+      List<StoreDemand> demands,
+      List<FulfillmentAssociation> previous,
+      FulfillmentPlanObjective objective,
+      long budgetMillis) {
+    List<Long> storeIds = demands.stream().map(d -> d.storeId).toList();
+    List<Long> productIds =
+        demands.stream()
+            .filter(d -> d.productIds != null)
+            .flatMap(d -> d.productIds.stream())
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+    Set<Long> existingStores = new HashSet<>(fulfillmentRepository.findExistingStoreIds(storeIds));
+    Set<Long> existingProducts = new HashSet<>(productRepository.findExistingIds(productIds));
+
+    List<StoreDemand> known = new ArrayList<>();
+    List<FulfillmentPlan.Unassigned> unknown = new ArrayList<>();
+    for (StoreDemand demand : demands) {
+      List<Long> requested = demand.productIds == null ? List.of() : demand.productIds;
+      if (!existingStores.contains(demand.storeId)) {
+        requested.forEach(
+            productId ->
+                unknown.add(
+                    new FulfillmentPlan.Unassigned(
+                        demand.storeId,
+                        productId,
+                        "Store with id " + demand.storeId + " does not exist")));
+        continue;
+      }
+      List<Long> products = new ArrayList<>();
+      for (Long productId : requested) {
+        if (existingProducts.contains(productId)) {
+          products.add(productId);
+        } else {
+          unknown.add(
+              new FulfillmentPlan.Unassigned(
+                  demand.storeId, productId, "Product with id " + productId + " does not exist"));
+        }
+      }
+      known.add(new StoreDemand(demand.storeId, products));
+    }
+
+    Map<String, Integer> capacities = new HashMap<>();
+    for (Warehouse warehouse : warehouseStore.getAll()) {
+      capacities.put(warehouse.businessUnitCode, warehouse.capacity);
+    }
+    List<FulfillmentAssociation> existing =
+        fulfillmentRepository.findPage(null, null, null, null, Integer.MAX_VALUE);
+
+    long start = System.nanoTime();
+    FulfillmentPlan plan =
+        new FulfillmentPlanSolver(capacities, existing, objective)
+            .solve(known, previous, budgetMillis, searchPool);
+    plan.unassigned.addAll(unknown);
+    LOGGER.infof(
+        "Planned %d stores in %d ms: %d associations, %d unassigned products%s",
+        demands.size(),
+        (System.nanoTime() - start) / 1_000_000,
+        plan.associations.size(),
+        plan.unassigned.size(),
+        plan.timedOut ? ", time budget exhausted" : "");
+    return plan;
+  }
+}
@@ -1,40 +1,54 @@
 package com.fulfilment.application.monolith.fulfillment;
 
+import com.fulfilment.application.monolith.metrics.Metered;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.ActiveWarehouseIndex;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import java.util.List;
 
+@Metered
 @ApplicationScoped
 public class FulfillmentRepository implements PanacheRepository<FulfillmentAssociation> {
 
-  /**
-   * Count how many different warehouses fulfill a specific product for a specific store.
-   * Constraint: Each Product can be fulfilled by max 2 different Warehouses per Store
-   */
-  public long countWarehousesForProductInStore(Long productId, Long storeId) {
-    return count("productId = ?1 AND storeId = ?2", productId, storeId);
+  @Inject FulfillmentGraph graph;
+
+  @Inject ActiveWarehouseIndex activeWarehouseIndex;
+
+  /** Persists an association and adds it to the {@link FulfillmentGraph}. */
+  @Override
+  public void persist(FulfillmentAssociation association) {
+    PanacheRepository.super.persist(association);
+    graph.add(association);
   }
 
-  /**
-   * Count how many different warehouses fulfill a specific store (across all products).
-   * Constraint: Each Store can be fulfilled by max 3 different Warehouses
-   */
-  public long countDistinctWarehousesForStore(Long storeId) {
-    return find("storeId = ?1", storeId).stream()
-        .map(a -> a.warehouseCode)
-        .distinct()
-        .count();
+  /** Deletes an association and removes it from the {@link FulfillmentGraph}. */
+  @Override
+  public void delete(FulfillmentAssociation association) {
+    PanacheRepository.super.delete(association);
+    graph.remove(association);
   }
 
   /**
-   * Count how many different product types a warehouse stores.
-   * Constraint: Each Warehouse can store max 5 types of Products
+   * Gather every fact the association rules need: existence of the product, active warehouse and
+   * store, plus all the counts behind the three cardinality constraints. The counts come from the
+   * {@link FulfillmentGraph}, the existence checks from the second-level cache and the active
+   * warehouse index, so this normally runs without SQL.
    */
-  public long countDistinctProductsInWarehouse(String warehouseCode) {
-    return find("warehouseCode = ?1", warehouseCode).stream()
-        .map(a -> a.productId)
-        .distinct()
-        .count();
+  public FulfillmentConstraintFacts evaluateConstraints(
+      Long productId, String warehouseCode, Long storeId) {
+    return graph.evaluate(
+        productId,
+        warehouseCode,
+        storeId,
+        productId != null && getEntityManager().find(Product.class, productId) != null,
+        activeWarehouseIndex.contains(warehouseCode),
+        storeId != null && getEntityManager().find(Store.class, storeId) != null);
   }
 
   /**
@@ -49,21 +63,50 @@ public class FulfillmentRepository implements PanacheRepository<FulfillmentAssoc
    * Get all associations for a product.
    */
   public List<FulfillmentAssociation> findByProduct(Long productId) {
-    return list("productId = ?1", productId);
+    return graph.findByProduct(productId);
   }
 
   /**
    * Get all associations for a warehouse.
    */
   public List<FulfillmentAssociation> findByWarehouse(String warehouseCode) {
-    return list("warehouseCode = ?1", warehouseCode);
+    return graph.findByWarehouse(warehouseCode);
   }
 
   /**
    * Get all associations for a store.
    */
   public List<FulfillmentAssociation> findByStore(Long storeId) {
-    return list("storeId = ?1", storeId);
+    return graph.findByStore(storeId);
+  }
+
+  /**
+   * Get a page of the associations matching every non-null filter, in id order, starting after the
+   * given id.
+   */
+  public List<FulfillmentAssociation> findPage(
+      Long productId, String warehouseCode, Long storeId, Long after, int limit) {
+    return graph.find(productId, warehouseCode, storeId, after, limit);
+  }
+
+  /**
+   * Count the associations matching every non-null filter.
+   */
+  public long countMatching(Long productId, String warehouseCode, Long storeId) {
+    return graph.count(productId, warehouseCode, storeId);
+  }
+
+  /**
+   * The ids among {@code storeIds} that belong to an existing store.
+   */
+  public List<Long> findExistingStoreIds(List<Long> storeIds) {
+    if (storeIds.isEmpty()) {
+      return List.of();
+    }
+    return getEntityManager()
+        .createQuery("SELECT s.id FROM Store s WHERE s.id IN ?1", Long.class)
+        .setParameter(1, storeIds)
+        .getResultList();
   }
 
   /**
@@ -79,4 +122,10 @@ public class FulfillmentRepository implements PanacheRepository<FulfillmentAssoc
   public boolean productAlreadyInWarehouse(Long productId, String warehouseCode) {
     return count("productId = ?1 AND warehouseCode = ?2", productId, warehouseCode) > 0;
   }
+
+  /** Loads the {@link FulfillmentGraph} from the association table. */
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    graph.reload(listAll());
+  }
 }
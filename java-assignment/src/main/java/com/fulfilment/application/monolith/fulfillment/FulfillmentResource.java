@@ -14,7 +14,9 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Path("fulfillment")
 @ApplicationScoped
@@ -22,51 +24,168 @@ import java.util.List;
 @Consumes(MediaType.APPLICATION_JSON)
 public class FulfillmentResource {
 
+  static final int MAX_BULK_SIZE = 1000;
+  static final int MAX_PLAN_STORES = 1000;
+  private static final long DEFAULT_PLAN_BUDGET_MILLIS = 1000;
+  private static final long MAX_PLAN_BUDGET_MILLIS = 30_000;
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 1000;
+
   @Inject FulfillmentService fulfillmentService;
 
+  @Inject FulfillmentPlanner fulfillmentPlanner;
+
   @GET
   public List<FulfillmentAssociationDto> getAll(
+      @QueryParam("productId") Long productId,
+      @QueryParam("warehouseCode") String warehouseCode,
+      @QueryParam("storeId") Long storeId,
+      @QueryParam("after") Long after,
+      @QueryParam("limit") Integer limit) {
+
+    int pageSize = Integer.MAX_VALUE;
+    if (after != null || limit != null) {
+      pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+      if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+        throw new WebApplicationException(
+            "Page size must be between 1 and " + MAX_PAGE_SIZE, Response.Status.BAD_REQUEST);
+      }
+    }
+
+    return fulfillmentService.find(productId, warehouseCode, storeId, after, pageSize).stream()
+        .map(this::toDto)
+        .toList();
+  }
+
+  @GET
+  @Path("count")
+  public FulfillmentCountDto count(
       @QueryParam("productId") Long productId,
       @QueryParam("warehouseCode") String warehouseCode,
       @QueryParam("storeId") Long storeId) {
+    FulfillmentCountDto dto = new FulfillmentCountDto();
+    dto.count = fulfillmentService.count(productId, warehouseCode, storeId);
+    return dto;
+  }
 
-    List<FulfillmentAssociation> associations;
+  @POST
+  @Transactional
+  public Response create(FulfillmentAssociationDto dto) {
+    FulfillmentAssociation created =
+        fulfillmentService.createAssociation(dto.productId, dto.warehouseCode, dto.storeId);
+    return Response.status(Response.Status.CREATED).entity(toDto(created)).build();
+  }
 
-    if (productId != null) {
-      associations = fulfillmentService.getByProduct(productId);
-    } else if (warehouseCode != null) {
-      associations = fulfillmentService.getByWarehouse(warehouseCode);
-    } else if (storeId != null) {
-      associations = fulfillmentService.getByStore(storeId);
+  /**
+   * Creates many associations in one transaction. {@code mode} is {@code BEST_EFFORT} (default),
+   * which creates every valid item, or {@code ALL_OR_NOTHING}, which creates nothing unless every
+   * item is valid. Every item gets its own result, in request order.
+   */
+  @POST
+  @Path("bulk")
+  @Transactional
+  public List<FulfillmentBulkResultDto> createBulk(
+      @QueryParam("mode") String mode, List<FulfillmentAssociationDto> dtos) {
+    boolean allOrNothing;
+    if (mode == null || "BEST_EFFORT".equals(mode)) {
+      allOrNothing = false;
+    } else if ("ALL_OR_NOTHING".equals(mode)) {
+      allOrNothing = true;
     } else {
-      associations = fulfillmentService.getAll();
+      throw new WebApplicationException(
+          "Unknown mode '" + mode + "', expected BEST_EFFORT or ALL_OR_NOTHING",
+          Response.Status.BAD_REQUEST);
+    }
+    if (dtos == null || dtos.size() > MAX_BULK_SIZE) {
+      throw new WebApplicationException(
+          "Between 0 and " + MAX_BULK_SIZE + " associations are accepted per request",
+          Response.Status.BAD_REQUEST);
     }
 
-    return associations.stream().map(this::toDto).toList();
+    List<FulfillmentAssociation> requested =
+        dtos.stream()
+            .map(
+                dto ->
+                    dto == null
+                        ? new FulfillmentAssociation()
+                        : new FulfillmentAssociation(dto.productId, dto.warehouseCode, dto.storeId))
+            .toList();
+    return fulfillmentService.createAssociations(requested, allOrNothing).stream()
+        .map(this::toBulkResultDto)
+        .toList();
   }
 
+  /**
+   * Proposes associations for the requested products of each store, within the association limits
+   * and without creating anything. {@code objective} is {@code MIN_WAREHOUSES} (default) or {@code
+   * BALANCE_LOAD}. The associations of {@code previous} for stores not in {@code stores} are kept,
+   * so sending back an earlier plan with one changed store only re-plans that store.
+   */
   @POST
-  @Transactional
-  public Response create(FulfillmentAssociationDto dto) {
+  @Path("plan")
+  public FulfillmentPlanDto plan(FulfillmentPlanRequestDto request) {
+    if (request == null
+        || request.stores == null
+        || request.stores.isEmpty()
+        || request.stores.size() > MAX_PLAN_STORES) {
+      throw new WebApplicationException(
+          "Between 1 and " + MAX_PLAN_STORES + " stores are accepted per plan",
+          Response.Status.BAD_REQUEST);
+    }
+    Set<Long> storeIds = new HashSet<>();
+    for (StoreDemand demand : request.stores) {
+      if (demand == null || demand.storeId == null || !storeIds.add(demand.storeId)) {
+        throw new WebApplicationException(
+            "Every store needs a storeId, once per plan", Response.Status.BAD_REQUEST);
+      }
+    }
+    FulfillmentPlanObjective objective;
     try {
-      FulfillmentAssociation created =
-          fulfillmentService.createAssociation(dto.productId, dto.warehouseCode, dto.storeId);
-      return Response.status(Response.Status.CREATED).entity(toDto(created)).build();
-    } catch (FulfillmentValidationException e) {
-      throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+      objective =
+          request.objective == null
+              ? FulfillmentPlanObjective.MIN_WAREHOUSES
+              : FulfillmentPlanObjective.valueOf(request.objective);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(
+          "Unknown objective '" + request.objective + "', expected MIN_WAREHOUSES or BALANCE_LOAD",
+          Response.Status.BAD_REQUEST);
     }
+    long budget =
+        request.timeBudgetMillis != null ? request.timeBudgetMillis : DEFAULT_PLAN_BUDGET_MILLIS;
+    if (budget < 1 || budget > MAX_PLAN_BUDGET_MILLIS) {
+      throw new WebApplicationException(
+          "Time budget must be between 1 and " + MAX_PLAN_BUDGET_MILLIS + " ms",
+          Response.Status.BAD_REQUEST);
+    }
+    List<FulfillmentAssociation> previous =
+        request.previous == null
+            ? List.of()
+            : request.previous.stream()
+                .filter(
+                    dto ->
+                        dto != null
+                            && dto.productId != null
+                            && dto.warehouseCode != null
+                            && dto.storeId != null)
+                .map(
+                    dto ->
+                        new FulfillmentAssociation(dto.productId, dto.warehouseCode, dto.storeId))
+                .toList();
+
+    FulfillmentPlan plan = fulfillmentPlanner.plan(request.stores, previous, objective, budget);
+    FulfillmentPlanDto dto = new FulfillmentPlanDto();
+    dto.associations = plan.associations.stream().map(this::toDto).toList();
+    dto.unassigned = plan.unassigned;
+    dto.timedOut = plan.timedOut;
+    return dto;
   }
 
   @DELETE
   @Path("{id}")
   @Transactional
   public Response delete(@PathParam("id") Long id) {
-    try {
-      fulfillmentService.deleteAssociation(id);
-      return Response.noContent().build();
-    } catch (FulfillmentValidationException e) {
-      throw new WebApplicationException(e.getMessage(), Response.Status.NOT_FOUND);
-    }
+    fulfillmentService.deleteAssociation(id);
+    return Response.noContent().build();
   }
 
   private FulfillmentAssociationDto toDto(FulfillmentAssociation association) {
@@ -78,6 +197,37 @@ public class FulfillmentResource {
     return dto;
   }
 
+  private FulfillmentBulkResultDto toBulkResultDto(FulfillmentCreationResult result) {
+    FulfillmentBulkResultDto dto = new FulfillmentBulkResultDto();
+    dto.created = result.isCreated();
+    dto.error = result.error;
+    dto.association = toDto(result.association);
+    return dto;
+  }
+
+  public static class FulfillmentPlanRequestDto {
+    public List<StoreDemand> stores;
+    public String objective;
+    public Long timeBudgetMillis;
+    public List<FulfillmentAssociationDto> previous;
+  }
+
+  public static class FulfillmentPlanDto {
+    public List<FulfillmentAssociationDto> associations;
+    public List<FulfillmentPlan.Unassigned> unassigned;
+    public boolean timedOut;
+  }
+
+  public static class FulfillmentCountDto {
+    public long count;
+  }
+
+  public static class FulfillmentBulkResultDto {
+    public boolean created;
+    public String error;
+    public FulfillmentAssociationDto association;
+  }
+
   public static class FulfillmentAssociationDto {
     public Long id;
     public Long productId;
@@ -1,55 +1,126 @@
 package com.fulfilment.application.monolith.fulfillment;
 
-import com.fulfilment.application.monolith.products.Product;
-import com.fulfilment.application.monolith.products.ProductRepository;
-import com.fulfilment.application.monolith.stores.Store;
-import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.errors.ErrorCode;
+import com.fulfilment.application.monolith.metrics.Metered;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+@Metered
 @ApplicationScoped
 public class FulfillmentService {
 
-  private static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
-  private static final int MAX_WAREHOUSES_PER_STORE = 3;
-  private static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
+  public static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
+  public static final int MAX_WAREHOUSES_PER_STORE = 3;
+  public static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
 
   @Inject FulfillmentRepository fulfillmentRepository;
 
-  @Inject WarehouseRepository warehouseRepository;
+  @Inject TransactionSynchronizationRegistry transactionRegistry;
 
-  @Inject ProductRepository productRepository;
+  // Held per store and warehouse from the rule checks until the new association is in the graph,
+  // where it counts against the limits of every later check even before it commits
+  private final FulfillmentLocks locks = new FulfillmentLocks(FulfillmentLocks.DEFAULT_STRIPES);
 
   /**
    * Creates a new fulfillment association between a product, warehouse, and store.
-   * Validates all constraints before creating.
+   * Validates all constraints before creating, against the in-memory {@link FulfillmentGraph}.
    */
+  @WithSpan
   public FulfillmentAssociation createAssociation(
       Long productId, String warehouseCode, Long storeId) {
+    // singletonList, not List.of: missing ids are reported by the validation below
+    try (FulfillmentLocks.Held held =
+        locks.lock(Collections.singletonList(storeId), Collections.singletonList(warehouseCode))) {
+      return validateAndPersist(productId, warehouseCode, storeId);
+    }
+  }
+
+  /**
+   * Creates many associations at once. Every item is checked against the existing associations
+   * and the items accepted before it, so the limits hold for the batch as a whole; the accepted
+   * associations are inserted in JDBC batches when the transaction commits.
+   *
+   * <p>With {@code allOrNothing} a single rejected item rolls back the current transaction, and
+   * the items that were valid are reported as not created. Otherwise the valid items are created
+   * and only the invalid ones are rejected.
+   *
+   * @return one result per item, in request order
+   */
+  @WithSpan
+  public List<FulfillmentCreationResult> createAssociations(
+      List<FulfillmentAssociation> associations, boolean allOrNothing) {
+    List<FulfillmentCreationResult> results = new ArrayList<>(associations.size());
+    boolean rejected = false;
+    Set<Long> storeIds = new HashSet<>();
+    Set<String> warehouseCodes = new HashSet<>();
+    for (FulfillmentAssociation requested : associations) {
+      storeIds.add(requested.storeId);
+      warehouseCodes.add(requested.warehouseCode);
+    }
+    try (FulfillmentLocks.Held held = locks.lock(storeIds, warehouseCodes)) {
+      for (FulfillmentAssociation requested : associations) {
+        try {
+          results.add(
+              FulfillmentCreationResult.created(
+                  validateAndPersist(
+                      requested.productId, requested.warehouseCode, requested.storeId)));
+        } catch (FulfillmentValidationException e) {
+          results.add(FulfillmentCreationResult.rejected(requested, e.getMessage()));
+          rejected = true;
+        }
+      }
+    }
+
+    if (allOrNothing && rejected) {
+      // The graph releases the reserved associations once the rollback completes
+      transactionRegistry.setRollbackOnly();
+      return results.stream()
+          .map(
+              result ->
+                  result.isCreated()
+                      ? FulfillmentCreationResult.rejected(
+                          result.association, "Not created, another item of the batch was rejected")
+                      : result)
+          .toList();
+    }
+    return results;
+  }
+
+  private FulfillmentAssociation validateAndPersist(
+      Long productId, String warehouseCode, Long storeId) {
+    FulfillmentConstraintFacts facts =
+        fulfillmentRepository.evaluateConstraints(productId, warehouseCode, storeId);
 
     // Validate that product exists
-    Product product = productRepository.findById(productId);
-    if (product == null) {
-      throw new FulfillmentValidationException("Product with id " + productId + " does not exist");
+    if (!facts.productExists) {
+      throw new FulfillmentValidationException(
+          ErrorCode.UNKNOWN_PRODUCT, "Product with id " + productId + " does not exist");
     }
 
     // Validate that warehouse exists
-    var warehouse = warehouseRepository.findByBusinessUnitCode(warehouseCode);
-    if (warehouse == null) {
+    if (!facts.warehouseExists) {
       throw new FulfillmentValidationException(
+          ErrorCode.UNKNOWN_WAREHOUSE,
           "Warehouse with code '" + warehouseCode + "' does not exist");
     }
 
     // Validate that store exists
-    Store store = Store.findById(storeId);
-    if (store == null) {
-      throw new FulfillmentValidationException("Store with id " + storeId + " does not exist");
+    if (!facts.storeExists) {
+      throw new FulfillmentValidationException(
+          ErrorCode.UNKNOWN_STORE, "Store with id " + storeId + " does not exist");
     }
 
     // Check if association already exists
-    if (fulfillmentRepository.associationExists(productId, warehouseCode, storeId)) {
+    if (facts.associationExists) {
       throw new FulfillmentValidationException(
+          ErrorCode.ASSOCIATION_ALREADY_EXISTS,
           "Association already exists for product "
               + productId
               + ", warehouse "
@@ -59,10 +130,9 @@ public class FulfillmentService {
     }
 
     // Constraint 1: Each Product can be fulfilled by max 2 different Warehouses per Store
-    long warehousesForProductInStore =
-        fulfillmentRepository.countWarehousesForProductInStore(productId, storeId);
-    if (warehousesForProductInStore >= MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
+    if (facts.warehousesForProductInStore >= MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
       throw new FulfillmentValidationException(
+          ErrorCode.PRODUCT_WAREHOUSE_LIMIT_REACHED,
           "Product "
               + productId
               + " is already fulfilled by "
@@ -73,32 +143,28 @@ public class FulfillmentService {
 
     // Constraint 2: Each Store can be fulfilled by max 3 different Warehouses
     // Only check if this warehouse is not already associated with this store
-    if (!fulfillmentRepository.warehouseAlreadyAssociatedWithStore(warehouseCode, storeId)) {
-      long distinctWarehousesForStore =
-          fulfillmentRepository.countDistinctWarehousesForStore(storeId);
-      if (distinctWarehousesForStore >= MAX_WAREHOUSES_PER_STORE) {
-        throw new FulfillmentValidationException(
-            "Store "
-                + storeId
-                + " is already fulfilled by "
-                + MAX_WAREHOUSES_PER_STORE
-                + " different warehouses");
-      }
+    if (!facts.warehouseAlreadyAssociatedWithStore
+        && facts.distinctWarehousesForStore >= MAX_WAREHOUSES_PER_STORE) {
+      throw new FulfillmentValidationException(
+          ErrorCode.STORE_WAREHOUSE_LIMIT_REACHED,
+          "Store "
+              + storeId
+              + " is already fulfilled by "
+              + MAX_WAREHOUSES_PER_STORE
+              + " different warehouses");
     }
 
     // Constraint 3: Each Warehouse can store max 5 types of Products
     // Only check if this product is not already in this warehouse
-    if (!fulfillmentRepository.productAlreadyInWarehouse(productId, warehouseCode)) {
-      long distinctProductsInWarehouse =
-          fulfillmentRepository.countDistinctProductsInWarehouse(warehouseCode);
-      if (distinctProductsInWarehouse >= MAX_PRODUCTS_PER_WAREHOUSE) {
-        throw new FulfillmentValidationException(
-            "Warehouse "
-                + warehouseCode
-                + " already stores "
-                + MAX_PRODUCTS_PER_WAREHOUSE
-                + " different product types");
-      }
+    if (!facts.productAlreadyInWarehouse
+        && facts.distinctProductsInWarehouse >= MAX_PRODUCTS_PER_WAREHOUSE) {
+      throw new FulfillmentValidationException(
+          ErrorCode.WAREHOUSE_PRODUCT_LIMIT_REACHED,
+          "Warehouse "
+              + warehouseCode
+              + " already stores "
+              + MAX_PRODUCTS_PER_WAREHOUSE
+              + " different product types");
     }
 
     // All validations passed, create the association
@@ -115,7 +181,7 @@ public class FulfillmentService {
     FulfillmentAssociation association = fulfillmentRepository.findById(id);
     if (association == null) {
       throw new FulfillmentValidationException(
-          "Fulfillment association with id " + id + " not found");
+          ErrorCode.ASSOCIATION_NOT_FOUND, "Fulfillment association with id " + id + " not found");
     }
     fulfillmentRepository.delete(association);
   }
@@ -147,4 +213,20 @@ public class FulfillmentService {
   public List<FulfillmentAssociation> getByStore(Long storeId) {
     return fulfillmentRepository.findByStore(storeId);
   }
+
+  /**
+   * Get associations matching every non-null filter, in id order, after the given id (if any),
+   * at most {@code limit} of them.
+   */
+  public List<FulfillmentAssociation> find(
+      Long productId, String warehouseCode, Long storeId, Long after, int limit) {
+    return fulfillmentRepository.findPage(productId, warehouseCode, storeId, after, limit);
+  }
+
+  /**
+   * Count associations matching every non-null filter.
+   */
+  public long count(Long productId, String warehouseCode, Long storeId) {
+    return fulfillmentRepository.countMatching(productId, warehouseCode, storeId);
+  }
 }
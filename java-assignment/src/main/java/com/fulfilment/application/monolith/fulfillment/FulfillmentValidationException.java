@@ -1,8 +1,15 @@
 package com.fulfilment.application.monolith.fulfillment;
 
-public class FulfillmentValidationException extends RuntimeException {
+import com.fulfilment.application.monolith.errors.DomainException;
+import com.fulfilment.application.monolith.errors.ErrorCode;
+
+public class FulfillmentValidationException extends DomainException {
 
   public FulfillmentValidationException(String message) {
-    super(message);
+    this(ErrorCode.VALIDATION_FAILED, message);
+  }
+
+  public FulfillmentValidationException(ErrorCode code, String message) {
+    super(code, message);
   }
 }
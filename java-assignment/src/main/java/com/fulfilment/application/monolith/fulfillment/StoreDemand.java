@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import java.util.List;
+
+/** The products a store needs to be fulfilled, input of the fulfillment planner. */
+public class StoreDemand {
+
+  public Long storeId;
+
+  public List<Long> productIds;
+
+  public StoreDemand() {}
+
+  public StoreDemand(Long storeId, List<Long> productIds) {
+    this.storeId = storeId;
+    this.productIds = productIds;
+  }
+}
@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of all known locations, indexed by identification and, for locations with
+ * coordinates, by position. A new snapshot is built for every load and replaces the previous one
+ * as a whole, so a reader always sees one complete catalog.
+ *
+ * <p>The source format is CSV with one {@code
+ * identification,maxNumberOfWarehouses,maxCapacity[,latitude,longitude]} line per location. Blank
+ * lines, lines starting with {@code #} and a header line are skipped.
+ */
+public final class LocationCatalog {
+
+  private final Map<String, Location> locations;
+  private final LocationSpatialIndex spatialIndex;
+  private final String source;
+  private final Instant loadedAt;
+  private final Duration loadTime;
+
+  private LocationCatalog(
+      Map<String, Location> locations, String source, Instant loadedAt, Duration loadTime) {
+    this.locations = Map.copyOf(locations);
+    this.spatialIndex = new LocationSpatialIndex(locations.values());
+    this.source = source;
+    this.loadedAt = loadedAt;
+    this.loadTime = loadTime;
+  }
+
+  /** Parses a catalog; fails on malformed lines and duplicate identifications. */
+  public static LocationCatalog parse(String source, BufferedReader reader) throws IOException {
+    long start = System.nanoTime();
+    Map<String, Location> locations = new HashMap<>();
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#") || line.startsWith("identification,")) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 3 && fields.length != 5) {
+        throw new IllegalArgumentException(
+            source + ":" + lineNumber + ": expected 3 or 5 fields but found " + fields.length);
+      }
+      Location location;
+      try {
+        location =
+            new Location(
+                fields[0].trim(),
+                Integer.parseInt(fields[1].trim()),
+                Integer.parseInt(fields[2].trim()));
+        if (fields.length == 5) {
+          location.latitude = coordinate(fields[3], 90, source, lineNumber);
+          location.longitude = coordinate(fields[4], 180, source, lineNumber);
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+      }
+      if (locations.putIfAbsent(location.identification, location) != null) {
+        throw new IllegalArgumentException(
+            source + ":" + lineNumber + ": duplicate location " + location.identification);
+      }
+    }
+    return new LocationCatalog(
+        locations, source, Instant.now(), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private static double coordinate(String field, double bound, String source, int lineNumber) {
+    double value = Double.parseDouble(field.trim());
+    if (!(value >= -bound && value <= bound)) {
+      throw new IllegalArgumentException(
+          source + ":" + lineNumber + ": coordinate " + value + " is out of range");
+    }
+    return value;
+  }
+
+  public Location get(String identification) {
+    return identification == null ? null : locations.get(identification);
+  }
+
+  /** See {@link LocationSpatialIndex#nearest}. */
+  public List<NearbyLocation> nearest(
+      double latitude, double longitude, int limit, Predicate<Location> filter) {
+    return spatialIndex.nearest(latitude, longitude, limit, filter);
+  }
+
+  /** See {@link LocationSpatialIndex#withinRadius}. */
+  public List<NearbyLocation> withinRadius(
+      double latitude, double longitude, double radiusKm, Predicate<Location> filter) {
+    return spatialIndex.withinRadius(latitude, longitude, radiusKm, filter);
+  }
+
+  /** Every location of the catalog, in no particular order. */
+  public Collection<Location> locations() {
+    return locations.values();
+  }
+
+  public int size() {
+    return locations.size();
+  }
+
+  /** Where the catalog was loaded from. */
+  public String getSource() {
+    return source;
+  }
+
+  public Instant getLoadedAt() {
+    return loadedAt;
+  }
+
+  /** How long reading and indexing the source took. */
+  public Duration getLoadTime() {
+    return loadTime;
+  }
+}
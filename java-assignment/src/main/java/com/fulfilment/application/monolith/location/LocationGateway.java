@@ -1,32 +1,141 @@
 package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+/**
+ * Resolves locations from a {@link LocationCatalog}. When the bean is initialised the catalog is
+ * read from {@code location.catalog.file} if that is set, and from the bundled {@value
+ * #DEFAULT_CATALOG} otherwise or when the file cannot be loaded. The file is checked for changes
+ * every {@code location.catalog.reload-interval} and reloaded into a new snapshot that replaces the
+ * old one in a single reference swap: lookups never wait for a reload and never see a partly
+ * loaded catalog. A file that fails to load leaves the current catalog in place. Replace the file
+ * by an atomic move rather than rewriting it in place.
+ */
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
+  static final String DEFAULT_CATALOG = "locations.csv";
 
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
+
+  @ConfigProperty(name = "location.catalog.file")
+  Optional<String> catalogFile = Optional.empty();
+
+  private volatile LocationCatalog catalog;
+
+  // Modification time of the file the current catalog was loaded from
+  private FileTime loadedVersion;
+
+  @PostConstruct
+  void init() {
+    if (!reloadIfChanged()) {
+      install(loadDefaultCatalog());
+    }
   }
 
   @Override
   public Location resolveByIdentifier(String identifier) {
-    return locations.stream()
-        .filter(location -> location.identification.equals(identifier))
-        .findFirst()
-        .orElse(null);
+    return catalog.get(identifier);
+  }
+
+  @Override
+  public List<NearbyLocation> findNearest(
+      double latitude, double longitude, int limit, Predicate<Location> filter) {
+    return catalog.nearest(latitude, longitude, limit, filter);
+  }
+
+  @Override
+  public List<NearbyLocation> findWithinRadius(
+      double latitude, double longitude, double radiusKm, Predicate<Location> filter) {
+    return catalog.withinRadius(latitude, longitude, radiusKm, filter);
+  }
+
+  /** The catalog currently in use, with its size and load statistics. */
+  public LocationCatalog getCatalog() {
+    return catalog;
+  }
+
+  @Scheduled(
+      every = "${location.catalog.reload-interval:5s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void checkForChanges() {
+    reloadIfChanged();
+  }
+
+  /**
+   * Reloads the catalog when the configured file changed since the last successful load.
+   *
+   * @return whether a new catalog was installed
+   */
+  public synchronized boolean reloadIfChanged() {
+    if (catalogFile.isEmpty()) {
+      return false;
+    }
+    Path file = Path.of(catalogFile.get());
+    try {
+      FileTime version = Files.getLastModifiedTime(file);
+      if (version.equals(loadedVersion)) {
+        return false;
+      }
+      LocationCatalog loaded;
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        loaded = LocationCatalog.parse(file.toString(), reader);
+      }
+      install(loaded);
+      loadedVersion = version;
+      return true;
+    } catch (IOException | IllegalArgumentException e) {
+      if (catalog == null) {
+        LOGGER.errorf(
+            "Failed to load location catalog from %s, falling back to the bundled %s: %s",
+            file, DEFAULT_CATALOG, e.getMessage());
+      } else {
+        LOGGER.errorf(
+            "Failed to load location catalog from %s, keeping %d locations from %s: %s",
+            file, catalog.size(), catalog.getSource(), e.getMessage());
+      }
+      return false;
+    }
+  }
+
+  private void install(LocationCatalog loaded) {
+    catalog = loaded;
+    LOGGER.infof(
+        "Loaded %d locations from %s in %d ms",
+        loaded.size(), loaded.getSource(), loaded.getLoadTime().toMillis());
+  }
+
+  private static LocationCatalog loadDefaultCatalog() {
+    InputStream stream =
+        LocationGateway.class.getClassLoader().getResourceAsStream(DEFAULT_CATALOG);
+    if (stream == null) {
+      throw new IllegalStateException(
+          "Bundled location catalog " + DEFAULT_CATALOG + " is missing");
+    }
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      return LocationCatalog.parse("classpath:" + DEFAULT_CATALOG, reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
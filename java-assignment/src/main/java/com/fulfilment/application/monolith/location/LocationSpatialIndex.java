@@ -0,0 +1,156 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Immutable k-d tree over the locations that have coordinates. Every location is stored as a point
+ * on the unit sphere in 3D; the straight-line (chord) distance between two such points grows with
+ * the great-circle distance, so plain Euclidean pruning gives exact nearest-neighbour and radius
+ * results on the globe without the distortions of a latitude/longitude grid.
+ */
+final class LocationSpatialIndex {
+
+  static final double EARTH_RADIUS_KM = 6371.0088;
+
+  private final Node root;
+
+  LocationSpatialIndex(Collection<Location> locations) {
+    List<Node> nodes = new ArrayList<>();
+    for (Location location : locations) {
+      if (location.hasCoordinates()) {
+        nodes.add(new Node(location));
+      }
+    }
+    root = build(nodes, 0);
+  }
+
+  /** Up to {@code limit} locations accepted by {@code filter}, nearest first. */
+  List<NearbyLocation> nearest(
+      double latitude, double longitude, int limit, Predicate<Location> filter) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    double[] target = toPoint(latitude, longitude);
+    // Max-heap on distance holding the best candidates found so far
+    PriorityQueue<Candidate> best =
+        new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.squaredChord).reversed());
+    searchNearest(root, target, limit, filter, best);
+    List<Candidate> sorted = new ArrayList<>(best);
+    sorted.sort(Comparator.comparingDouble(c -> c.squaredChord));
+    return sorted.stream().map(Candidate::toNearbyLocation).toList();
+  }
+
+  /** All locations accepted by {@code filter} within {@code radiusKm}, nearest first. */
+  List<NearbyLocation> withinRadius(
+      double latitude, double longitude, double radiusKm, Predicate<Location> filter) {
+    double[] target = toPoint(latitude, longitude);
+    double angle = Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI);
+    double chord = 2 * Math.sin(angle / 2);
+    List<Candidate> found = new ArrayList<>();
+    searchRadius(root, target, chord * chord, filter, found);
+    found.sort(Comparator.comparingDouble(c -> c.squaredChord));
+    return found.stream().map(Candidate::toNearbyLocation).toList();
+  }
+
+  private static void searchNearest(
+      Node node,
+      double[] target,
+      int limit,
+      Predicate<Location> filter,
+      PriorityQueue<Candidate> best) {
+    if (node == null) {
+      return;
+    }
+    double squaredChord = node.squaredDistance(target);
+    if ((best.size() < limit || squaredChord < best.peek().squaredChord)
+        && filter.test(node.location)) {
+      best.add(new Candidate(node.location, squaredChord));
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+    double diff = target[node.axis] - node.point[node.axis];
+    Node near = diff < 0 ? node.left : node.right;
+    Node far = diff < 0 ? node.right : node.left;
+    searchNearest(near, target, limit, filter, best);
+    if (best.size() < limit || diff * diff < best.peek().squaredChord) {
+      searchNearest(far, target, limit, filter, best);
+    }
+  }
+
+  private static void searchRadius(
+      Node node,
+      double[] target,
+      double squaredRadius,
+      Predicate<Location> filter,
+      List<Candidate> found) {
+    if (node == null) {
+      return;
+    }
+    double squaredChord = node.squaredDistance(target);
+    if (squaredChord <= squaredRadius && filter.test(node.location)) {
+      found.add(new Candidate(node.location, squaredChord));
+    }
+    double diff = target[node.axis] - node.point[node.axis];
+    searchRadius(diff < 0 ? node.left : node.right, target, squaredRadius, filter, found);
+    if (diff * diff <= squaredRadius) {
+      searchRadius(diff < 0 ? node.right : node.left, target, squaredRadius, filter, found);
+    }
+  }
+
+  private static Node build(List<Node> nodes, int depth) {
+    if (nodes.isEmpty()) {
+      return null;
+    }
+    int axis = depth % 3;
+    nodes.sort(Comparator.comparingDouble(n -> n.point[axis]));
+    int median = nodes.size() / 2;
+    Node node = nodes.get(median);
+    node.axis = axis;
+    node.left = build(new ArrayList<>(nodes.subList(0, median)), depth + 1);
+    node.right = build(new ArrayList<>(nodes.subList(median + 1, nodes.size())), depth + 1);
+    return node;
+  }
+
+  static double[] toPoint(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    return new double[] {
+      Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)
+    };
+  }
+
+  private static final class Node {
+    final Location location;
+    final double[] point;
+    int axis;
+    Node left;
+    Node right;
+
+    Node(Location location) {
+      this.location = location;
+      this.point = toPoint(location.latitude, location.longitude);
+    }
+
+    double squaredDistance(double[] target) {
+      double dx = point[0] - target[0];
+      double dy = point[1] - target[1];
+      double dz = point[2] - target[2];
+      return dx * dx + dy * dy + dz * dz;
+    }
+  }
+
+  private record Candidate(Location location, double squaredChord) {
+    NearbyLocation toNearbyLocation() {
+      double chord = Math.min(Math.sqrt(squaredChord), 2);
+      return new NearbyLocation(location, 2 * EARTH_RADIUS_KM * Math.asin(chord / 2));
+    }
+  }
+}
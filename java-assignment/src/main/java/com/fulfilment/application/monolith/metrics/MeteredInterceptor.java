@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/** Records the {@code app.method} timer around the business methods of {@link Metered} beans. */
+@Metered
+@Interceptor
+@Priority(Interceptor.Priority.LIBRARY_BEFORE + 10)
+public class MeteredInterceptor {
+
+  static final String TIMER = "app.method";
+
+  private static final String NO_EXCEPTION = "none";
+
+  // Suffix of the subclass the container generates for intercepted beans
+  private static final String SUBCLASS_SUFFIX = "_Subclass";
+
+  @Inject MeterRegistry registry;
+
+  // Micrometer looks meters up by name and tags on every call; keep them per call site instead
+  private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+
+  @AroundInvoke
+  Object time(InvocationContext context) throws Exception {
+    long start = System.nanoTime();
+    String outcome = NO_EXCEPTION;
+    try {
+      return context.proceed();
+    } catch (Exception | Error e) {
+      outcome = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      Key key = new Key(beanClass(context.getTarget()), context.getMethod(), outcome);
+      timers
+          .computeIfAbsent(key, this::register)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer register(Key key) {
+    return Timer.builder(TIMER)
+        .description("Time spent in application beans annotated with @Metered")
+        .tag("class", key.bean().getSimpleName())
+        .tag("method", key.method().getName())
+        .tag("exception", key.outcome())
+        .register(registry);
+  }
+
+  /**
+   * The bean class rather than the declaring class, so inherited Panache methods such as {@code
+   * persist} are reported against the repository that ran them.
+   */
+  private static Class<?> beanClass(Object target) {
+    Class<?> type = target.getClass();
+    return type.getName().endsWith(SUBCLASS_SUFFIX) ? type.getSuperclass() : type;
+  }
+
+  private record Key(Class<?> bean, Method method, String outcome) {}
+}
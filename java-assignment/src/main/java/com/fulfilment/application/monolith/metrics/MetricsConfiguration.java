@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+public class MetricsConfiguration {
+
+  /**
+   * Publishes histogram buckets for request latency, bean latency and statements per request, so
+   * percentiles can be aggregated across scrapes and instances instead of being fixed client-side.
+   */
+  @Produces
+  @Singleton
+  public MeterFilter histograms() {
+    return new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(
+          Meter.Id id, DistributionStatisticConfig config) {
+        String name = id.getName();
+        if (name.startsWith("http.server.requests")
+            || name.equals(MeteredInterceptor.TIMER)
+            || name.equals(RequestMetricsFilter.SQL_STATEMENTS)) {
+          return DistributionStatisticConfig.builder()
+              .percentilesHistogram(true)
+              .build()
+              .merge(config);
+        }
+        return config;
+      }
+    };
+  }
+}
@@ -0,0 +1,47 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+/**
+ * Records how many SQL statements each endpoint sent to the database, next to the latency the
+ * HTTP binder already records under {@code http.server.requests}.
+ */
+public class RequestMetricsFilter {
+
+  static final String SQL_STATEMENTS = "http.server.sql.statements";
+
+  @Inject MeterRegistry registry;
+
+  @Inject RequestStatementCounter counter;
+
+  // Registered once per endpoint, as in MeteredInterceptor, rather than looked up per request
+  private final Map<Key, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+  @ServerResponseFilter
+  public void recordStatements(SimpleResourceInfo resource) {
+    if (resource == null || resource.getResourceClass() == null) {
+      return;
+    }
+    summaries
+        .computeIfAbsent(
+            new Key(resource.getResourceClass(), resource.getMethodName()), this::register)
+        .record(counter.statements());
+  }
+
+  private DistributionSummary register(Key key) {
+    return DistributionSummary.builder(SQL_STATEMENTS)
+        .description("SQL statements sent to the database per request")
+        .baseUnit("statements")
+        .tag("resource", key.resource().getSimpleName())
+        .tag("method", key.method())
+        .register(registry);
+  }
+
+  private record Key(Class<?> resource, String method) {}
+}
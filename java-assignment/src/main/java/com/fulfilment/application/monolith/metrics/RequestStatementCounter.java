@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Number of SQL statements sent to the database while serving the current request. Statements
+ * issued outside of a request, such as by the store outbox dispatcher, are not counted.
+ */
+@RequestScoped
+public class RequestStatementCounter {
+
+  private int statements;
+
+  /**
+   * Adds {@code count} statements to the current request, if there is one. Statements Hibernate
+   * prepares are counted by {@link SqlStatementInspector}; raw JDBC work has to call this itself.
+   */
+  public static void record(int count) {
+    ManagedContext context = Arc.container().requestContext();
+    if (context.isActive()) {
+      Arc.container().instance(RequestStatementCounter.class).get().add(count);
+    }
+  }
+
+  void add(int count) {
+    statements += count;
+  }
+
+  public int statements() {
+    return statements;
+  }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/** Counts every statement Hibernate prepares against the current request. */
+@PersistenceUnitExtension
+public class SqlStatementInspector implements StatementInspector {
+
+  @Override
+  public String inspect(String sql) {
+    RequestStatementCounter.record(1);
+    return sql;
+  }
+}
@@ -1,7 +1,90 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.metrics.Metered;
+import com.fulfilment.application.monolith.metrics.RequestStatementCounter;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Cache;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.hibernate.Session;
 
+@Metered
 @ApplicationScoped
-public class ProductRepository implements PanacheRepository<Product> {}
+public class ProductRepository implements PanacheRepository<Product> {
+
+  private static final String ADJUST_STOCK_SQL =
+      "UPDATE product SET stock = stock + ? WHERE id = ? AND stock + ? BETWEEN 0 AND ?";
+
+  /**
+   * Adds each delta to the stock of its product, sending all updates to the database as one JDBC
+   * batch. A product is only updated when its stock stays within 0 and {@link Integer#MAX_VALUE};
+   * the others are left as they are. Updates run in product id order so concurrent batches lock
+   * rows in the same order.
+   *
+   * @param deltas the delta per product id
+   * @return the new stock of every product that was updated
+   */
+  public Map<Long, Integer> applyStockDeltas(SortedMap<Long, Long> deltas) {
+    if (deltas.isEmpty()) {
+      return Map.of();
+    }
+    Session session = getEntityManager().unwrap(Session.class);
+    // Statements queued by Hibernate must reach the database before the raw JDBC batch
+    session.flush();
+    List<Long> ids = List.copyOf(deltas.keySet());
+    int[] counts =
+        session.doReturningWork(
+            connection -> {
+              try (PreparedStatement statement = connection.prepareStatement(ADJUST_STOCK_SQL)) {
+                for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+                  statement.setLong(1, delta.getValue());
+                  statement.setLong(2, delta.getKey());
+                  statement.setLong(3, delta.getValue());
+                  statement.setLong(4, Integer.MAX_VALUE);
+                  statement.addBatch();
+                }
+                // Hibernate does not see this statement, so it is counted here
+                RequestStatementCounter.record(1);
+                return statement.executeBatch();
+              }
+            });
+
+    List<Long> updated = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == 1) {
+        updated.add(ids.get(i));
+      }
+    }
+    if (updated.isEmpty()) {
+      return Map.of();
+    }
+
+    // The updates bypassed Hibernate, so the cached copies of these products are stale
+    Cache cache = getEntityManager().getEntityManagerFactory().getCache();
+    updated.forEach(id -> cache.evict(Product.class, id));
+
+    Map<Long, Integer> stock = new HashMap<>();
+    getEntityManager()
+        .createQuery("SELECT p.id, p.stock FROM Product p WHERE p.id IN ?1", Object[].class)
+        .setParameter(1, updated)
+        .getResultList()
+        .forEach(row -> stock.put((Long) row[0], (Integer) row[1]));
+    return stock;
+  }
+
+  /** The ids among {@code ids} that belong to an existing product. */
+  public List<Long> findExistingIds(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return getEntityManager()
+        .createQuery("SELECT p.id FROM Product p WHERE p.id IN ?1", Long.class)
+        .setParameter(1, ids)
+        .getResultList();
+  }
+}
@@ -1,7 +1,5 @@
 package com.fulfilment.application.monolith.products;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -15,10 +13,14 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import org.jboss.logging.Logger;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Path("product")
 @ApplicationScoped
@@ -28,7 +30,7 @@ public class ProductResource {
 
   @Inject ProductRepository productRepository;
 
-  private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
+  static final int MAX_STOCK_MOVEMENTS = 5000;
 
   @GET
   public List<Product> get() {
@@ -80,6 +82,59 @@ public class ProductResource {
     return entity;
   }
 
+  /**
+   * Applies a batch of stock movements. Movements of the same product are summed first and each
+   * product is then updated once, all updates travelling to the database as a single batch. A
+   * product whose stock would drop below zero is left unchanged without affecting the others.
+   *
+   * @return one result per product, ordered by product id
+   */
+  @POST
+  @Path("stock-movements")
+  @Transactional
+  public List<StockMovementResult> applyStockMovements(List<StockMovement> movements) {
+    if (movements == null) {
+      throw new WebApplicationException("Stock movements were not set on request.", 422);
+    }
+    if (movements.size() > MAX_STOCK_MOVEMENTS) {
+      throw new WebApplicationException(
+          "At most " + MAX_STOCK_MOVEMENTS + " stock movements are accepted per request.", 422);
+    }
+
+    SortedMap<Long, Long> deltas = new TreeMap<>();
+    Map<Long, Integer> counts = new HashMap<>();
+    for (StockMovement movement : movements) {
+      if (movement == null || movement.productId == null || movement.delta == null) {
+        throw new WebApplicationException(
+            "Every stock movement needs a productId and a delta.", 422);
+      }
+      deltas.merge(movement.productId, (long) movement.delta, Long::sum);
+      counts.merge(movement.productId, 1, Integer::sum);
+    }
+
+    Map<Long, Integer> applied = productRepository.applyStockDeltas(deltas);
+    List<Long> rejected =
+        deltas.keySet().stream().filter(productId -> !applied.containsKey(productId)).toList();
+    Set<Long> existing = new HashSet<>(productRepository.findExistingIds(rejected));
+
+    List<StockMovementResult> results = new ArrayList<>(deltas.size());
+    deltas.forEach(
+        (productId, delta) -> {
+          StockMovementResult.Status status;
+          if (applied.containsKey(productId)) {
+            status = StockMovementResult.Status.APPLIED;
+          } else if (existing.contains(productId)) {
+            status = StockMovementResult.Status.INSUFFICIENT_STOCK;
+          } else {
+            status = StockMovementResult.Status.NOT_FOUND;
+          }
+          results.add(
+              new StockMovementResult(
+                  productId, delta, counts.get(productId), status, applied.get(productId)));
+        });
+    return results;
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -91,30 +146,4 @@ public class ProductResource {
     productRepository.delete(entity);
     return Response.status(204).build();
   }
-
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
-
-    @Inject ObjectMapper objectMapper;
-
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
-  }
 }
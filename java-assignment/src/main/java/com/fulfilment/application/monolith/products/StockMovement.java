@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.products;
+
+/** One stock movement of a product as sent to {@code POST /product/stock-movements}. */
+public class StockMovement {
+
+  public Long productId;
+
+  /** Amount added to the stock, negative for stock leaving. */
+  public Integer delta;
+
+  public StockMovement() {}
+
+  public StockMovement(Long productId, Integer delta) {
+    this.productId = productId;
+    this.delta = delta;
+  }
+}
@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.products;
+
+/** Outcome of the stock movements of one product in a {@code POST /product/stock-movements}. */
+public class StockMovementResult {
+
+  public enum Status {
+    APPLIED,
+    NOT_FOUND,
+    INSUFFICIENT_STOCK
+  }
+
+  public Long productId;
+
+  /** Sum of the deltas of all movements of this product in the batch. */
+  public long delta;
+
+  /** Number of movements folded into {@link #delta}. */
+  public int movements;
+
+  public Status status;
+
+  /** Stock after the movements were applied, or null when they were not. */
+  public Integer stock;
+
+  public StockMovementResult() {}
+
+  public StockMovementResult(
+      Long productId, long delta, int movements, Status status, Integer stock) {
+    this.productId = productId;
+    this.delta = delta;
+    this.movements = movements;
+    this.status = status;
+    this.stock = stock;
+  }
+}
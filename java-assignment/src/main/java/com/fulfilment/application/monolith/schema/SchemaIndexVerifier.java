@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.schema;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.jboss.logging.Logger;
+
+/**
+ * Checks at startup that the indexes created by the migrations in {@code db/migration} exist, so a
+ * database that was set up by hand or missed a migration fails fast instead of silently falling
+ * back to full table scans on the hot repository predicates.
+ */
+@ApplicationScoped
+public class SchemaIndexVerifier {
+
+  private static final Logger LOGGER = Logger.getLogger(SchemaIndexVerifier.class.getName());
+
+  static final Map<String, List<String>> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+  static {
+    EXPECTED_INDEXES.put(
+        "warehouse",
+        List.of(
+            "warehouse_bu_code_archived_idx",
+            "warehouse_location_archived_idx",
+            "warehouse_active_bu_code_idx",
+            "warehouse_active_location_idx"));
+    EXPECTED_INDEXES.put(
+        "fulfillment_association",
+        List.of(
+            "fulfillment_product_store_idx",
+            "fulfillment_store_warehouse_idx",
+            "fulfillment_warehouse_product_idx"));
+  }
+
+  @Inject DataSource dataSource;
+
+  void onStart(@Observes StartupEvent event) throws SQLException {
+    List<String> missing = findMissingIndexes();
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException(
+          "Missing database indexes " + missing + ", apply the migrations in db/migration");
+    }
+    LOGGER.infof("Verified %d expected database indexes", countExpectedIndexes());
+  }
+
+  /** Returns the expected indexes that do not exist, as {@code table.index}. */
+  public List<String> findMissingIndexes() throws SQLException {
+    List<String> missing = new ArrayList<>();
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      for (Map.Entry<String, List<String>> table : EXPECTED_INDEXES.entrySet()) {
+        Set<String> existing = existingIndexes(metaData, table.getKey());
+        for (String index : table.getValue()) {
+          if (!existing.contains(index)) {
+            missing.add(table.getKey() + "." + index);
+          }
+        }
+      }
+    }
+    return missing;
+  }
+
+  private static Set<String> existingIndexes(DatabaseMetaData metaData, String table)
+      throws SQLException {
+    String storedTableName =
+        metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+    Set<String> indexes = new HashSet<>();
+    try (ResultSet rows = metaData.getIndexInfo(null, null, storedTableName, false, true)) {
+      while (rows.next()) {
+        String name = rows.getString("INDEX_NAME");
+        if (name != null) {
+          indexes.add(name.toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+    return indexes;
+  }
+
+  private static int countExpectedIndexes() {
+    return EXPECTED_INDEXES.values().stream().mapToInt(List::size).sum();
+  }
+}
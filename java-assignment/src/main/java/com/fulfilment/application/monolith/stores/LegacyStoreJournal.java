@@ -0,0 +1,294 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Append-only journal of the records sent to the legacy store manager. Records go to the current
+ * segment file through a single {@link FileChannel}; once a segment reaches its size limit a new
+ * one is started. Every record has a logical offset, its byte position across all segments, and
+ * each segment is named after the offset of its first record so a reader can start a replay at
+ * any offset.
+ *
+ * <p>{@link #append(byte[])} returns once the record is on disk. Appends that arrive while an
+ * fsync is running are covered together by the next one (group commit), so concurrent writers
+ * share fsyncs instead of paying one each.
+ *
+ * <p>Record layout: payload length (int), CRC32 of the payload (int), payload.
+ */
+@ApplicationScoped
+public class LegacyStoreJournal {
+
+  static final String SEGMENT_SUFFIX = ".log";
+  private static final int HEADER_SIZE = 8;
+
+  private final Path directory;
+  private final long segmentSize;
+
+  /** Base offset of every segment, for finding where a replay starts. */
+  private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+  private final Object syncLock = new Object();
+
+  // Guarded by this
+  private FileChannel channel;
+  private long segmentBaseOffset;
+  private long writtenOffset;
+  private IOException failure;
+
+  // Guarded by syncLock
+  private long durableOffset;
+
+  @Inject
+  public LegacyStoreJournal(
+      @ConfigProperty(name = "store.legacy-journal.directory") String directory,
+      @ConfigProperty(name = "store.legacy-journal.segment-size", defaultValue = "67108864")
+          long segmentSize) {
+    this.directory = Path.of(directory);
+    this.segmentSize = segmentSize;
+    try {
+      Files.createDirectories(this.directory);
+      open();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open legacy store journal in " + directory, e);
+    }
+  }
+
+  /**
+   * Appends a record and waits until it is durable.
+   *
+   * @return the offset of the record
+   */
+  public long append(byte[] payload) throws IOException {
+    long offset;
+    long end;
+    synchronized (this) {
+      if (failure != null) {
+        throw new IOException("Legacy store journal is unusable after an earlier failure", failure);
+      }
+      long recordSize = HEADER_SIZE + (long) payload.length;
+      long segmentLength = writtenOffset - segmentBaseOffset;
+      if (segmentLength > 0 && segmentLength + recordSize > segmentSize) {
+        roll();
+      }
+      CRC32 crc = new CRC32();
+      crc.update(payload);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(payload.length).putInt((int) crc.getValue()).flip();
+      ByteBuffer[] record = {header, ByteBuffer.wrap(payload)};
+      try {
+        write(channel, record);
+      } catch (IOException e) {
+        discardPartialRecord(e);
+        throw e;
+      }
+      offset = writtenOffset;
+      writtenOffset += recordSize;
+      end = writtenOffset;
+    }
+    awaitDurable(end);
+    return offset;
+  }
+
+  /**
+   * Reads every record from {@code fromOffset} on, in order, and passes each one with its offset
+   * to {@code consumer}. {@code fromOffset} must be the offset of a record, or 0.
+   */
+  public void replay(long fromOffset, BiConsumer<Long, byte[]> consumer) throws IOException {
+    long end;
+    synchronized (this) {
+      end = writtenOffset;
+    }
+    Long start = segments.floorKey(fromOffset);
+    if (start == null) {
+      return;
+    }
+    for (Map.Entry<Long, Path> segment : segments.tailMap(start, true).entrySet()) {
+      long base = segment.getKey();
+      if (base >= end) {
+        break;
+      }
+      try (FileChannel reader = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+        long position = Math.max(fromOffset - base, 0);
+        long limit = Math.min(reader.size(), end - base);
+        while (position < limit) {
+          byte[] payload = readRecord(reader, position, limit);
+          if (payload == null) {
+            break;
+          }
+          consumer.accept(base + position, payload);
+          position += HEADER_SIZE + payload.length;
+        }
+      }
+    }
+  }
+
+  /** Offset the next record will get. */
+  public synchronized long getEndOffset() {
+    return writtenOffset;
+  }
+
+  /** Number of segment files, the current one included. */
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  @PreDestroy
+  public synchronized void close() throws IOException {
+    if (channel != null && channel.isOpen()) {
+      channel.force(false);
+      channel.close();
+    }
+  }
+
+  private void awaitDurable(long end) throws IOException {
+    // Whoever gets the lock first fsyncs everything written so far; the writers queued behind it
+    // usually find their record already covered and return without an fsync of their own
+    synchronized (syncLock) {
+      while (durableOffset < end) {
+        long target;
+        FileChannel current;
+        synchronized (this) {
+          target = writtenOffset;
+          current = channel;
+        }
+        try {
+          current.force(false);
+          durableOffset = Math.max(durableOffset, target);
+        } catch (ClosedChannelException e) {
+          synchronized (this) {
+            if (channel == current) {
+              throw e;
+            }
+          }
+          // The segment was rolled meanwhile, which forces it before closing; sync the new one
+        }
+      }
+    }
+  }
+
+  /** Writes a whole record at the position of {@code segment}; overridden by tests. */
+  void write(FileChannel segment, ByteBuffer[] record) throws IOException {
+    while (record[0].hasRemaining() || record[1].hasRemaining()) {
+      segment.write(record);
+    }
+  }
+
+  /**
+   * Cuts off whatever part of a failed record reached the segment, so the next record starts at
+   * the offset that is handed out for it. When that is not possible either, the journal refuses
+   * further appends rather than write records that a replay or a restart would drop.
+   */
+  private void discardPartialRecord(IOException cause) {
+    long validLength = writtenOffset - segmentBaseOffset;
+    try {
+      channel.truncate(validLength);
+      channel.position(validLength);
+    } catch (IOException e) {
+      cause.addSuppressed(e);
+      failure = cause;
+    }
+  }
+
+  private void roll() throws IOException {
+    // The old segment stays current until the new one is open, so a failure leaves it usable
+    channel.force(false);
+    FileChannel next = openSegment(writtenOffset);
+    FileChannel previous = channel;
+    segmentBaseOffset = writtenOffset;
+    channel = next;
+    previous.close();
+  }
+
+  private void open() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      files
+          .filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .forEach(f -> segments.put(baseOffsetOf(f), f));
+    }
+    if (segments.isEmpty()) {
+      segmentBaseOffset = 0;
+      channel = openSegment(0);
+      writtenOffset = 0;
+    } else {
+      segmentBaseOffset = segments.lastKey();
+      channel =
+          FileChannel.open(
+              segments.lastEntry().getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      // A crash can leave a partly written record at the end; cut it off
+      long validLength = 0;
+      long size = channel.size();
+      byte[] payload;
+      while (validLength < size && (payload = readRecord(channel, validLength, size)) != null) {
+        validLength += HEADER_SIZE + payload.length;
+      }
+      channel.truncate(validLength);
+      channel.position(validLength);
+      writtenOffset = segmentBaseOffset + validLength;
+    }
+    durableOffset = writtenOffset;
+  }
+
+  private FileChannel openSegment(long baseOffset) throws IOException {
+    Path file = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    FileChannel segment =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    segments.put(baseOffset, file);
+    return segment;
+  }
+
+  /** Reads the record at {@code position}, or returns null when it is incomplete or corrupt. */
+  private static byte[] readRecord(FileChannel reader, long position, long limit)
+      throws IOException {
+    if (position + HEADER_SIZE > limit) {
+      return null;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    readFully(reader, header, position);
+    int length = header.getInt(0);
+    int checksum = header.getInt(4);
+    if (length < 0 || position + HEADER_SIZE + length > limit) {
+      return null;
+    }
+    ByteBuffer payload = ByteBuffer.allocate(length);
+    readFully(reader, payload, position + HEADER_SIZE);
+    CRC32 crc = new CRC32();
+    crc.update(payload.array());
+    return (int) crc.getValue() == checksum ? payload.array() : null;
+  }
+
+  private static void readFully(FileChannel reader, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (reader.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of journal segment");
+      }
+    }
+  }
+
+  private static long baseOffsetOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+}
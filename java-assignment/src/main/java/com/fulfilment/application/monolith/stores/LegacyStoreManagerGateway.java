@@ -1,16 +1,33 @@
 package com.fulfilment.application.monolith.stores;
 
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.enterprise.event.Observes;
-import jakarta.enterprise.event.TransactionPhase;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import org.jboss.logging.Logger;
 
+/**
+ * Sends store changes to the legacy store manager. Events reach it through the {@link StoreOutbox}
+ * and {@link StoreOutboxDispatcher}, never on the request thread. Failures are thrown so the
+ * dispatcher can retry them.
+ */
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
-  public void onStoreEvent(
-      @Observes(during = TransactionPhase.AFTER_SUCCESS) StoreEvent event) {
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class.getName());
+
+  private final LegacyStoreJournal journal;
+
+  @Inject
+  public LegacyStoreManagerGateway(LegacyStoreJournal journal) {
+    this.journal = journal;
+  }
+
+  @WithSpan
+  public void onStoreEvent(StoreEvent event) {
     switch (event.getType()) {
       case CREATED -> createStoreOnLegacySystem(event.getStore());
       case UPDATED -> updateStoreOnLegacySystem(event.getStore());
@@ -18,44 +35,34 @@ public class LegacyStoreManagerGateway {
   }
 
   public void createStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
+    // just to emulate as this would send this to a legacy system, the legacy consumer tails the
+    // journal
+    writeToJournal("Store created.", store);
   }
 
   public void updateStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
+    // just to emulate as this would send this to a legacy system, the legacy consumer tails the
+    // journal
+    writeToJournal("Store updated.", store);
   }
 
-  private void writeToFile(Store store) {
+  private void writeToJournal(String action, Store store) {
+    String content =
+        action
+            + " [ id ="
+            + store.id
+            + " ] [ name ="
+            + store.name
+            + " ] [ items on stock ="
+            + store.quantityProductsInStock
+            + "]";
     try {
-      // Step 1: Create a temporary file
-      Path tempFile;
-
-      tempFile = Files.createTempFile(store.name, ".txt");
-
-      System.out.println("Temporary file created at: " + tempFile.toString());
-
-      // Step 2: Write data to the temporary file
-      String content =
-          "Store created. [ name ="
-              + store.name
-              + " ] [ items on stock ="
-              + store.quantityProductsInStock
-              + "]";
-      Files.write(tempFile, content.getBytes());
-      System.out.println("Data written to temporary file.");
-
-      // Step 3: Optionally, read the data back to verify
-      String readContent = new String(Files.readAllBytes(tempFile));
-      System.out.println("Data read from temporary file: " + readContent);
-
-      // Step 4: Delete the temporary file when done
-      Files.delete(tempFile);
-      System.out.println("Temporary file deleted.");
-
-    } catch (Exception e) {
-      e.printStackTrace();
+      long offset = journal.append(content.getBytes(StandardCharsets.UTF_8));
+      Span.current().setAttribute("store.id", store.id).setAttribute("journal.offset", offset);
+      LOGGER.debugf(
+          "Store %d sent to legacy system at journal offset %d", store.id, (Long) offset);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to send store " + store.id + " to legacy system", e);
     }
   }
 }
@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.stores;
+
+/** Request body of {@code POST /store/{id}/stock}: the amount to add, negative to remove stock. */
+public class StockDelta {
+
+  public Integer delta;
+
+  public StockDelta() {}
+
+  public StockDelta(Integer delta) {
+    this.delta = delta;
+  }
+}
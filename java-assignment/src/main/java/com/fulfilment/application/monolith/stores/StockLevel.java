@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.stores;
+
+/** Stock of a store right after a {@link StockDelta} was applied. */
+public class StockLevel {
+
+  public Long id;
+
+  public int quantityProductsInStock;
+
+  public StockLevel() {}
+
+  public StockLevel(Long id, int quantityProductsInStock) {
+    this.id = id;
+    this.quantityProductsInStock = quantityProductsInStock;
+  }
+}
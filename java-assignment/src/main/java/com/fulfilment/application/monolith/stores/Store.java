@@ -19,4 +19,20 @@ public class Store extends PanacheEntity {
   public Store(String name) {
     this.name = name;
   }
+
+  /**
+   * Adds {@code delta} to the stock of a store in a single UPDATE, without loading it. The update
+   * only applies when the result stays within 0 and {@link Integer#MAX_VALUE}.
+   *
+   * @return whether the stock was changed; false when the store does not exist or the guard failed
+   */
+  public static boolean adjustStock(Long id, int delta) {
+    return update(
+            "quantityProductsInStock = quantityProductsInStock + ?1 where id = ?2"
+                + " and quantityProductsInStock + ?1 between 0 and ?3",
+            (long) delta,
+            id,
+            (long) Integer.MAX_VALUE)
+        == 1;
+  }
 }
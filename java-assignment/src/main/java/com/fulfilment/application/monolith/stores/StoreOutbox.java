@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Records every {@link StoreEvent} in the outbox table while the transaction that changed the
+ * store is still running, so the event is stored if and only if the change commits. Delivery to
+ * the legacy system happens later, in {@link StoreOutboxDispatcher}.
+ */
+@ApplicationScoped
+public class StoreOutbox {
+
+  @Inject StoreOutboxRepository outboxRepository;
+
+  /**
+   * How long a new entry waits before it can be dispatched. Further changes to the same store
+   * while it is pending are coalesced with it into one legacy call.
+   */
+  @ConfigProperty(name = "store.outbox.coalesce-window", defaultValue = "500ms")
+  Duration coalesceWindow;
+
+  void record(@Observes StoreEvent event) {
+    StoreOutboxEntry entry = new StoreOutboxEntry(event, LocalDateTime.now());
+    // Join the window the store's oldest pending entry opened, so the burst becomes due at once
+    StoreOutboxEntry pending = outboxRepository.findOldestPendingForStore(entry.storeId);
+    entry.nextAttemptAt =
+        pending != null ? pending.nextAttemptAt : entry.createdAt.plus(coalesceWindow);
+    outboxRepository.persist(entry);
+  }
+}
@@ -0,0 +1,134 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Drains the store outbox in the background and hands the events to the {@link
+ * LegacyStoreManagerGateway}. Rapid changes to one store are coalesced, so the legacy system gets
+ * the store's final state once instead of every intermediate one. Failed deliveries are retried
+ * with exponential backoff; until then the later events of the same store are held back, so the
+ * legacy system sees each store's events in order. Delivery is at-least-once.
+ */
+@ApplicationScoped
+public class StoreOutboxDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreOutboxDispatcher.class.getName());
+  private static final int MAX_ERROR_LENGTH = 255;
+
+  private final StoreOutboxRepository outboxRepository;
+  private final LegacyStoreManagerGateway legacyStoreManagerGateway;
+  private final int batchSize;
+  private final Duration retryBackoff;
+  private final Duration maxRetryBackoff;
+  private final AtomicLong sentEvents = new AtomicLong();
+  private final AtomicLong mergedEvents = new AtomicLong();
+
+  @Inject
+  public StoreOutboxDispatcher(
+      StoreOutboxRepository outboxRepository,
+      LegacyStoreManagerGateway legacyStoreManagerGateway,
+      @ConfigProperty(name = "store.outbox.batch-size", defaultValue = "100") int batchSize,
+      @ConfigProperty(name = "store.outbox.retry-backoff", defaultValue = "1s")
+          Duration retryBackoff,
+      @ConfigProperty(name = "store.outbox.max-retry-backoff", defaultValue = "5m")
+          Duration maxRetryBackoff) {
+    this.outboxRepository = outboxRepository;
+    this.legacyStoreManagerGateway = legacyStoreManagerGateway;
+    this.batchSize = batchSize;
+    this.retryBackoff = retryBackoff;
+    this.maxRetryBackoff = maxRetryBackoff;
+  }
+
+  @Scheduled(
+      every = "${store.outbox.dispatch-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void drain() {
+    drainAt(LocalDateTime.now());
+  }
+
+  /** Delivers everything that is due at {@code now}, one batch per transaction. */
+  void drainAt(LocalDateTime now) {
+    // Keep going while batches come back full and clean; anything left is picked up next run
+    int delivered;
+    do {
+      delivered = QuarkusTransaction.requiringNew().call(() -> dispatchBatch(now));
+    } while (delivered == batchSize);
+  }
+
+  /**
+   * Delivers one batch of due outbox entries and removes the delivered ones. The entries a store
+   * has in the batch are coalesced into a single event carrying the store's latest state; it is
+   * a creation when one of them is. Must run inside a transaction.
+   *
+   * @return the number of entries delivered, merged ones included
+   */
+  public int dispatchBatch() {
+    return dispatchBatch(LocalDateTime.now());
+  }
+
+  int dispatchBatch(LocalDateTime now) {
+    Map<Long, List<StoreOutboxEntry>> entriesByStore = new LinkedHashMap<>();
+    for (StoreOutboxEntry entry : outboxRepository.findDispatchable(now, batchSize)) {
+      entriesByStore.computeIfAbsent(entry.storeId, id -> new ArrayList<>()).add(entry);
+    }
+
+    int delivered = 0;
+    for (List<StoreOutboxEntry> entries : entriesByStore.values()) {
+      StoreOutboxEntry first = entries.get(0);
+      try {
+        legacyStoreManagerGateway.onStoreEvent(coalesce(entries));
+        entries.forEach(outboxRepository::delete);
+        delivered += entries.size();
+        sentEvents.incrementAndGet();
+        mergedEvents.addAndGet(entries.size() - 1L);
+      } catch (RuntimeException e) {
+        // Only the oldest entry is rescheduled; the dispatch query holds back the rest behind it
+        first.attempts++;
+        first.nextAttemptAt = now.plus(backoff(first.attempts));
+        first.lastError = truncate(e.toString());
+        LOGGER.warnf(
+            "Delivery of %d event(s) for store %d failed (attempt %d), retrying at %s: %s",
+            entries.size(), first.storeId, first.attempts, first.nextAttemptAt, e.getMessage());
+      }
+    }
+    return delivered;
+  }
+
+  /** Number of events handed to the legacy system since startup. */
+  public long getSentEvents() {
+    return sentEvents.get();
+  }
+
+  /** Number of outbox entries folded into another entry's event instead of being sent. */
+  public long getMergedEvents() {
+    return mergedEvents.get();
+  }
+
+  private static StoreEvent coalesce(List<StoreOutboxEntry> entries) {
+    StoreEvent latest = entries.get(entries.size() - 1).toStoreEvent();
+    boolean created =
+        entries.stream().anyMatch(e -> StoreEvent.Type.CREATED.name().equals(e.eventType));
+    return created ? new StoreEvent(latest.getStore(), StoreEvent.Type.CREATED) : latest;
+  }
+
+  Duration backoff(int attempts) {
+    Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+  }
+
+  private static String truncate(String message) {
+    return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+}
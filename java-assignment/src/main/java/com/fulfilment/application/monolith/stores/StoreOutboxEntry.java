@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A {@link StoreEvent} that still has to be delivered to the legacy store manager. The store's
+ * state is copied at the time of the event, so later changes to the store do not alter what is
+ * sent.
+ */
+@Entity
+@Table(name = "store_outbox")
+public class StoreOutboxEntry extends PanacheEntity {
+
+  public Long storeId;
+
+  public String eventType;
+
+  public String storeName;
+
+  public int quantityProductsInStock;
+
+  public LocalDateTime createdAt;
+
+  public int attempts;
+
+  public LocalDateTime nextAttemptAt;
+
+  public String lastError;
+
+  public StoreOutboxEntry() {}
+
+  public StoreOutboxEntry(StoreEvent event, LocalDateTime now) {
+    this.storeId = event.getStore().id;
+    this.eventType = event.getType().name();
+    this.storeName = event.getStore().name;
+    this.quantityProductsInStock = event.getStore().quantityProductsInStock;
+    this.createdAt = now;
+    this.attempts = 0;
+    this.nextAttemptAt = now;
+  }
+
+  /** Rebuilds the event from the recorded state, detached from any persistence context. */
+  public StoreEvent toStoreEvent() {
+    Store store = new Store(storeName);
+    store.id = storeId;
+    store.quantityProductsInStock = quantityProductsInStock;
+    return new StoreEvent(store, StoreEvent.Type.valueOf(eventType));
+  }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ApplicationScoped
+public class StoreOutboxRepository implements PanacheRepository<StoreOutboxEntry> {
+
+  /**
+   * Returns up to {@code limit} entries that are due at {@code now}, oldest first. An entry is
+   * left out while an older entry of the same store is waiting for a retry, so each store's events
+   * are always delivered in the order they were recorded.
+   */
+  public List<StoreOutboxEntry> findDispatchable(LocalDateTime now, int limit) {
+    return getEntityManager()
+        .createQuery(
+            "SELECT e FROM StoreOutboxEntry e WHERE e.nextAttemptAt <= ?1"
+                + " AND NOT EXISTS (SELECT 1 FROM StoreOutboxEntry p"
+                + "   WHERE p.storeId = e.storeId AND p.id < e.id AND p.nextAttemptAt > ?1)"
+                + " ORDER BY e.id",
+            StoreOutboxEntry.class)
+        .setParameter(1, now)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /** The store's oldest entry that has not been delivered yet, or {@code null} if none. */
+  public StoreOutboxEntry findOldestPendingForStore(Long storeId) {
+    return find("storeId", Sort.by("id"), storeId).firstResult();
+  }
+
+  public long countPendingForStore(Long storeId) {
+    return count("storeId", storeId);
+  }
+}
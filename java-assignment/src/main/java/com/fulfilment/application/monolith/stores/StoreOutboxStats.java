@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.stores;
+
+/** Delivery counters of the store outbox, as reported by {@code GET /store/outbox/stats}. */
+public class StoreOutboxStats {
+
+  /** Events handed to the legacy system since startup. */
+  public long sent;
+
+  /** Outbox entries folded into another entry's event instead of being sent on their own. */
+  public long merged;
+
+  /** Entries currently waiting in the outbox. */
+  public long pending;
+
+  public StoreOutboxStats() {}
+
+  public StoreOutboxStats(long sent, long merged, long pending) {
+    this.sent = sent;
+    this.merged = merged;
+    this.pending = pending;
+  }
+}
@@ -1,7 +1,5 @@
 package com.fulfilment.application.monolith.stores;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
@@ -17,10 +15,7 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
 import java.util.List;
-import org.jboss.logging.Logger;
 
 @Path("store")
 @ApplicationScoped
@@ -30,13 +25,24 @@ public class StoreResource {
 
   @Inject Event<StoreEvent> storeEvent;
 
-  private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
+  @Inject StoreOutboxDispatcher outboxDispatcher;
+
+  @Inject StoreOutboxRepository outboxRepository;
 
   @GET
   public List<Store> get() {
     return Store.listAll(Sort.by("name"));
   }
 
+  @GET
+  @Path("outbox/stats")
+  public StoreOutboxStats outboxStats() {
+    return new StoreOutboxStats(
+        outboxDispatcher.getSentEvents(),
+        outboxDispatcher.getMergedEvents(),
+        outboxRepository.count());
+  }
+
   @GET
   @Path("{id}")
   public Store getSingle(Long id) {
@@ -110,6 +116,44 @@ public class StoreResource {
     return entity;
   }
 
+  /**
+   * Adds a delta to the stock of a store without a read-modify-write cycle, so concurrent deltas
+   * never overwrite each other. Answers 409 when the stock would drop below zero.
+   */
+  @POST
+  @Path("{id}/stock")
+  @Transactional
+  public StockLevel adjustStock(Long id, StockDelta stockDelta) {
+    if (stockDelta == null || stockDelta.delta == null) {
+      throw new WebApplicationException("Stock delta was not set on request.", 422);
+    }
+
+    if (!Store.adjustStock(id, stockDelta.delta)) {
+      if (Store.count("id", id) == 0) {
+        throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException(
+          "Stock of store " + id + " cannot be adjusted by " + stockDelta.delta + ".", 409);
+    }
+
+    // The updated row stays locked until commit, so this reads the value written above
+    Object[] row =
+        Store.getEntityManager()
+            .createQuery(
+                "select s.name, s.quantityProductsInStock from Store s where s.id = ?1",
+                Object[].class)
+            .setParameter(1, id)
+            .getSingleResult();
+
+    // The legacy system is sent the new stock; the outbox coalesces bursts of deltas per store
+    Store changed = new Store((String) row[0]);
+    changed.id = id;
+    changed.quantityProductsInStock = (Integer) row[1];
+    storeEvent.fire(new StoreEvent(changed, StoreEvent.Type.UPDATED));
+
+    return new StockLevel(id, changed.quantityProductsInStock);
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -121,30 +165,4 @@ public class StoreResource {
     entity.delete();
     return Response.status(204).build();
   }
-
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
-
-    @Inject ObjectMapper objectMapper;
-
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error("Failed to handle request", exception);
-
-      int code = 500;
-      if (exception instanceof WebApplicationException) {
-        code = ((WebApplicationException) exception).getResponse().getStatus();
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put("exceptionType", exception.getClass().getName());
-      exceptionJson.put("code", code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put("error", exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
-  }
 }
@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.tracing;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Keeps the most recently finished spans in memory, so the steps of a slow request can be looked
+ * up in the running application without an external tracing backend. The oldest spans are dropped
+ * once {@code tracing.collector.capacity} is reached.
+ *
+ * <p>Spans go into a ring of slots claimed with an atomic cursor, so request threads ending spans
+ * never wait for each other or for a reader. Readers see each slot as it is when they reach it; a
+ * span overwritten during a read is simply missed.
+ */
+@ApplicationScoped
+public class TraceCollector implements SpanProcessor {
+
+  private final int capacity;
+  private final AtomicReferenceArray<SpanData> slots;
+  private final AtomicLong cursor = new AtomicLong();
+
+  @Inject
+  public TraceCollector(
+      @ConfigProperty(name = "tracing.collector.capacity", defaultValue = "10000") int capacity) {
+    this.capacity = capacity;
+    this.slots = new AtomicReferenceArray<>(Math.max(capacity, 0));
+  }
+
+  @Override
+  public void onStart(Context parentContext, ReadWriteSpan span) {}
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    slots.set((int) (cursor.getAndIncrement() % capacity), span.toSpanData());
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return capacity > 0;
+  }
+
+  /** The collected spans of one trace, in start order. */
+  public List<SpanData> trace(String traceId) {
+    List<SpanData> result = new ArrayList<>();
+    for (int i = 0; i < slots.length(); i++) {
+      SpanData span = slots.get(i);
+      if (span != null && span.getTraceId().equals(traceId)) {
+        result.add(span);
+      }
+    }
+    result.sort(Comparator.comparingLong(SpanData::getStartEpochNanos));
+    return result;
+  }
+
+  /**
+   * The root spans that took at least {@code minDurationMicros}, slowest first.
+   *
+   * @param limit the maximum number of spans returned
+   */
+  public List<SpanData> slowestRoots(long minDurationMicros, int limit) {
+    List<SpanData> roots = new ArrayList<>();
+    for (int i = 0; i < slots.length(); i++) {
+      SpanData span = slots.get(i);
+      if (span != null
+          && !span.getParentSpanContext().isValid()
+          && TraceSpan.durationMicros(span) >= minDurationMicros) {
+        roots.add(span);
+      }
+    }
+    roots.sort(Comparator.comparingLong(TraceSpan::durationMicros).reversed());
+    return roots.size() > limit ? roots.subList(0, limit) : roots;
+  }
+
+  /** Drops every collected span. */
+  public void clear() {
+    for (int i = 0; i < slots.length(); i++) {
+      slots.set(i, null);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.tracing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+
+/** Read access to the spans held by the {@link TraceCollector}. */
+@Path("traces")
+@ApplicationScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class TraceResource {
+
+  private static final int MAX_LIMIT = 1000;
+
+  @Inject TraceCollector collector;
+
+  /** The root span of the slowest collected traces, for example the slowest requests. */
+  @GET
+  public List<TraceSpan> slowest(
+      @QueryParam("minDurationMillis") @DefaultValue("0") long minDurationMillis,
+      @QueryParam("limit") @DefaultValue("20") int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new WebApplicationException(
+          "Limit must be between 1 and " + MAX_LIMIT, Response.Status.BAD_REQUEST);
+    }
+    return collector.slowestRoots(minDurationMillis * 1000, limit).stream()
+        .map(TraceSpan::from)
+        .toList();
+  }
+
+  /** Every collected span of one trace, in start order. */
+  @GET
+  @Path("{traceId}")
+  public List<TraceSpan> trace(@PathParam("traceId") String traceId) {
+    List<TraceSpan> spans = collector.trace(traceId).stream().map(TraceSpan::from).toList();
+    if (spans.isEmpty()) {
+      throw new WebApplicationException(
+          "Trace with id '" + traceId + "' not found", Response.Status.NOT_FOUND);
+    }
+    return spans;
+  }
+}
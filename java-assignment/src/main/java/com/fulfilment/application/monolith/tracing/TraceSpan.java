@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.tracing;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** A finished span as it is written to the trace file and returned by {@link TraceResource}. */
+public class TraceSpan {
+
+  public String traceId;
+  public String spanId;
+  public String parentSpanId;
+  public String name;
+  public String kind;
+  public long startEpochMicros;
+  public long durationMicros;
+  public String status;
+  public Map<String, String> attributes = new LinkedHashMap<>();
+
+  public static TraceSpan from(SpanData span) {
+    TraceSpan result = new TraceSpan();
+    result.traceId = span.getTraceId();
+    result.spanId = span.getSpanId();
+    result.parentSpanId = span.getParentSpanContext().isValid() ? span.getParentSpanId() : null;
+    result.name = span.getName();
+    result.kind = span.getKind().name();
+    result.startEpochMicros = TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos());
+    result.durationMicros = durationMicros(span);
+    result.status = span.getStatus().getStatusCode().name();
+    span.getAttributes()
+        .forEach((key, value) -> result.attributes.put(key.getKey(), String.valueOf(value)));
+    return result;
+  }
+
+  static long durationMicros(SpanData span) {
+    return TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos());
+  }
+}
@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.tracing;
+
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+public class TracingConfiguration {
+
+  /**
+   * Writes finished spans to {@code tracing.export.file} when it is set. Spans are written in
+   * batches from a background thread, off the request path.
+   */
+  @Produces
+  @Singleton
+  public SpanProcessor fileExport(
+      @ConfigProperty(name = "tracing.export.file") Optional<Path> file) {
+    return file.<SpanProcessor>map(
+            f -> BatchSpanProcessor.builder(new JsonLinesSpanExporter(f)).build())
+        .orElseGet(SpanProcessor::composite);
+  }
+}
@@ -0,0 +1,137 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the active warehouses keyed by business unit code, so lookups are hash probes
+ * instead of SQL. It assumes this application is the only writer of the warehouse table.
+ *
+ * <p>Changes made inside a transaction are staged per transaction: they are visible to that
+ * transaction straight away and only published to other readers once it commits, so rolled-back
+ * writes never show up. Warehouses are copied on the way in and out, so callers can freely mutate
+ * what they get back.
+ */
+@ApplicationScoped
+public class ActiveWarehouseIndex {
+
+  private static final Object PENDING_CHANGES_KEY = new Object();
+
+  private final ConcurrentHashMap<String, Warehouse> active = new ConcurrentHashMap<>();
+
+  private final TransactionSynchronizationRegistry transactionRegistry;
+
+  @Inject
+  public ActiveWarehouseIndex(TransactionSynchronizationRegistry transactionRegistry) {
+    this.transactionRegistry = transactionRegistry;
+  }
+
+  public Warehouse get(String buCode) {
+    if (buCode == null) {
+      return null;
+    }
+    Map<String, Warehouse> pending = pendingChanges(false);
+    if (pending != null && pending.containsKey(buCode)) {
+      return copy(pending.get(buCode));
+    }
+    return copy(active.get(buCode));
+  }
+
+  public boolean contains(String buCode) {
+    return get(buCode) != null;
+  }
+
+  public void put(Warehouse warehouse) {
+    stage(warehouse.businessUnitCode, copy(warehouse));
+  }
+
+  public void remove(String buCode) {
+    stage(buCode, null);
+  }
+
+  /** Replaces the whole index, e.g. with the active rows read at startup. */
+  public void reload(Collection<Warehouse> warehouses) {
+    Map<String, Warehouse> loaded = new HashMap<>();
+    for (Warehouse warehouse : warehouses) {
+      if (warehouse.businessUnitCode != null) {
+        loaded.put(warehouse.businessUnitCode, copy(warehouse));
+      }
+    }
+    active.keySet().retainAll(loaded.keySet());
+    active.putAll(loaded);
+  }
+
+  public int size() {
+    return active.size();
+  }
+
+  private void stage(String buCode, Warehouse warehouse) {
+    if (buCode == null) {
+      return;
+    }
+    Map<String, Warehouse> pending = pendingChanges(true);
+    if (pending == null) {
+      // no transaction, nothing to wait for
+      publish(buCode, warehouse);
+    } else {
+      pending.put(buCode, warehouse);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Warehouse> pendingChanges(boolean create) {
+    if (transactionRegistry.getTransactionKey() == null) {
+      return null;
+    }
+    Map<String, Warehouse> pending =
+        (Map<String, Warehouse>) transactionRegistry.getResource(PENDING_CHANGES_KEY);
+    if (pending == null && create) {
+      Map<String, Warehouse> changes = new HashMap<>();
+      transactionRegistry.putResource(PENDING_CHANGES_KEY, changes);
+      transactionRegistry.registerInterposedSynchronization(
+          new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+              if (status == Status.STATUS_COMMITTED) {
+                changes.forEach(ActiveWarehouseIndex.this::publish);
+              }
+            }
+          });
+      pending = changes;
+    }
+    return pending;
+  }
+
+  private void publish(String buCode, Warehouse warehouse) {
+    if (warehouse == null) {
+      active.remove(buCode);
+    } else {
+      active.put(buCode, warehouse);
+    }
+  }
+
+  private static Warehouse copy(Warehouse warehouse) {
+    if (warehouse == null) {
+      return null;
+    }
+    var copy = new Warehouse();
+    copy.businessUnitCode = warehouse.businessUnitCode;
+    copy.location = warehouse.location;
+    copy.capacity = warehouse.capacity;
+    copy.stock = warehouse.stock;
+    copy.createdAt = warehouse.createdAt;
+    copy.archivedAt = warehouse.archivedAt;
+    return copy;
+  }
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Running totals of the active warehouses per location. Maintained by {@link WarehouseRepository}
+ * in the same transaction as the warehouse writes, and rebuildable from the warehouse table.
+ */
+@Entity
+@Table(name = "warehouse_location_aggregate")
+public class DbLocationAggregate {
+
+  @Id public String location;
+
+  public long activeWarehouses;
+
+  public long totalCapacity;
+
+  public DbLocationAggregate() {}
+
+  public DbLocationAggregate(String location, long activeWarehouses, long totalCapacity) {
+    this.location = location;
+    this.activeWarehouses = activeWarehouses;
+    this.totalCapacity = totalCapacity;
+  }
+}
@@ -1,20 +1,102 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
+import com.fulfilment.application.monolith.metrics.Metered;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 
+@Metered
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  private static final int STREAM_FETCH_SIZE = 500;
+
+  // Unique over the business unit codes of active warehouses, see the V6 migration
+  private static final String ACTIVE_CODE_INDEX = "warehouse_active_bu_code_idx";
+
+  @Inject ActiveWarehouseIndex activeWarehouseIndex;
+
   @Override
   public List<Warehouse> getAll() {
     return find("archivedAt IS NULL").stream().map(DbWarehouse::toWarehouse).toList();
   }
 
+  /**
+   * Keyset pagination over the active warehouses: returns at most {@code limit} of them ordered by
+   * business unit code, starting right after {@code afterBusinessUnitCode} (or at the start when
+   * null).
+   */
+  public List<Warehouse> findActivePage(String afterBusinessUnitCode, int limit) {
+    PanacheQuery<DbWarehouse> query =
+        afterBusinessUnitCode == null
+            ? find("archivedAt IS NULL", Sort.by("businessUnitCode"))
+            : find(
+                "archivedAt IS NULL AND businessUnitCode > ?1",
+                Sort.by("businessUnitCode"),
+                afterBusinessUnitCode);
+    return query.page(0, limit).stream().map(DbWarehouse::toWarehouse).toList();
+  }
+
+  /**
+   * Reads all active warehouses, ordered by business unit code, through a forward-only database
+   * cursor and hands them to {@code consumer} one at a time. The persistence context is cleared
+   * every {@value #STREAM_FETCH_SIZE} rows so memory use stays flat whatever the table size. Must
+   * run inside its own transaction.
+   */
+  public void streamActive(Consumer<Warehouse> consumer) {
+    Session session = getEntityManager().unwrap(Session.class);
+    // Exported rows would otherwise fill the second-level cache and evict the working set. A scroll
+    // reads its rows after the query has run, under the session's cache mode rather than the
+    // query's, so the mode is set on the session for the whole stream.
+    CacheMode cacheMode = session.getCacheMode();
+    session.setCacheMode(CacheMode.IGNORE);
+    try (ScrollableResults<DbWarehouse> results =
+        session
+            .createSelectionQuery(
+                "FROM DbWarehouse WHERE archivedAt IS NULL ORDER BY businessUnitCode",
+                DbWarehouse.class)
+            .setReadOnly(true)
+            .setFetchSize(STREAM_FETCH_SIZE)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+      int read = 0;
+      while (results.next()) {
+        consumer.accept(results.get().toWarehouse());
+        if (++read % STREAM_FETCH_SIZE == 0) {
+          session.clear();
+        }
+      }
+    } finally {
+      session.setCacheMode(cacheMode);
+    }
+  }
+
   @Override
   public void create(Warehouse warehouse) {
     DbWarehouse dbWarehouse = new DbWarehouse();
@@ -25,6 +107,40 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     dbWarehouse.createdAt = LocalDateTime.now();
     dbWarehouse.archivedAt = null;
     persist(dbWarehouse);
+    flushActiveCodes(
+        "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
+    adjustLocationAggregate(dbWarehouse.location, 1, capacityOf(dbWarehouse));
+    activeWarehouseIndex.put(dbWarehouse.toWarehouse());
+  }
+
+  /**
+   * Persists all given warehouses so Hibernate can send them as batched inserts, then applies the
+   * location aggregate changes once per location instead of once per warehouse.
+   */
+  public void createAll(List<Warehouse> warehouses) {
+    LocalDateTime now = LocalDateTime.now();
+    Map<String, LocationAggregate> deltas = new HashMap<>();
+    List<DbWarehouse> dbWarehouses = new ArrayList<>(warehouses.size());
+    for (Warehouse warehouse : warehouses) {
+      DbWarehouse dbWarehouse = new DbWarehouse();
+      dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
+      dbWarehouse.location = warehouse.location;
+      dbWarehouse.capacity = warehouse.capacity;
+      dbWarehouse.stock = warehouse.stock;
+      dbWarehouse.createdAt = now;
+      dbWarehouse.archivedAt = null;
+      dbWarehouses.add(dbWarehouse);
+
+      LocationAggregate delta =
+          deltas.computeIfAbsent(dbWarehouse.location, LocationAggregate::empty);
+      delta.activeWarehouses++;
+      delta.totalCapacity += capacityOf(dbWarehouse);
+    }
+    persist(dbWarehouses);
+    flushActiveCodes("A business unit code of the batch already exists");
+    dbWarehouses.forEach(w -> activeWarehouseIndex.put(w.toWarehouse()));
+    deltas.values()
+        .forEach(d -> adjustLocationAggregate(d.location, d.activeWarehouses, d.totalCapacity));
   }
 
   @Override
@@ -33,32 +149,238 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
         find("businessUnitCode = ?1 AND archivedAt IS NULL", warehouse.businessUnitCode)
             .firstResult();
     if (dbWarehouse != null) {
+      adjustLocationAggregate(dbWarehouse.location, -1, -capacityOf(dbWarehouse));
       dbWarehouse.location = warehouse.location;
       dbWarehouse.capacity = warehouse.capacity;
       dbWarehouse.stock = warehouse.stock;
       dbWarehouse.archivedAt = warehouse.archivedAt;
       persist(dbWarehouse);
+      if (dbWarehouse.archivedAt == null) {
+        adjustLocationAggregate(dbWarehouse.location, 1, capacityOf(dbWarehouse));
+        activeWarehouseIndex.put(dbWarehouse.toWarehouse());
+      } else {
+        // Archive now: Hibernate flushes inserts before updates, so a replacement inserted later in
+        // this transaction would otherwise hit the unique index on active business unit codes
+        flush();
+        activeWarehouseIndex.remove(dbWarehouse.businessUnitCode);
+      }
     }
   }
 
   @Override
   public void remove(Warehouse warehouse) {
+    DbWarehouse active =
+        find("businessUnitCode = ?1 AND archivedAt IS NULL", warehouse.businessUnitCode)
+            .firstResult();
+    if (active != null) {
+      adjustLocationAggregate(active.location, -1, -capacityOf(active));
+    }
     delete("businessUnitCode = ?1", warehouse.businessUnitCode);
+    activeWarehouseIndex.remove(warehouse.businessUnitCode);
   }
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
+    return activeWarehouseIndex.get(buCode);
+  }
+
+  /**
+   * Reads the active warehouse from the database rather than the {@link ActiveWarehouseIndex},
+   * which only shows another transaction's changes some time after it committed.
+   */
+  public Warehouse findActiveInDatabase(String buCode) {
     DbWarehouse dbWarehouse =
         find("businessUnitCode = ?1 AND archivedAt IS NULL", buCode).firstResult();
     return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
   }
 
+  /**
+   * Returns the active warehouse count and summed capacity of a location with a single primary key
+   * lookup. Locations without active warehouses yield an empty aggregate, never null.
+   */
+  public LocationAggregate getLocationAggregate(String location) {
+    return getEntityManager()
+        .createQuery(
+            "SELECT new com.fulfilment.application.monolith.warehouses.domain.models"
+                + ".LocationAggregate(a.location, a.activeWarehouses, a.totalCapacity)"
+                + " FROM DbLocationAggregate a WHERE a.location = ?1",
+            LocationAggregate.class)
+        .setParameter(1, location)
+        .getResultStream()
+        .findFirst()
+        .orElseGet(() -> LocationAggregate.empty(location));
+  }
+
+  /** Returns the aggregates of the given locations, keyed by location, with one query. */
+  public Map<String, LocationAggregate> getLocationAggregates(Collection<String> locations) {
+    Map<String, LocationAggregate> aggregates = new HashMap<>();
+    if (locations.isEmpty()) {
+      return aggregates;
+    }
+    getEntityManager()
+        .createQuery(
+            "SELECT new com.fulfilment.application.monolith.warehouses.domain.models"
+                + ".LocationAggregate(a.location, a.activeWarehouses, a.totalCapacity)"
+                + " FROM DbLocationAggregate a WHERE a.location IN ?1",
+            LocationAggregate.class)
+        .setParameter(1, locations)
+        .getResultStream()
+        .forEach(aggregate -> aggregates.put(aggregate.location, aggregate));
+    return aggregates;
+  }
+
+  /** Returns the aggregates of all locations that have one, keyed by location. */
+  public Map<String, LocationAggregate> getAllLocationAggregates() {
+    Map<String, LocationAggregate> aggregates = new HashMap<>();
+    getEntityManager()
+        .createQuery(
+            "SELECT new com.fulfilment.application.monolith.warehouses.domain.models"
+                + ".LocationAggregate(a.location, a.activeWarehouses, a.totalCapacity)"
+                + " FROM DbLocationAggregate a",
+            LocationAggregate.class)
+        .getResultStream()
+        .forEach(aggregate -> aggregates.put(aggregate.location, aggregate));
+    return aggregates;
+  }
+
+  /**
+   * Reserves the given locations for the current transaction and returns their aggregates as they
+   * are once the reservation is held. Each location's aggregate row is locked with {@code SELECT
+   * ... FOR UPDATE}, so writers of the same location run one after the other while writers of other
+   * locations are not blocked. Locations are locked in sorted order so two transactions reserving
+   * overlapping sets cannot deadlock. Must run inside a transaction; the locks are released when it
+   * ends.
+   */
+  public Map<String, LocationAggregate> lockLocationAggregates(Collection<String> locations) {
+    Map<String, LocationAggregate> aggregates = new HashMap<>();
+    for (String location : new TreeSet<>(locations)) {
+      LocationAggregate aggregate = selectLocationAggregateForUpdate(location);
+      if (aggregate == null) {
+        createEmptyLocationAggregate(location);
+        aggregate = selectLocationAggregateForUpdate(location);
+      }
+      aggregates.put(location, aggregate);
+    }
+    return aggregates;
+  }
+
+  /** Single-location variant of {@link #lockLocationAggregates(Collection)}. */
+  public LocationAggregate lockLocationAggregate(String location) {
+    return lockLocationAggregates(List.of(location)).get(location);
+  }
+
+  /** Returns which of the given business unit codes belong to an active warehouse. */
+  public Set<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    return buCodes.stream().filter(activeWarehouseIndex::contains).collect(Collectors.toSet());
+  }
+
   public long countActiveWarehousesInLocation(String location) {
-    return count("location = ?1 AND archivedAt IS NULL", location);
+    return getLocationAggregate(location).activeWarehouses;
   }
 
   public int getTotalCapacityInLocation(String location) {
-    List<DbWarehouse> warehouses = find("location = ?1 AND archivedAt IS NULL", location).list();
-    return warehouses.stream().mapToInt(w -> w.capacity != null ? w.capacity : 0).sum();
+    return Math.toIntExact(getLocationAggregate(location).totalCapacity);
+  }
+
+  /**
+   * Recomputes every location aggregate from the warehouse table. Needed whenever rows are written
+   * without going through this repository, e.g. by the SQL load script.
+   */
+  public void rebuildLocationAggregates() {
+    getEntityManager().createQuery("DELETE FROM DbLocationAggregate").executeUpdate();
+    getEntityManager()
+        .createQuery(
+            "INSERT INTO DbLocationAggregate (location, activeWarehouses, totalCapacity)"
+                + " SELECT w.location, count(w), coalesce(sum(w.capacity), 0)"
+                + " FROM DbWarehouse w WHERE w.archivedAt IS NULL GROUP BY w.location")
+        .executeUpdate();
+  }
+
+  /** Reloads the in-memory index of active warehouses from the warehouse table. */
+  public void reloadActiveWarehouseIndex() {
+    activeWarehouseIndex.reload(getAll());
+  }
+
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    rebuildLocationAggregates();
+    reloadActiveWarehouseIndex();
+  }
+
+  private LocationAggregate selectLocationAggregateForUpdate(String location) {
+    List<?> rows =
+        getEntityManager()
+            .createNativeQuery(
+                "SELECT location, activeWarehouses, totalCapacity"
+                    + " FROM warehouse_location_aggregate WHERE location = ?1 FOR UPDATE")
+            .setParameter(1, location)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return null;
+    }
+    Object[] row = (Object[]) rows.get(0);
+    return new LocationAggregate(
+        (String) row[0], ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+  }
+
+  /**
+   * Inserts the zero aggregate of a location that has none yet, so there is a row to lock. Runs in
+   * the caller's transaction, so no second connection is needed: a concurrent reserver inserting
+   * the same location waits for this transaction and then finds the row. Losing that race is
+   * expected, so a conflicting row is skipped by the statement itself rather than reported as a
+   * constraint violation.
+   */
+  private void createEmptyLocationAggregate(String location) {
+    getEntityManager()
+        .createNativeQuery(
+            "INSERT INTO warehouse_location_aggregate (location, activeWarehouses, totalCapacity)"
+                + " VALUES (?1, 0, 0) ON CONFLICT DO NOTHING")
+        .setParameter(1, location)
+        .executeUpdate();
+  }
+
+  /**
+   * Sends the pending warehouse inserts, so a second active warehouse with the same business unit
+   * code is rejected here rather than failing the commit. The use cases check codes under the
+   * location reservation, but concurrent creates in different locations only meet at the unique
+   * index.
+   */
+  private void flushActiveCodes(String duplicateMessage) {
+    try {
+      flush();
+    } catch (PersistenceException e) {
+      for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+        if (cause instanceof ConstraintViolationException violation
+            && violation.getConstraintName() != null
+            && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(ACTIVE_CODE_INDEX)) {
+          throw new WarehouseValidationException(
+              ErrorCode.WAREHOUSE_ALREADY_EXISTS, duplicateMessage);
+        }
+      }
+      throw e;
+    }
+  }
+
+  private void adjustLocationAggregate(String location, long warehouses, long capacity) {
+    if (location == null) {
+      return;
+    }
+    // Relative update so concurrent writers never overwrite each other's totals
+    int updated =
+        getEntityManager()
+            .createQuery(
+                "UPDATE DbLocationAggregate a SET a.activeWarehouses = a.activeWarehouses + ?1,"
+                    + " a.totalCapacity = a.totalCapacity + ?2 WHERE a.location = ?3")
+            .setParameter(1, warehouses)
+            .setParameter(2, capacity)
+            .setParameter(3, location)
+            .executeUpdate();
+    if (updated == 0) {
+      getEntityManager().persist(new DbLocationAggregate(location, warehouses, capacity));
+    }
+  }
+
+  private static long capacityOf(DbWarehouse dbWarehouse) {
+    return dbWarehouse.capacity != null ? dbWarehouse.capacity : 0;
   }
 }
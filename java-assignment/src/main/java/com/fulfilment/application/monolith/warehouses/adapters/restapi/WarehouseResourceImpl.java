@@ -1,49 +1,128 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
-import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FindAvailableLocationsOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.warehouse.api.WarehouseResource;
+import com.warehouse.api.beans.LocationAvailability;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseBulkResult;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RequestScoped
 public class WarehouseResourceImpl implements WarehouseResource {
 
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final int DEFAULT_NEARBY_LOCATIONS = 10;
+  static final int MAX_BULK_SIZE = 1000;
+
   @Inject private WarehouseRepository warehouseRepository;
 
+  @Inject private ObjectMapper objectMapper;
+
   @Inject private CreateWarehouseOperation createWarehouseOperation;
 
   @Inject private ReplaceWarehouseOperation replaceWarehouseOperation;
 
   @Inject private ArchiveWarehouseOperation archiveWarehouseOperation;
 
+  @Inject private FindAvailableLocationsOperation findAvailableLocationsOperation;
+
+  @Override
+  public List<Warehouse> listAllWarehousesUnits(String after, Integer limit) {
+    if (after == null && limit == null) {
+      return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+    }
+    int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new WebApplicationException(
+          "Page size must be between 1 and " + MAX_PAGE_SIZE, Response.Status.BAD_REQUEST);
+    }
+    return warehouseRepository.findActivePage(after, pageSize).stream()
+        .map(this::toWarehouseResponse)
+        .toList();
+  }
+
   @Override
-  public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+  public Response exportActiveWarehouseUnits() {
+    StreamingOutput body =
+        output -> {
+          try (SequenceWriter writer =
+              objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+            QuarkusTransaction.requiringNew()
+                .run(
+                    () ->
+                        warehouseRepository.streamActive(
+                            warehouse -> {
+                              try {
+                                writer.write(toWarehouseResponse(warehouse));
+                              } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                              }
+                            }));
+          }
+        };
+    return Response.ok(body).build();
   }
 
   @Override
   @Transactional
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
-    try {
-      var domainWarehouse = toDomainWarehouse(data);
-      createWarehouseOperation.create(domainWarehouse);
-
-      // Retrieve the created warehouse to return
-      var created = warehouseRepository.findByBusinessUnitCode(data.getBusinessUnitCode());
-      return toWarehouseResponse(created);
-    } catch (WarehouseValidationException e) {
-      throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+    var domainWarehouse = toDomainWarehouse(data);
+    createWarehouseOperation.create(domainWarehouse);
+
+    // Retrieve the created warehouse to return
+    var created = warehouseRepository.findByBusinessUnitCode(data.getBusinessUnitCode());
+    return toWarehouseResponse(created);
+  }
+
+  @Override
+  @Transactional
+  public List<WarehouseBulkResult> createWarehouseUnitsInBulk(@NotNull List<Warehouse> data) {
+    // The whole batch holds its location reservations until it commits, so bound its size
+    if (data == null || data.size() > MAX_BULK_SIZE) {
+      throw new WebApplicationException(
+          "Between 0 and " + MAX_BULK_SIZE + " warehouses are accepted per request",
+          Response.Status.BAD_REQUEST);
+    }
+    var results =
+        createWarehouseOperation.createAll(data.stream().map(this::toDomainWarehouse).toList());
+    return results.stream().map(this::toBulkResultResponse).toList();
+  }
+
+  @Override
+  public List<LocationAvailability> findAvailableLocationsNearAPoint(
+      Double latitude, Double longitude, Double radiusKm, Integer limit, Integer minCapacity) {
+    if (latitude == null || longitude == null) {
+      throw new WebApplicationException(
+          "Both latitude and longitude are required", Response.Status.BAD_REQUEST);
     }
+    return findAvailableLocationsOperation
+        .findAvailable(
+            latitude,
+            longitude,
+            radiusKm,
+            limit != null ? limit : DEFAULT_NEARBY_LOCATIONS,
+            minCapacity != null ? minCapacity : 0)
+        .stream()
+        .map(this::toLocationAvailabilityResponse)
+        .toList();
   }
 
   @Override
@@ -59,33 +138,22 @@ public class WarehouseResourceImpl implements WarehouseResource {
   @Override
   @Transactional
   public void archiveAWarehouseUnitByID(String id) {
-    try {
-      var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
-      warehouse.businessUnitCode = id;
-      archiveWarehouseOperation.archive(warehouse);
-    } catch (WarehouseValidationException e) {
-      throw new WebApplicationException(e.getMessage(), Response.Status.NOT_FOUND);
-    }
+    var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+    warehouse.businessUnitCode = id;
+    archiveWarehouseOperation.archive(warehouse);
   }
 
   @Override
   @Transactional
   public Warehouse replaceTheCurrentActiveWarehouse(
       String businessUnitCode, @NotNull Warehouse data) {
-    try {
-      var domainWarehouse = toDomainWarehouse(data);
-      domainWarehouse.businessUnitCode = businessUnitCode;
-      replaceWarehouseOperation.replace(domainWarehouse);
-
-      // Retrieve the newly created warehouse to return
-      var replaced = warehouseRepository.findByBusinessUnitCode(businessUnitCode);
-      return toWarehouseResponse(replaced);
-    } catch (WarehouseValidationException e) {
-      if (e.getMessage().contains("does not exist")) {
-        throw new WebApplicationException(e.getMessage(), Response.Status.NOT_FOUND);
-      }
-      throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
-    }
+    var domainWarehouse = toDomainWarehouse(data);
+    domainWarehouse.businessUnitCode = businessUnitCode;
+    replaceWarehouseOperation.replace(domainWarehouse);
+
+    // Retrieve the newly created warehouse to return
+    var replaced = warehouseRepository.findByBusinessUnitCode(businessUnitCode);
+    return toWarehouseResponse(replaced);
   }
 
   private Warehouse toWarehouseResponse(
@@ -98,9 +166,39 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return response;
   }
 
+  private WarehouseBulkResult toBulkResultResponse(WarehouseCreationResult result) {
+    var response = new WarehouseBulkResult();
+    response.setBusinessUnitCode(result.warehouse.businessUnitCode);
+    response.setCreated(result.isCreated());
+    response.setError(result.error);
+    if (result.isCreated()) {
+      response.setWarehouse(toWarehouseResponse(result.warehouse));
+    }
+    return response;
+  }
+
+  private LocationAvailability toLocationAvailabilityResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.LocationAvailability
+          availability) {
+    var response = new LocationAvailability();
+    response.setLocation(availability.location.identification);
+    response.setLatitude(availability.location.latitude);
+    response.setLongitude(availability.location.longitude);
+    response.setDistanceKm(availability.distanceKm);
+    response.setMaxNumberOfWarehouses(availability.location.maxNumberOfWarehouses);
+    response.setActiveWarehouses(availability.activeWarehouses);
+    response.setMaxCapacity(availability.location.maxCapacity);
+    response.setRemainingCapacity(availability.remainingCapacity);
+    return response;
+  }
+
   private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse toDomainWarehouse(
       Warehouse apiWarehouse) {
     var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+    if (apiWarehouse == null) {
+      // A null bulk item has no business unit code and is rejected in its own result
+      return warehouse;
+    }
     warehouse.businessUnitCode = apiWarehouse.getBusinessUnitCode();
     warehouse.location = apiWarehouse.getLocation();
     warehouse.capacity = apiWarehouse.getCapacity();
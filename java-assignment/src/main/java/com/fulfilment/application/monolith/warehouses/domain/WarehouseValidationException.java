@@ -1,8 +1,15 @@
 package com.fulfilment.application.monolith.warehouses.domain;
 
-public class WarehouseValidationException extends RuntimeException {
+import com.fulfilment.application.monolith.errors.DomainException;
+import com.fulfilment.application.monolith.errors.ErrorCode;
+
+public class WarehouseValidationException extends DomainException {
 
   public WarehouseValidationException(String message) {
-    super(message);
+    this(ErrorCode.VALIDATION_FAILED, message);
+  }
+
+  public WarehouseValidationException(ErrorCode code, String message) {
+    super(code, message);
   }
 }
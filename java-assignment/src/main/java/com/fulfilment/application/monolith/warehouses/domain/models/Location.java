@@ -9,9 +9,28 @@ public class Location {
   // maximum capacity of the location summing all the warehouse capacities
   public int maxCapacity;
 
+  // WGS84 coordinates in degrees, null when the location has none
+  public Double latitude;
+  public Double longitude;
+
   public Location(String identification, int maxNumberOfWarehouses, int maxCapacity) {
     this.identification = identification;
     this.maxNumberOfWarehouses = maxNumberOfWarehouses;
     this.maxCapacity = maxCapacity;
   }
+
+  public Location(
+      String identification,
+      int maxNumberOfWarehouses,
+      int maxCapacity,
+      Double latitude,
+      Double longitude) {
+    this(identification, maxNumberOfWarehouses, maxCapacity);
+    this.latitude = latitude;
+    this.longitude = longitude;
+  }
+
+  public boolean hasCoordinates() {
+    return latitude != null && longitude != null;
+  }
 }
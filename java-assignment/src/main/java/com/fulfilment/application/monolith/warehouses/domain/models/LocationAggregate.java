@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class LocationAggregate {
+  public String location;
+
+  // number of active (non-archived) warehouses in this location
+  public long activeWarehouses;
+
+  // sum of the capacities of all active warehouses in this location
+  public long totalCapacity;
+
+  public LocationAggregate(String location, long activeWarehouses, long totalCapacity) {
+    this.location = location;
+    this.activeWarehouses = activeWarehouses;
+    this.totalCapacity = totalCapacity;
+  }
+
+  public static LocationAggregate empty(String location) {
+    return new LocationAggregate(location, 0, 0);
+  }
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class LocationAvailability {
+
+  public Location location;
+
+  // great-circle distance from the queried point
+  public double distanceKm;
+
+  // number of active warehouses in the location
+  public long activeWarehouses;
+
+  // capacity still available for new warehouses in the location
+  public long remainingCapacity;
+
+  public LocationAvailability(
+      Location location, double distanceKm, long activeWarehouses, long remainingCapacity) {
+    this.location = location;
+    this.distanceKm = distanceKm;
+    this.activeWarehouses = activeWarehouses;
+    this.remainingCapacity = remainingCapacity;
+  }
+}
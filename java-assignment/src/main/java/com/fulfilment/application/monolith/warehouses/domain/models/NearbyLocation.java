@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class NearbyLocation {
+
+  public Location location;
+
+  // great-circle distance from the queried point
+  public double distanceKm;
+
+  public NearbyLocation(Location location, double distanceKm) {
+    this.location = location;
+    this.distanceKm = distanceKm;
+  }
+}
@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class WarehouseCreationResult {
+
+  public Warehouse warehouse;
+
+  // reason the warehouse was rejected, null when it was created
+  public String error;
+
+  public WarehouseCreationResult(Warehouse warehouse, String error) {
+    this.warehouse = warehouse;
+    this.error = error;
+  }
+
+  public static WarehouseCreationResult created(Warehouse warehouse) {
+    return new WarehouseCreationResult(warehouse, null);
+  }
+
+  public static WarehouseCreationResult rejected(Warehouse warehouse, String error) {
+    return new WarehouseCreationResult(warehouse, error);
+  }
+
+  public boolean isCreated() {
+    return error == null;
+  }
+}
@@ -1,7 +1,11 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
+import java.util.List;
 
 public interface CreateWarehouseOperation {
   void create(Warehouse warehouse);
+
+  List<WarehouseCreationResult> createAll(List<Warehouse> warehouses);
 }
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAvailability;
+import java.util.List;
+
+public interface FindAvailableLocationsOperation {
+  List<LocationAvailability> findAvailable(
+      double latitude, double longitude, Double radiusKm, int limit, int minCapacity);
+}
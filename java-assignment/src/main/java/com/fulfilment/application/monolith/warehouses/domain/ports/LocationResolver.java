@@ -1,7 +1,24 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import java.util.List;
+import java.util.function.Predicate;
 
 public interface LocationResolver {
   Location resolveByIdentifier(String identifier);
+
+  /**
+   * Returns up to {@code limit} locations accepted by {@code filter}, nearest to the given point
+   * first. Locations without coordinates are never returned.
+   */
+  List<NearbyLocation> findNearest(
+      double latitude, double longitude, int limit, Predicate<Location> filter);
+
+  /**
+   * Returns the locations accepted by {@code filter} within {@code radiusKm} of the given point,
+   * nearest first. Locations without coordinates are never returned.
+   */
+  List<NearbyLocation> findWithinRadius(
+      double latitude, double longitude, double radiusKm, Predicate<Location> filter);
 }
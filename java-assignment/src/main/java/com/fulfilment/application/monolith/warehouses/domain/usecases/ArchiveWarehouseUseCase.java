@@ -1,9 +1,11 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.time.LocalDateTime;
@@ -19,11 +21,13 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
   }
 
   @Override
+  @WithSpan
   public void archive(Warehouse warehouse) {
     // Find existing warehouse
     Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode);
     if (existing == null) {
       throw new WarehouseValidationException(
+          ErrorCode.WAREHOUSE_NOT_FOUND,
           "Warehouse with business unit code '" + warehouse.businessUnitCode + "' does not exist");
     }
 
@@ -1,13 +1,24 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
@@ -23,26 +34,102 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
   }
 
   @Override
+  @WithSpan
   public void create(Warehouse warehouse) {
-    // 1. Business Unit Code Verification - ensure it doesn't already exist
+    // 1. Location Validation - confirm the location is valid
+    Location location = resolveLocation(warehouse);
+
+    // The remaining checks read under the location's reservation, so concurrent creates in the
+    // same location cannot both pass. Same-code creates in different locations are stopped by the
+    // unique index on active business unit codes.
+    LocationAggregate aggregate = warehouseRepository.lockLocationAggregate(warehouse.location);
+
+    // 2. Business Unit Code Verification - ensure it doesn't already exist
     Warehouse existing = warehouseRepository.findByBusinessUnitCode(warehouse.businessUnitCode);
     if (existing != null) {
-      throw new WarehouseValidationException(
-          "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
+      throw alreadyExists(warehouse);
     }
 
-    // 2. Location Validation - confirm the location is valid
+    // 3-5. Feasibility, capacity and stock validations against the location
+    validateAgainstLocation(warehouse, location, aggregate);
+
+    // All validations passed, create the warehouse
+    warehouseRepository.create(warehouse);
+  }
+
+  @Override
+  @WithSpan
+  public List<WarehouseCreationResult> createAll(List<Warehouse> warehouses) {
+    // Load everything the batch is validated against up front, one query per kind of fact, once
+    // the locations are reserved. Only locations that resolve are reserved, so unknown identifiers
+    // never get an aggregate row.
+    Map<String, LocationAggregate> aggregates =
+        warehouseRepository.lockLocationAggregates(
+            warehouses.stream()
+                .map(w -> w.location)
+                .filter(Objects::nonNull)
+                .filter(l -> locationResolver.resolveByIdentifier(l) != null)
+                .collect(Collectors.toSet()));
+    Set<String> existingCodes =
+        warehouseRepository.findActiveBusinessUnitCodes(
+            warehouses.stream()
+                .map(w -> w.businessUnitCode)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+    Set<String> acceptedCodes = new HashSet<>();
+    List<Warehouse> accepted = new ArrayList<>();
+    List<WarehouseCreationResult> results = new ArrayList<>(warehouses.size());
+    for (Warehouse warehouse : warehouses) {
+      try {
+        if (warehouse.businessUnitCode == null) {
+          throw new WarehouseValidationException("Business unit code is required");
+        }
+        if (existingCodes.contains(warehouse.businessUnitCode)) {
+          throw alreadyExists(warehouse);
+        }
+        if (acceptedCodes.contains(warehouse.businessUnitCode)) {
+          throw new WarehouseValidationException(
+              ErrorCode.WAREHOUSE_DUPLICATED_IN_BATCH,
+              "Warehouse with business unit code '"
+                  + warehouse.businessUnitCode
+                  + "' appears more than once in the batch");
+        }
+        Location location = resolveLocation(warehouse);
+        LocationAggregate aggregate =
+            aggregates.computeIfAbsent(warehouse.location, LocationAggregate::empty);
+        validateAgainstLocation(warehouse, location, aggregate);
+
+        // Accepted warehouses count towards the limits of the ones after them
+        aggregate.activeWarehouses++;
+        aggregate.totalCapacity += capacityOf(warehouse);
+        acceptedCodes.add(warehouse.businessUnitCode);
+        accepted.add(warehouse);
+        results.add(WarehouseCreationResult.created(warehouse));
+      } catch (WarehouseValidationException e) {
+        results.add(WarehouseCreationResult.rejected(warehouse, e.getMessage()));
+      }
+    }
+
+    warehouseRepository.createAll(accepted);
+    return results;
+  }
+
+  private Location resolveLocation(Warehouse warehouse) {
     Location location = locationResolver.resolveByIdentifier(warehouse.location);
     if (location == null) {
       throw new WarehouseValidationException(
-          "Location '" + warehouse.location + "' does not exist");
+          ErrorCode.LOCATION_NOT_FOUND, "Location '" + warehouse.location + "' does not exist");
     }
+    return location;
+  }
 
+  private void validateAgainstLocation(
+      Warehouse warehouse, Location location, LocationAggregate aggregate) {
     // 3. Warehouse Creation Feasibility - check max number of warehouses in location
-    long currentWarehouseCount =
-        warehouseRepository.countActiveWarehousesInLocation(warehouse.location);
-    if (currentWarehouseCount >= location.maxNumberOfWarehouses) {
+    if (aggregate.activeWarehouses >= location.maxNumberOfWarehouses) {
       throw new WarehouseValidationException(
+          ErrorCode.LOCATION_WAREHOUSE_LIMIT_REACHED,
           "Maximum number of warehouses ("
               + location.maxNumberOfWarehouses
               + ") reached for location '"
@@ -51,11 +138,11 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
     }
 
     // 4. Capacity Validation - ensure capacity doesn't exceed location max capacity
-    int currentTotalCapacity =
-        warehouseRepository.getTotalCapacityInLocation(warehouse.location);
-    int newCapacity = warehouse.capacity != null ? warehouse.capacity : 0;
+    long currentTotalCapacity = aggregate.totalCapacity;
+    int newCapacity = capacityOf(warehouse);
     if (currentTotalCapacity + newCapacity > location.maxCapacity) {
       throw new WarehouseValidationException(
+          ErrorCode.LOCATION_CAPACITY_EXCEEDED,
           "Adding warehouse with capacity "
               + newCapacity
               + " would exceed location max capacity of "
@@ -69,10 +156,18 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
     int stock = warehouse.stock != null ? warehouse.stock : 0;
     if (stock > newCapacity) {
       throw new WarehouseValidationException(
+          ErrorCode.STOCK_EXCEEDS_CAPACITY,
           "Stock (" + stock + ") cannot exceed warehouse capacity (" + newCapacity + ")");
     }
+  }
 
-    // All validations passed, create the warehouse
-    warehouseRepository.create(warehouse);
+  private static WarehouseValidationException alreadyExists(Warehouse warehouse) {
+    return new WarehouseValidationException(
+        ErrorCode.WAREHOUSE_ALREADY_EXISTS,
+        "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
+  }
+
+  private static int capacityOf(Warehouse warehouse) {
+    return warehouse.capacity != null ? warehouse.capacity : 0;
   }
 }
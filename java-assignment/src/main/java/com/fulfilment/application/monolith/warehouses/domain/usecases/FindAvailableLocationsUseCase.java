@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.errors.ErrorCode;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAvailability;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FindAvailableLocationsOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+@ApplicationScoped
+public class FindAvailableLocationsUseCase implements FindAvailableLocationsOperation {
+
+  static final int MAX_LIMIT = 1000;
+
+  private final WarehouseRepository warehouseRepository;
+  private final LocationResolver locationResolver;
+
+  @Inject
+  public FindAvailableLocationsUseCase(
+      WarehouseRepository warehouseRepository, LocationResolver locationResolver) {
+    this.warehouseRepository = warehouseRepository;
+    this.locationResolver = locationResolver;
+  }
+
+  /**
+   * Finds the locations nearest to a point that still have room for one more warehouse with at
+   * least {@code minCapacity}: fewer active warehouses than the location allows, and that much
+   * capacity left. Without {@code radiusKm} the {@code limit} nearest are returned; with it, the
+   * nearest {@code limit} within the radius. The result is a snapshot, not a reservation.
+   */
+  @Override
+  public List<LocationAvailability> findAvailable(
+      double latitude, double longitude, Double radiusKm, int limit, int minCapacity) {
+    if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+      throw new WarehouseValidationException(
+          ErrorCode.INVALID_LOCATION_SEARCH,
+          "Coordinates (" + latitude + ", " + longitude + ") are out of range");
+    }
+    if (radiusKm != null && !(radiusKm > 0)) {
+      throw new WarehouseValidationException(
+          ErrorCode.INVALID_LOCATION_SEARCH, "Radius must be positive");
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new WarehouseValidationException(
+          ErrorCode.INVALID_LOCATION_SEARCH, "Limit must be between 1 and " + MAX_LIMIT);
+    }
+    if (minCapacity < 0) {
+      throw new WarehouseValidationException(
+          ErrorCode.INVALID_LOCATION_SEARCH, "Minimum capacity cannot be negative");
+    }
+
+    // One query for all aggregates; locations without warehouses have none and are empty
+    Map<String, LocationAggregate> aggregates = warehouseRepository.getAllLocationAggregates();
+    Predicate<Location> hasRoom =
+        location -> {
+          LocationAggregate aggregate = aggregateOf(aggregates, location);
+          return aggregate.activeWarehouses < location.maxNumberOfWarehouses
+              && location.maxCapacity - aggregate.totalCapacity >= minCapacity;
+        };
+
+    List<NearbyLocation> nearby =
+        radiusKm == null
+            ? locationResolver.findNearest(latitude, longitude, limit, hasRoom)
+            : locationResolver.findWithinRadius(latitude, longitude, radiusKm, hasRoom);
+    return nearby.stream()
+        .limit(limit)
+        .map(
+            n -> {
+              LocationAggregate aggregate = aggregateOf(aggregates, n.location);
+              return new LocationAvailability(
+                  n.location,
+                  n.distanceKm,
+                  aggregate.activeWarehouses,
+                  n.location.maxCapacity - aggregate.totalCapacity);
+            })
+        .toList();
+  }
+
+  private static LocationAggregate aggregateOf(
+      Map<String, LocationAggregate> aggregates, Location location) {
+    LocationAggregate aggregate = aggregates.get(location.identification);
+    return aggregate != null ? aggregate : LocationAggregate.empty(location.identification);
+  }
+}
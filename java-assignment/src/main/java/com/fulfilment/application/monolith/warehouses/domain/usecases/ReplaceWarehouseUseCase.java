@@ -1,14 +1,21 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
@@ -24,29 +31,49 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
   }
 
   @Override
+  @WithSpan
   public void replace(Warehouse newWarehouse) {
     // 1. Find existing warehouse by business unit code
     Warehouse existingWarehouse =
         warehouseRepository.findByBusinessUnitCode(newWarehouse.businessUnitCode);
     if (existingWarehouse == null) {
-      throw new WarehouseValidationException(
-          "Warehouse with business unit code '"
-              + newWarehouse.businessUnitCode
-              + "' does not exist");
+      throw notFound(newWarehouse);
     }
 
     // 2. Location Validation - confirm the new location is valid
     Location location = locationResolver.resolveByIdentifier(newWarehouse.location);
     if (location == null) {
       throw new WarehouseValidationException(
-          "Location '" + newWarehouse.location + "' does not exist");
+          ErrorCode.LOCATION_NOT_FOUND, "Location '" + newWarehouse.location + "' does not exist");
+    }
+
+    // Both the old and the new location are reserved, since the replacement writes to the
+    // aggregates of both. The warehouse is then read again: a concurrent replace may have archived
+    // the row read above while this one waited for the reservation.
+    Map<String, LocationAggregate> aggregates =
+        new HashMap<>(
+            warehouseRepository.lockLocationAggregates(
+                new HashSet<>(List.of(existingWarehouse.location, newWarehouse.location))));
+    existingWarehouse = warehouseRepository.findActiveInDatabase(newWarehouse.businessUnitCode);
+    while (existingWarehouse != null && !aggregates.containsKey(existingWarehouse.location)) {
+      // It was moved to a location not reserved yet; reserve that one too and read it again. This
+      // lock is out of sorted order, so the database may abort a replace that deadlocks on it
+      aggregates.putAll(
+          warehouseRepository.lockLocationAggregates(List.of(existingWarehouse.location)));
+      existingWarehouse = warehouseRepository.findActiveInDatabase(newWarehouse.businessUnitCode);
+    }
+    if (existingWarehouse == null) {
+      throw notFound(newWarehouse);
     }
+    boolean sameLocation = existingWarehouse.location.equals(newWarehouse.location);
+    LocationAggregate aggregate = aggregates.get(newWarehouse.location);
 
     // 3. Capacity Accommodation - new warehouse capacity must accommodate old warehouse's stock
     int oldStock = existingWarehouse.stock != null ? existingWarehouse.stock : 0;
     int newCapacity = newWarehouse.capacity != null ? newWarehouse.capacity : 0;
     if (newCapacity < oldStock) {
       throw new WarehouseValidationException(
+          ErrorCode.CAPACITY_BELOW_STOCK,
           "New warehouse capacity ("
               + newCapacity
               + ") cannot accommodate the existing stock ("
@@ -58,6 +85,7 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
     int newStock = newWarehouse.stock != null ? newWarehouse.stock : 0;
     if (newStock != oldStock) {
       throw new WarehouseValidationException(
+          ErrorCode.STOCK_MISMATCH,
           "New warehouse stock ("
               + newStock
               + ") must match the existing warehouse stock ("
@@ -65,14 +93,24 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
               + ")");
     }
 
-    // 5. Capacity validation for location (accounting for removed old capacity)
-    int currentTotalCapacity =
-        warehouseRepository.getTotalCapacityInLocation(newWarehouse.location);
+    // 5. Feasibility - moving to another location adds a warehouse there
+    if (!sameLocation && aggregate.activeWarehouses >= location.maxNumberOfWarehouses) {
+      throw new WarehouseValidationException(
+          ErrorCode.LOCATION_WAREHOUSE_LIMIT_REACHED,
+          "Maximum number of warehouses ("
+              + location.maxNumberOfWarehouses
+              + ") reached for location '"
+              + newWarehouse.location
+              + "'");
+    }
+
+    // 6. Capacity validation for location (accounting for removed old capacity)
+    long currentTotalCapacity = aggregate.totalCapacity;
     int oldCapacity = existingWarehouse.capacity != null ? existingWarehouse.capacity : 0;
 
     // If same location, subtract old capacity; otherwise just check new location
-    int effectiveCurrentCapacity;
-    if (existingWarehouse.location.equals(newWarehouse.location)) {
+    long effectiveCurrentCapacity;
+    if (sameLocation) {
       effectiveCurrentCapacity = currentTotalCapacity - oldCapacity;
     } else {
       effectiveCurrentCapacity = currentTotalCapacity;
@@ -80,6 +118,7 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
     if (effectiveCurrentCapacity + newCapacity > location.maxCapacity) {
       throw new WarehouseValidationException(
+          ErrorCode.LOCATION_CAPACITY_EXCEEDED,
           "New warehouse capacity would exceed location max capacity of " + location.maxCapacity);
     }
 
@@ -91,4 +130,10 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
     // Create the new warehouse with the same business unit code
     warehouseRepository.create(newWarehouse);
   }
+
+  private static WarehouseValidationException notFound(Warehouse warehouse) {
+    return new WarehouseValidationException(
+        ErrorCode.WAREHOUSE_NOT_FOUND,
+        "Warehouse with business unit code '" + warehouse.businessUnitCode + "' does not exist");
+  }
 }
@@ -0,0 +1,49 @@
+-- Schema previously generated by Hibernate (drop-and-create); from now on changed only via migrations.
+
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE store_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE warehouse_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE fulfillment_association_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE product (
+    id BIGINT NOT NULL,
+    name VARCHAR(40) UNIQUE,
+    description VARCHAR(255),
+    price NUMERIC(10, 2),
+    stock INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE store (
+    id BIGINT NOT NULL,
+    name VARCHAR(40) UNIQUE,
+    quantityProductsInStock INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE warehouse (
+    id BIGINT NOT NULL,
+    businessUnitCode VARCHAR(255),
+    location VARCHAR(255),
+    capacity INTEGER,
+    stock INTEGER,
+    createdAt TIMESTAMP(6),
+    archivedAt TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE warehouse_location_aggregate (
+    location VARCHAR(255) NOT NULL,
+    activeWarehouses BIGINT NOT NULL,
+    totalCapacity BIGINT NOT NULL,
+    PRIMARY KEY (location)
+);
+
+CREATE TABLE fulfillment_association (
+    id BIGINT NOT NULL,
+    productId BIGINT,
+    warehouseCode VARCHAR(255),
+    storeId BIGINT,
+    PRIMARY KEY (id),
+    UNIQUE (productId, warehouseCode, storeId)
+);
@@ -0,0 +1,13 @@
+-- Composite indexes matching the predicates of WarehouseRepository and FulfillmentRepository.
+-- Index names are checked at startup by SchemaIndexVerifier.
+
+-- remove() deletes by business unit code regardless of archivedAt
+CREATE INDEX warehouse_bu_code_archived_idx ON warehouse (businessUnitCode, archivedAt);
+-- active warehouses per location (aggregate rebuild)
+CREATE INDEX warehouse_location_archived_idx ON warehouse (location, archivedAt);
+
+-- (productId, warehouseCode, storeId) is already covered by the unique constraint;
+-- these cover the remaining prefixes used by the constraint and lookup queries.
+CREATE INDEX fulfillment_product_store_idx ON fulfillment_association (productId, storeId);
+CREATE INDEX fulfillment_store_warehouse_idx ON fulfillment_association (storeId, warehouseCode);
+CREATE INDEX fulfillment_warehouse_product_idx ON fulfillment_association (warehouseCode, productId);
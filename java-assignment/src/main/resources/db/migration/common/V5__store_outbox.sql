@@ -0,0 +1,20 @@
+-- Store events waiting to be delivered to the legacy store manager, written in the same
+-- transaction as the store change itself.
+
+CREATE SEQUENCE store_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE store_outbox (
+    id BIGINT NOT NULL,
+    storeId BIGINT NOT NULL,
+    eventType VARCHAR(20) NOT NULL,
+    storeName VARCHAR(40),
+    quantityProductsInStock INTEGER NOT NULL,
+    createdAt TIMESTAMP(6) NOT NULL,
+    attempts INTEGER NOT NULL,
+    nextAttemptAt TIMESTAMP(6) NOT NULL,
+    lastError VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX store_outbox_next_attempt_idx ON store_outbox (nextAttemptAt, id);
+CREATE INDEX store_outbox_store_idx ON store_outbox (storeId, id);
@@ -0,0 +1,5 @@
+-- Partial indexes over active rows only: lookups, pagination and counts all filter on archivedAt IS NULL,
+-- and archived rows accumulate with every replacement.
+
+CREATE INDEX warehouse_active_bu_code_idx ON warehouse (businessUnitCode) WHERE archivedAt IS NULL;
+CREATE INDEX warehouse_active_location_idx ON warehouse (location) INCLUDE (capacity) WHERE archivedAt IS NULL;
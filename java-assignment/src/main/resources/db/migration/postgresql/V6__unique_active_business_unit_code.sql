@@ -0,0 +1,5 @@
+-- At most one active warehouse per business unit code. The use cases check this under the location
+-- reservation, but concurrent creates of one code in different locations only meet here.
+
+DROP INDEX warehouse_active_bu_code_idx;
+CREATE UNIQUE INDEX warehouse_active_bu_code_idx ON warehouse (businessUnitCode) WHERE archivedAt IS NULL;
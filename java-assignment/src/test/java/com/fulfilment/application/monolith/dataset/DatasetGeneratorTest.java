@@ -0,0 +1,220 @@
+package com.fulfilment.application.monolith.dataset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.fulfillment.FulfillmentService;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DatasetGeneratorTest {
+
+  private static final List<Location> LOCATIONS = SyntheticLocations.generate(200, 7);
+
+  @Test
+  void shouldRespectLocationLimits() {
+    // given
+    DatasetSpec spec = spec(1);
+
+    // when
+    Rows rows = generate(spec);
+
+    // then
+    Map<String, Integer> warehouses = new HashMap<>();
+    Map<String, Long> capacity = new HashMap<>();
+    for (Object[] row : rows.warehouses) {
+      int stock = (Integer) row[4];
+      assertTrue(stock >= 0 && stock <= (Integer) row[3], "stock within capacity");
+      if (row[6] == null) {
+        warehouses.merge((String) row[2], 1, Integer::sum);
+        capacity.merge((String) row[2], (long) (Integer) row[3], Long::sum);
+      }
+    }
+    for (Location location : LOCATIONS) {
+      String id = location.identification;
+      assertTrue(warehouses.getOrDefault(id, 0) <= location.maxNumberOfWarehouses);
+      assertTrue(capacity.getOrDefault(id, 0L) <= location.maxCapacity);
+    }
+    assertEquals(500, warehouses.values().stream().mapToInt(Integer::intValue).sum());
+  }
+
+  @Test
+  void shouldKeepOneActiveRowPerBusinessUnitCode() {
+    // when
+    Rows rows = generate(spec(1));
+
+    // then
+    Set<String> active = new HashSet<>();
+    for (Object[] row : rows.warehouses) {
+      if (row[6] == null) {
+        assertTrue(active.add((String) row[1]), "duplicate active " + row[1]);
+      } else {
+        assertTrue(((LocalDateTime) row[6]).isAfter((LocalDateTime) row[5]));
+      }
+    }
+    assertTrue(rows.warehouses.size() > active.size(), "archived versions generated");
+  }
+
+  @Test
+  void shouldRespectFulfillmentRules() {
+    // when
+    Rows rows = generate(spec(1.2));
+
+    // then
+    Set<String> triples = new HashSet<>();
+    Map<Long, Set<String>> warehousesPerStore = new HashMap<>();
+    Map<String, Set<String>> warehousesPerProductAndStore = new HashMap<>();
+    Map<String, Set<Long>> productsPerWarehouse = new HashMap<>();
+    for (Object[] row : rows.associations) {
+      long productId = (Long) row[1];
+      String warehouse = (String) row[2];
+      long storeId = (Long) row[3];
+      assertTrue(productId >= 1 && productId <= 1000);
+      assertTrue(storeId >= 1 && storeId <= 2000);
+      assertTrue(triples.add(productId + "/" + warehouse + "/" + storeId), "duplicate");
+      warehousesPerStore.computeIfAbsent(storeId, k -> new HashSet<>()).add(warehouse);
+      warehousesPerProductAndStore
+          .computeIfAbsent(productId + "/" + storeId, k -> new HashSet<>())
+          .add(warehouse);
+      productsPerWarehouse.computeIfAbsent(warehouse, k -> new HashSet<>()).add(productId);
+    }
+    assertFalse(triples.isEmpty());
+    assertTrue(
+        warehousesPerStore.values().stream()
+            .allMatch(s -> s.size() <= FulfillmentService.MAX_WAREHOUSES_PER_STORE));
+    assertTrue(
+        warehousesPerProductAndStore.values().stream()
+            .allMatch(s -> s.size() <= FulfillmentService.MAX_WAREHOUSES_PER_PRODUCT_PER_STORE));
+    assertTrue(
+        productsPerWarehouse.values().stream()
+            .allMatch(s -> s.size() <= FulfillmentService.MAX_PRODUCTS_PER_WAREHOUSE));
+  }
+
+  @Test
+  void shouldGenerateTheSameRowsForTheSameSeed() {
+    // when
+    Rows first = generate(spec(1));
+    Rows second = generate(spec(1));
+    DatasetSpec otherSeed = spec(1);
+    otherSeed.seed = 43;
+    Rows third = generate(otherSeed);
+
+    // then
+    assertEquals(first.toString(), second.toString());
+    assertNotEquals(first.toString(), third.toString());
+  }
+
+  @Test
+  void shouldConcentrateAssociationsOnHotProductsWhenSkewed() {
+    // when
+    long skewed = associationsOfProduct(generate(spec(1.5)), 1);
+    long uniform = associationsOfProduct(generate(spec(0)), 1);
+
+    // then
+    assertTrue(skewed > 5 * uniform, skewed + " vs " + uniform);
+  }
+
+  @Test
+  void shouldCreateFewerWarehousesWhenTheLocationsAreFull() {
+    // given
+    DatasetSpec spec = spec(1);
+    spec.warehouses = 1_000_000;
+    int capacity = LOCATIONS.stream().mapToInt(l -> l.maxNumberOfWarehouses).sum();
+
+    // when
+    DatasetGenerator.Summary summary =
+        new DatasetGenerator(spec, LOCATIONS).generate(new Rows());
+
+    // then
+    assertEquals(capacity, summary.warehouses());
+  }
+
+  @Test
+  void shouldRejectInvalidSpec() {
+    // given
+    DatasetSpec spec = spec(1);
+    spec.warehousesPerStore = FulfillmentService.MAX_WAREHOUSES_PER_STORE + 1;
+
+    // when / then
+    assertThrows(IllegalArgumentException.class, () -> new DatasetGenerator(spec, LOCATIONS));
+  }
+
+  private static DatasetSpec spec(double skew) {
+    DatasetSpec spec = new DatasetSpec();
+    spec.stores = 2000;
+    spec.products = 1000;
+    spec.warehouses = 500;
+    spec.skew = skew;
+    return spec;
+  }
+
+  private static Rows generate(DatasetSpec spec) {
+    Rows rows = new Rows();
+    new DatasetGenerator(spec, LOCATIONS).generate(rows);
+    assertTrue(rows.finished);
+    return rows;
+  }
+
+  private static long associationsOfProduct(Rows rows, long productId) {
+    return rows.associations.stream().filter(row -> (Long) row[1] == productId).count();
+  }
+
+  private static final class Rows implements DatasetSink {
+
+    final List<Object[]> stores = new ArrayList<>();
+    final List<Object[]> products = new ArrayList<>();
+    final List<Object[]> warehouses = new ArrayList<>();
+    final List<Object[]> associations = new ArrayList<>();
+    boolean finished;
+
+    @Override
+    public void store(long id, String name, int quantityProductsInStock) {
+      stores.add(new Object[] {id, name, quantityProductsInStock});
+    }
+
+    @Override
+    public void product(long id, String name, String description, BigDecimal price, int stock) {
+      products.add(new Object[] {id, name, description, price, stock});
+    }
+
+    @Override
+    public void warehouse(
+        long id,
+        String businessUnitCode,
+        String location,
+        int capacity,
+        int stock,
+        LocalDateTime createdAt,
+        LocalDateTime archivedAt) {
+      warehouses.add(
+          new Object[] {id, businessUnitCode, location, capacity, stock, createdAt, archivedAt});
+    }
+
+    @Override
+    public void association(long id, long productId, String warehouseCode, long storeId) {
+      associations.add(new Object[] {id, productId, warehouseCode, storeId});
+    }
+
+    @Override
+    public void finish() {
+      finished = true;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder text = new StringBuilder();
+      for (List<Object[]> table : List.of(stores, products, warehouses, associations)) {
+        table.forEach(row -> text.append(Arrays.toString(row)).append('\n'));
+      }
+      return text.toString();
+    }
+  }
+}
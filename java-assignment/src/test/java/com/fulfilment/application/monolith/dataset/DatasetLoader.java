@@ -0,0 +1,278 @@
+package com.fulfilment.application.monolith.dataset;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Writes a generated dataset into a database migrated by the application's Flyway scripts. On
+ * PostgreSQL every table is streamed with one {@code COPY ... FROM STDIN}; on other databases (H2
+ * in tests and benchmarks) rows go through batched inserts, committed every {@value
+ * #COMMIT_INTERVAL} rows so the transaction stays bounded.
+ *
+ * <p>{@link #clear()} empties the tables first. After the last row the location aggregates are
+ * rebuilt and the id sequences restarted past the loaded ids, so the application can add rows on
+ * top of the dataset. A running application keeps its in-memory indexes of the previous content
+ * and has to be restarted, or its indexes reloaded, before it serves the new data.
+ *
+ * <p>Lives with the tests, and reaches the benchmarks module through the test jar, so the
+ * application artifact never ships a way to truncate its tables.
+ */
+public class DatasetLoader implements DatasetSink {
+
+  private static final Logger LOGGER = Logger.getLogger(DatasetLoader.class.getName());
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int COMMIT_INTERVAL = 100_000;
+  private static final int COPY_BUFFER_SIZE = 1 << 16;
+  // Hibernate allocates ids in blocks of the sequences' increment
+  private static final int SEQUENCE_INCREMENT = 50;
+
+  private enum Table {
+    STORE("store", "id, name, quantityProductsInStock", "store_seq"),
+    PRODUCT("product", "id, name, description, price, stock", "product_seq"),
+    WAREHOUSE(
+        "warehouse",
+        "id, businessUnitCode, location, capacity, stock, createdAt, archivedAt",
+        "warehouse_seq"),
+    ASSOCIATION(
+        "fulfillment_association",
+        "id, productId, warehouseCode, storeId",
+        "fulfillment_association_seq");
+
+    final String name;
+    final String columns;
+    final String sequence;
+
+    Table(String name, String columns, String sequence) {
+      this.name = name;
+      this.columns = columns;
+      this.sequence = sequence;
+    }
+  }
+
+  private final Connection connection;
+  private final PGConnection postgres;
+  private Table table;
+  private RowWriter writer;
+  private long rows;
+
+  public DatasetLoader(Connection connection) throws SQLException {
+    this.connection = connection;
+    this.postgres =
+        connection.isWrapperFor(PGConnection.class) ? connection.unwrap(PGConnection.class) : null;
+    connection.setAutoCommit(false);
+  }
+
+  /** Whether rows are streamed with {@code COPY} rather than inserted in batches. */
+  public boolean usesCopy() {
+    return postgres != null;
+  }
+
+  /** Deletes all stores, products, warehouses, associations and pending store events. */
+  public void clear() {
+    try (Statement statement = connection.createStatement()) {
+      for (String name :
+          List.of(
+              "fulfillment_association",
+              "warehouse",
+              "warehouse_location_aggregate",
+              "store_outbox",
+              "store",
+              "product")) {
+        statement.execute("TRUNCATE TABLE " + name);
+      }
+      connection.commit();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  @Override
+  public void store(long id, String name, int quantityProductsInStock) {
+    row(Table.STORE, id, name, quantityProductsInStock);
+  }
+
+  @Override
+  public void product(long id, String name, String description, BigDecimal price, int stock) {
+    row(Table.PRODUCT, id, name, description, price, stock);
+  }
+
+  @Override
+  public void warehouse(
+      long id,
+      String businessUnitCode,
+      String location,
+      int capacity,
+      int stock,
+      LocalDateTime createdAt,
+      LocalDateTime archivedAt) {
+    row(Table.WAREHOUSE, id, businessUnitCode, location, capacity, stock, createdAt, archivedAt);
+  }
+
+  @Override
+  public void association(long id, long productId, String warehouseCode, long storeId) {
+    row(Table.ASSOCIATION, id, productId, warehouseCode, storeId);
+  }
+
+  @Override
+  public void finish() {
+    try {
+      switchTo(null);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("DELETE FROM warehouse_location_aggregate");
+        statement.execute(
+            "INSERT INTO warehouse_location_aggregate (location, activeWarehouses, totalCapacity)"
+                + " SELECT location, count(*), coalesce(sum(capacity), 0) FROM warehouse"
+                + " WHERE archivedAt IS NULL GROUP BY location");
+        for (Table each : Table.values()) {
+          long next;
+          try (ResultSet result =
+              statement.executeQuery("SELECT coalesce(max(id), 0) FROM " + each.name)) {
+            result.next();
+            next = result.getLong(1) + SEQUENCE_INCREMENT;
+          }
+          statement.execute("ALTER SEQUENCE " + each.sequence + " RESTART WITH " + next);
+        }
+      }
+      connection.commit();
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  private void row(Table target, Object... values) {
+    try {
+      if (target != table) {
+        switchTo(target);
+      }
+      writer.write(values);
+      if (++rows % COMMIT_INTERVAL == 0 && postgres == null) {
+        connection.commit();
+      }
+    } catch (SQLException e) {
+      throw failure(e);
+    }
+  }
+
+  private void switchTo(Table next) throws SQLException {
+    if (writer != null) {
+      writer.close();
+      connection.commit();
+      LOGGER.infof("Loaded %d rows into %s", rows, table.name);
+    }
+    table = next;
+    rows = 0;
+    writer = next == null ? null : postgres != null ? new CopyWriter(next) : new BatchWriter(next);
+  }
+
+  private static IllegalStateException failure(SQLException e) {
+    return new IllegalStateException("Loading the dataset failed", e);
+  }
+
+  private interface RowWriter {
+
+    void write(Object[] values) throws SQLException;
+
+    void close() throws SQLException;
+  }
+
+  /** Rows as CSV through {@code COPY}; an unquoted empty field is NULL. */
+  private final class CopyWriter implements RowWriter {
+
+    private final CopyIn copy;
+    private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+
+    CopyWriter(Table table) throws SQLException {
+      copy =
+          postgres
+              .getCopyAPI()
+              .copyIn(
+                  "COPY " + table.name + " (" + table.columns + ") FROM STDIN WITH (FORMAT csv)");
+    }
+
+    @Override
+    public void write(Object[] values) throws SQLException {
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          buffer.append(',');
+        }
+        Object value = values[i];
+        if (value instanceof String text) {
+          buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else if (value instanceof BigDecimal decimal) {
+          buffer.append(decimal.toPlainString());
+        } else if (value != null) {
+          buffer.append(value);
+        }
+      }
+      buffer.append('\n');
+      if (buffer.length() >= COPY_BUFFER_SIZE) {
+        flush();
+      }
+    }
+
+    @Override
+    public void close() throws SQLException {
+      flush();
+      copy.endCopy();
+    }
+
+    private void flush() throws SQLException {
+      byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+      copy.writeToCopy(bytes, 0, bytes.length);
+      buffer.setLength(0);
+    }
+  }
+
+  private final class BatchWriter implements RowWriter {
+
+    private final PreparedStatement statement;
+    private int pending;
+
+    BatchWriter(Table table) throws SQLException {
+      int columns = table.columns.split(",").length;
+      statement =
+          connection.prepareStatement(
+              "INSERT INTO "
+                  + table.name
+                  + " ("
+                  + table.columns
+                  + ") VALUES (?"
+                  + ", ?".repeat(columns - 1)
+                  + ")");
+    }
+
+    @Override
+    public void write(Object[] values) throws SQLException {
+      for (int i = 0; i < values.length; i++) {
+        Object value = values[i];
+        statement.setObject(
+            i + 1, value instanceof LocalDateTime time ? Timestamp.valueOf(time) : value);
+      }
+      statement.addBatch();
+      if (++pending == BATCH_SIZE) {
+        statement.executeBatch();
+        pending = 0;
+      }
+    }
+
+    @Override
+    public void close() throws SQLException {
+      if (pending > 0) {
+        statement.executeBatch();
+      }
+      statement.close();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.dataset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+/** Loads into a database of its own, so the seed data of the application tests stays intact. */
+class DatasetLoaderTest {
+
+  @Test
+  void shouldBulkLoadGeneratedRowsIntoMigratedSchema() throws Exception {
+    // given
+    String url = "jdbc:h2:mem:dataset-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    Flyway.configure()
+        .dataSource(url, "sa", "")
+        .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+        .load()
+        .migrate();
+    DatasetSpec spec = new DatasetSpec();
+    spec.stores = 3000;
+    spec.products = 500;
+    spec.warehouses = 300;
+
+    try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+      DatasetLoader loader = new DatasetLoader(connection);
+
+      // when
+      loader.clear();
+      DatasetGenerator.Summary summary =
+          new DatasetGenerator(spec, SyntheticLocations.generate(100, 1)).generate(loader);
+
+      // then
+      assertFalse(loader.usesCopy());
+      assertEquals(3000, count(connection, "SELECT count(*) FROM store"));
+      assertEquals(500, count(connection, "SELECT count(*) FROM product"));
+      assertEquals(
+          summary.warehouses(),
+          count(connection, "SELECT count(*) FROM warehouse WHERE archivedAt IS NULL"));
+      assertEquals(
+          summary.warehouses() + summary.archivedWarehouses(),
+          count(connection, "SELECT count(*) FROM warehouse"));
+      assertEquals(
+          summary.associations(),
+          count(connection, "SELECT count(*) FROM fulfillment_association"));
+      assertEquals(
+          summary.warehouses(),
+          count(connection, "SELECT sum(activeWarehouses) FROM warehouse_location_aggregate"));
+      assertEquals(0, count(connection, "SELECT count(*) FROM store WHERE name = 'TONSTAD'"));
+      // The next pooled block starts above every loaded id
+      assertTrue(
+          count(connection, "SELECT NEXT VALUE FOR store_seq")
+              > count(connection, "SELECT max(id) FROM store"));
+    }
+  }
+
+  private static long count(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(sql)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+}
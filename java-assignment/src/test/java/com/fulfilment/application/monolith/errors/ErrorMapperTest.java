@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.errors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.fulfillment.FulfillmentValidationException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+class ErrorMapperTest {
+
+  private final ErrorMapper mapper = new ErrorMapper();
+  private final ObjectMapper json = new ObjectMapper();
+
+  @Test
+  void shouldReportDomainExceptionsWithTheirCodeAndStatus() throws Exception {
+    // when
+    Response response =
+        mapper.toResponse(
+            new FulfillmentValidationException(
+                ErrorCode.ASSOCIATION_NOT_FOUND, "Association \"7\" not found"));
+
+    // then
+    assertEquals(404, response.getStatus());
+    JsonNode body = json.readTree((byte[]) response.getEntity());
+    assertEquals(
+        FulfillmentValidationException.class.getName(), body.get("exceptionType").asText());
+    assertEquals(404, body.get("code").asInt());
+    assertEquals("ASSOCIATION_NOT_FOUND", body.get("errorCode").asText());
+    assertEquals("Association \"7\" not found", body.get("error").asText());
+  }
+
+  @Test
+  void shouldKeepTheStatusOfWebApplicationExceptions() throws Exception {
+    // when
+    Response response =
+        mapper.toResponse(new WebApplicationException("Page size", Response.Status.BAD_REQUEST));
+
+    // then
+    assertEquals(400, response.getStatus());
+    JsonNode body = json.readTree((byte[]) response.getEntity());
+    assertEquals(400, body.get("code").asInt());
+    assertFalse(body.has("errorCode"));
+    assertEquals("Page size", body.get("error").asText());
+  }
+
+  @Test
+  void shouldReportOtherExceptionsAsServerErrors() throws Exception {
+    // when
+    Response first = mapper.toResponse(new IllegalStateException());
+    Response second = mapper.toResponse(new IllegalStateException("broken"));
+
+    // then - the cached prefix is reused with and without a message
+    assertEquals(500, first.getStatus());
+    assertFalse(json.readTree((byte[]) first.getEntity()).has("error"));
+    assertEquals("broken", json.readTree((byte[]) second.getEntity()).get("error").asText());
+  }
+}
@@ -0,0 +1,246 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FulfillmentGraphTest {
+
+  @Mock private TransactionSynchronizationRegistry transactionRegistry;
+
+  private FulfillmentGraph graph;
+
+  @BeforeEach
+  void setUp() {
+    graph = new FulfillmentGraph(transactionRegistry);
+  }
+
+  @Test
+  void shouldCountDegreesBehindTheRules() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    graph.add(association(1, 10L, "MWH.001", 100L));
+    graph.add(association(2, 10L, "MWH.002", 100L));
+    graph.add(association(3, 11L, "MWH.001", 100L));
+    graph.add(association(4, 12L, "MWH.001", 200L));
+
+    // when
+    FulfillmentConstraintFacts facts = graph.evaluate(10L, "MWH.001", 100L, true, true, true);
+
+    // then
+    assertTrue(facts.associationExists);
+    assertEquals(2, facts.warehousesForProductInStore);
+    assertTrue(facts.warehouseAlreadyAssociatedWithStore);
+    assertEquals(2, facts.distinctWarehousesForStore);
+    assertTrue(facts.productAlreadyInWarehouse);
+    assertEquals(3, facts.distinctProductsInWarehouse);
+    assertEquals(4, graph.size());
+  }
+
+  @Test
+  void shouldReportNothingForUnknownIds() {
+    // when
+    FulfillmentConstraintFacts facts = graph.evaluate(1L, "MWH.X", 2L, false, false, false);
+
+    // then
+    assertFalse(facts.associationExists);
+    assertEquals(0, facts.warehousesForProductInStore);
+    assertEquals(0, facts.distinctWarehousesForStore);
+    assertEquals(0, facts.distinctProductsInWarehouse);
+  }
+
+  @Test
+  void shouldCountInFlightAssociationsButOnlyListThemAfterCommit() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(new Object());
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+
+    // when
+    graph.add(association(1, 10L, "MWH.001", 100L));
+
+    // then - other transactions are limited by it, but cannot see it yet
+    ArgumentCaptor<Synchronization> synchronization =
+        ArgumentCaptor.forClass(Synchronization.class);
+    verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    assertTrue(graph.evaluate(10L, "MWH.001", 100L, true, true, true).associationExists);
+    assertTrue(graph.findByProduct(10L).isEmpty());
+
+    // when
+    synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+    // then
+    assertEquals(1, graph.findByProduct(10L).size());
+    assertEquals("MWH.001", graph.findByStore(100L).get(0).warehouseCode);
+  }
+
+  @Test
+  void shouldFreeTheSlotOfARolledBackAssociation() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(new Object());
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+    graph.add(association(1, 10L, "MWH.001", 100L));
+    ArgumentCaptor<Synchronization> synchronization =
+        ArgumentCaptor.forClass(Synchronization.class);
+    verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+
+    // when
+    synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+    // then
+    FulfillmentConstraintFacts facts = graph.evaluate(10L, "MWH.001", 100L, true, true, true);
+    assertFalse(facts.associationExists);
+    assertEquals(0, facts.distinctWarehousesForStore);
+    assertEquals(0, facts.distinctProductsInWarehouse);
+  }
+
+  @Test
+  void shouldKeepDistinctCountsWhileOtherAssociationsRemain() {
+    // given - the warehouse serves the store with two products
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    FulfillmentAssociation first = association(1, 10L, "MWH.001", 100L);
+    graph.add(first);
+    graph.add(association(2, 11L, "MWH.001", 100L));
+    graph.add(association(3, 10L, "MWH.001", 200L));
+
+    // when
+    graph.remove(first);
+
+    // then
+    FulfillmentConstraintFacts facts = graph.evaluate(10L, "MWH.001", 100L, true, true, true);
+    assertFalse(facts.associationExists);
+    assertTrue(facts.warehouseAlreadyAssociatedWithStore);
+    assertTrue(facts.productAlreadyInWarehouse);
+    assertEquals(2, facts.distinctProductsInWarehouse);
+    assertEquals(List.of(3L), graph.findByProduct(10L).stream().map(a -> a.id).toList());
+  }
+
+  @Test
+  void shouldOnlyFreeTheSlotOfARemovalOnCommit() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    FulfillmentAssociation association = association(1, 10L, "MWH.001", 100L);
+    graph.add(association);
+    when(transactionRegistry.getTransactionKey()).thenReturn(new Object());
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+
+    // when
+    graph.remove(association);
+
+    // then
+    ArgumentCaptor<Synchronization> synchronization =
+        ArgumentCaptor.forClass(Synchronization.class);
+    verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+    assertTrue(graph.evaluate(10L, "MWH.001", 100L, true, true, true).associationExists);
+
+    // when
+    synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+    // then
+    assertFalse(graph.evaluate(10L, "MWH.001", 100L, true, true, true).associationExists);
+    assertEquals(0, graph.size());
+  }
+
+  @Test
+  void shouldSeeOwnChangesInsideTransaction() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(new Object());
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+    graph.add(association(1, 10L, "MWH.001", 100L));
+    ArgumentCaptor<Object> pending = ArgumentCaptor.forClass(Object.class);
+    verify(transactionRegistry).putResource(any(), pending.capture());
+
+    // when
+    when(transactionRegistry.getResource(any())).thenReturn(pending.getValue());
+
+    // then
+    assertEquals(1, graph.findByWarehouse("MWH.001").size());
+  }
+
+  @Test
+  void shouldReloadWholeGraph() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    graph.add(association(1, 10L, "MWH.OLD", 100L));
+
+    // when
+    graph.reload(List.of(association(2, 20L, "MWH.NEW", 200L)));
+
+    // then
+    assertTrue(graph.findByProduct(10L).isEmpty());
+    assertFalse(graph.evaluate(10L, "MWH.OLD", 100L, true, true, true).associationExists);
+    assertEquals(1, graph.findByStore(200L).size());
+  }
+
+  @Test
+  void shouldCombineFiltersAndPageById() {
+    // given - added out of id order
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    graph.add(association(5, 10L, "MWH.001", 100L));
+    graph.add(association(1, 10L, "MWH.001", 100L));
+    graph.add(association(3, 10L, "MWH.002", 100L));
+    graph.add(association(4, 11L, "MWH.001", 100L));
+    graph.add(association(2, 10L, "MWH.001", 200L));
+    graph.add(association(6, 10L, "MWH.001", 100L));
+
+    // when
+    List<Long> firstPage = ids(graph.find(10L, "MWH.001", 100L, null, 2));
+    List<Long> secondPage = ids(graph.find(10L, "MWH.001", 100L, 1L, 2));
+    List<Long> all = ids(graph.find(null, null, null, 2L, 10));
+
+    // then
+    assertEquals(List.of(1L, 5L), firstPage);
+    assertEquals(List.of(5L, 6L), secondPage);
+    assertEquals(List.of(3L, 4L, 5L, 6L), all);
+    assertEquals(3, graph.count(10L, "MWH.001", 100L));
+    assertEquals(5, graph.count(10L, null, null));
+    assertEquals(6, graph.count(null, null, null));
+    assertEquals(0, graph.count(10L, "MWH.UNKNOWN", null));
+    assertTrue(graph.find(99L, null, null, null, 10).isEmpty());
+  }
+
+  @Test
+  void shouldPageOverOwnChangesInsideTransaction() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    FulfillmentAssociation removed = association(1, 10L, "MWH.001", 100L);
+    graph.add(removed);
+    graph.add(association(3, 10L, "MWH.001", 100L));
+    when(transactionRegistry.getTransactionKey()).thenReturn(new Object());
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+    graph.add(association(2, 10L, "MWH.001", 100L));
+    ArgumentCaptor<Object> pending = ArgumentCaptor.forClass(Object.class);
+    verify(transactionRegistry).putResource(any(), pending.capture());
+    when(transactionRegistry.getResource(any())).thenReturn(pending.getValue());
+    graph.remove(removed);
+
+    // then
+    assertEquals(List.of(2L), ids(graph.find(10L, "MWH.001", null, null, 1)));
+    assertEquals(List.of(3L), ids(graph.find(10L, "MWH.001", null, 2L, 1)));
+    assertEquals(2, graph.count(10L, null, 100L));
+  }
+
+  private List<Long> ids(List<FulfillmentAssociation> associations) {
+    return associations.stream().map(a -> a.id).toList();
+  }
+
+  private FulfillmentAssociation association(
+      long id, Long productId, String warehouseCode, Long storeId) {
+    FulfillmentAssociation association =
+        new FulfillmentAssociation(productId, warehouseCode, storeId);
+    association.id = id;
+    return association;
+  }
+}
@@ -0,0 +1,79 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class FulfillmentLocksTest {
+
+  @Test
+  void shouldSerializeCallersSharingAStore() throws Exception {
+    // given
+    FulfillmentLocks locks = new FulfillmentLocks(FulfillmentLocks.DEFAULT_STRIPES);
+    CountDownLatch acquired = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      FulfillmentLocks.Held held = locks.lock(List.of(1L), List.of("MWH.001"));
+
+      // when
+      Future<?> other =
+          executor.submit(
+              () -> {
+                try (FulfillmentLocks.Held h = locks.lock(List.of(1L), List.of("MWH.002"))) {
+                  acquired.countDown();
+                }
+              });
+
+      // then - blocked until the first caller lets go
+      assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+      held.close();
+      other.get(5, TimeUnit.SECONDS);
+      assertEquals(0, acquired.getCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldNotDeadlockOnOverlappingKeySets() throws Exception {
+    // given
+    FulfillmentLocks locks = new FulfillmentLocks(8);
+    AtomicInteger inside = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        Random random = new Random(t);
+        workers.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 2000; i++) {
+                    List<Long> stores =
+                        List.of((long) random.nextInt(20), (long) random.nextInt(20));
+                    List<String> warehouses = List.of("MWH." + random.nextInt(20));
+                    try (FulfillmentLocks.Held held = locks.lock(stores, warehouses)) {
+                      inside.incrementAndGet();
+                    }
+                  }
+                }));
+      }
+
+      // when / then
+      for (Future<?> worker : workers) {
+        worker.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(16000, inside.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
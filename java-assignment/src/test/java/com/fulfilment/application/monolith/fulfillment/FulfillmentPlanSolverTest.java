@@ -0,0 +1,207 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class FulfillmentPlanSolverTest {
+
+  @Test
+  void shouldReuseWarehousesThatAlreadyHoldTheProducts() {
+    // given - MWH.002 already holds both products for another store
+    Map<String, Integer> capacities = Map.of("MWH.001", 100, "MWH.002", 10, "MWH.003", 100);
+    List<FulfillmentAssociation> existing =
+        List.of(association(1L, "MWH.002", 900L), association(2L, "MWH.002", 900L));
+
+    // when
+    FulfillmentPlan plan =
+        new FulfillmentPlanSolver(capacities, existing, FulfillmentPlanObjective.MIN_WAREHOUSES)
+            .solve(List.of(new StoreDemand(100L, List.of(2L, 1L))), List.of(), 1000, Runnable::run);
+
+    // then
+    assertEquals(2, plan.associations.size());
+    assertTrue(plan.associations.stream().allMatch(a -> "MWH.002".equals(a.warehouseCode)));
+    assertTrue(plan.unassigned.isEmpty());
+    assertFalse(plan.timedOut);
+  }
+
+  @Test
+  void shouldTradeWarehouseCountForLoadWhenBalancing() {
+    // given - the store already uses the small MWH.001
+    Map<String, Integer> capacities = Map.of("MWH.001", 10, "MWH.002", 100);
+    List<FulfillmentAssociation> existing = List.of(association(1L, "MWH.001", 100L));
+    List<StoreDemand> demands = List.of(new StoreDemand(100L, List.of(2L)));
+
+    // when
+    FulfillmentPlan fewest =
+        new FulfillmentPlanSolver(capacities, existing, FulfillmentPlanObjective.MIN_WAREHOUSES)
+            .solve(demands, List.of(), 1000, Runnable::run);
+    FulfillmentPlan balanced =
+        new FulfillmentPlanSolver(capacities, existing, FulfillmentPlanObjective.BALANCE_LOAD)
+            .solve(demands, List.of(), 1000, Runnable::run);
+
+    // then
+    assertEquals("MWH.001", fewest.associations.get(0).warehouseCode);
+    assertEquals("MWH.002", balanced.associations.get(0).warehouseCode);
+  }
+
+  @Test
+  void shouldNotOpenMoreWarehousesThanTheStoreLimit() {
+    // given - the store is fulfilled by three full warehouses
+    Map<String, Integer> capacities = new HashMap<>();
+    List<FulfillmentAssociation> existing = new ArrayList<>();
+    for (int w = 1; w <= 4; w++) {
+      capacities.put("MWH.00" + w, 100);
+    }
+    for (int w = 1; w <= 3; w++) {
+      for (long p = 1; p <= 5; p++) {
+        existing.add(association(w * 10 + p, "MWH.00" + w, 100L));
+      }
+    }
+
+    // when
+    FulfillmentPlan plan =
+        new FulfillmentPlanSolver(capacities, existing, FulfillmentPlanObjective.MIN_WAREHOUSES)
+            .solve(List.of(new StoreDemand(100L, List.of(99L))), List.of(), 1000, Runnable::run);
+
+    // then
+    assertTrue(plan.associations.isEmpty());
+    assertEquals(1, plan.unassigned.size());
+    assertEquals(FulfillmentPlanSolver.NO_SLOT_REASON, plan.unassigned.get(0).reason);
+  }
+
+  @Test
+  void shouldKeepThePreviousPlanOfOtherStores() {
+    // given - MWH.001 has one free product slot, taken by the previous plan of store 200
+    Map<String, Integer> capacities = Map.of("MWH.001", 100, "MWH.002", 100);
+    List<FulfillmentAssociation> existing = new ArrayList<>();
+    for (long p = 1; p <= 4; p++) {
+      existing.add(association(p, "MWH.001", 900L));
+    }
+    List<FulfillmentAssociation> previous =
+        List.of(association(5L, "MWH.001", 200L), association(6L, "MWH.001", 100L));
+
+    // when - store 100 changed
+    FulfillmentPlan plan =
+        new FulfillmentPlanSolver(capacities, existing, FulfillmentPlanObjective.MIN_WAREHOUSES)
+            .solve(List.of(new StoreDemand(100L, List.of(7L))), previous, 1000, Runnable::run);
+
+    // then
+    assertEquals(2, plan.associations.size());
+    assertEquals(200L, plan.associations.get(0).storeId);
+    assertEquals("MWH.001", plan.associations.get(0).warehouseCode);
+    assertEquals(7L, plan.associations.get(1).productId);
+    assertEquals("MWH.002", plan.associations.get(1).warehouseCode);
+  }
+
+  @Test
+  void shouldStillPlanWhenTheBudgetIsExhausted() {
+    // given
+    Map<String, Integer> capacities = new HashMap<>();
+    for (int w = 0; w < 30; w++) {
+      capacities.put(String.format("MWH.%03d", w), 100);
+    }
+
+    // when
+    FulfillmentPlan plan =
+        new FulfillmentPlanSolver(capacities, List.of(), FulfillmentPlanObjective.BALANCE_LOAD)
+            .solve(
+                List.of(new StoreDemand(100L, List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L))),
+                List.of(),
+                0,
+                Runnable::run);
+
+    // then - the greedy pick is kept
+    assertTrue(plan.timedOut);
+    assertEquals(7, plan.associations.size());
+    assertValid(List.of(), plan.associations);
+  }
+
+  @Test
+  void shouldKeepAllLimitsWhenStoresCompeteForSlots() throws Exception {
+    // given - 30 stores asking for more product slots than 8 warehouses have
+    Random random = new Random(7);
+    Map<String, Integer> capacities = new HashMap<>();
+    for (int w = 0; w < 8; w++) {
+      capacities.put(String.format("MWH.%03d", w), 10 + random.nextInt(100));
+    }
+    List<FulfillmentAssociation> existing = new ArrayList<>();
+    for (long store = 1; store <= 5; store++) {
+      existing.add(association(random.nextInt(12) + 1L, String.format("MWH.%03d", store), store));
+    }
+    List<StoreDemand> demands = new ArrayList<>();
+    for (long store = 1; store <= 30; store++) {
+      List<Long> products = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        products.add(random.nextInt(40) + 1L);
+      }
+      demands.add(new StoreDemand(store, products));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    // when
+    FulfillmentPlan plan;
+    try {
+      plan =
+          new FulfillmentPlanSolver(capacities, existing, FulfillmentPlanObjective.MIN_WAREHOUSES)
+              .solve(demands, List.of(), 2000, executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    // then - every requested product is either served already, proposed once or unassigned
+    assertValid(existing, plan.associations);
+    assertFalse(plan.unassigned.isEmpty());
+    for (StoreDemand demand : demands) {
+      for (Long productId : new HashSet<>(demand.productIds)) {
+        long outcomes =
+            existing.stream().filter(a -> matches(a, demand.storeId, productId)).count()
+                + plan.associations.stream()
+                    .filter(a -> matches(a, demand.storeId, productId))
+                    .count()
+                + plan.unassigned.stream()
+                    .filter(u -> u.storeId.equals(demand.storeId) && u.productId.equals(productId))
+                    .count();
+        assertEquals(1, outcomes, "store " + demand.storeId + ", product " + productId);
+      }
+    }
+  }
+
+  private void assertValid(
+      List<FulfillmentAssociation> existing, List<FulfillmentAssociation> proposed) {
+    List<FulfillmentAssociation> all = new ArrayList<>(existing);
+    all.addAll(proposed);
+    Map<String, Set<String>> warehousesByProductStore = new HashMap<>();
+    Map<Long, Set<String>> warehousesByStore = new HashMap<>();
+    Map<String, Set<Long>> productsByWarehouse = new HashMap<>();
+    for (FulfillmentAssociation a : all) {
+      assertTrue(
+          warehousesByProductStore
+              .computeIfAbsent(a.productId + "/" + a.storeId, k -> new HashSet<>())
+              .add(a.warehouseCode),
+          "duplicate association");
+      warehousesByStore.computeIfAbsent(a.storeId, k -> new HashSet<>()).add(a.warehouseCode);
+      productsByWarehouse.computeIfAbsent(a.warehouseCode, k -> new HashSet<>()).add(a.productId);
+    }
+    warehousesByProductStore.values().forEach(w -> assertTrue(w.size() <= 2));
+    warehousesByStore.values().forEach(w -> assertTrue(w.size() <= 3));
+    productsByWarehouse.values().forEach(p -> assertTrue(p.size() <= 5));
+  }
+
+  private boolean matches(FulfillmentAssociation association, Long storeId, Long productId) {
+    return association.storeId.equals(storeId) && association.productId.equals(productId);
+  }
+
+  private FulfillmentAssociation association(Long productId, String warehouseCode, Long storeId) {
+    return new FulfillmentAssociation(productId, warehouseCode, storeId);
+  }
+}
@@ -1,17 +1,36 @@
 package com.fulfilment.application.monolith.fulfillment;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class FulfillmentResourceTest {
 
+  @Inject FulfillmentRepository fulfillmentRepository;
+
   private String uniqueCode() {
     return "MWH." + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
   }
@@ -108,6 +127,7 @@ class FulfillmentResourceTest {
 
     // Delete association
     given().when().delete("/fulfillment/" + associationId).then().statusCode(204);
+    given().when().delete("/warehouse/" + warehouseCode).then().statusCode(204);
   }
 
   @Test
@@ -213,4 +233,503 @@ class FulfillmentResourceTest {
   void shouldFailToDeleteNonExistentAssociation() {
     given().when().delete("/fulfillment/999999").then().statusCode(404);
   }
+
+  @Test
+  void shouldApplyLimitsCumulativelyAcrossABulkRequest() {
+    Long productId = createProduct();
+    Long storeId = createStore();
+    String first = createWarehouse();
+    String second = createWarehouse();
+    String third = createWarehouse();
+
+    try {
+      given()
+          .contentType(ContentType.JSON)
+          .body(
+              "["
+                  + association(productId, first, storeId)
+                  + ","
+                  + association(productId, second, storeId)
+                  + ","
+                  + association(productId, third, storeId)
+                  + ","
+                  + association(productId, first, storeId)
+                  + "]")
+          .when()
+          .post("/fulfillment/bulk")
+          .then()
+          .statusCode(200)
+          .body("size()", is(4))
+          .body("[0].created", is(true))
+          .body("[1].created", is(true))
+          .body("[2].created", is(false))
+          .body("[2].error", containsString("already fulfilled by 2 warehouses"))
+          .body("[3].created", is(false))
+          .body("[3].error", containsString("already exists"));
+
+      given()
+          .queryParam("storeId", storeId)
+          .when()
+          .get("/fulfillment")
+          .then()
+          .statusCode(200)
+          .body("size()", is(2));
+    } finally {
+      deleteAssociationsOfStore(storeId);
+      deleteWarehouses(first, second, third);
+    }
+  }
+
+  @Test
+  void shouldCreateNothingWhenAnItemFailsInAllOrNothingMode() {
+    Long productId = createProduct();
+    Long storeId = createStore();
+    String warehouseCode = createWarehouse();
+
+    try {
+      given()
+          .contentType(ContentType.JSON)
+          .queryParam("mode", "ALL_OR_NOTHING")
+          .body(
+              "["
+                  + association(productId, warehouseCode, storeId)
+                  + ","
+                  + association(999999L, warehouseCode, storeId)
+                  + "]")
+          .when()
+          .post("/fulfillment/bulk")
+          .then()
+          .statusCode(200)
+          .body("[0].created", is(false))
+          .body("[1].created", is(false))
+          .body("[1].error", containsString("does not exist"));
+
+      given()
+          .queryParam("storeId", storeId)
+          .when()
+          .get("/fulfillment")
+          .then()
+          .statusCode(200)
+          .body("size()", is(0));
+
+      // The rolled-back item no longer counts against the limits
+      given()
+          .contentType(ContentType.JSON)
+          .queryParam("mode", "ALL_OR_NOTHING")
+          .body("[" + association(productId, warehouseCode, storeId) + "]")
+          .when()
+          .post("/fulfillment/bulk")
+          .then()
+          .statusCode(200)
+          .body("[0].created", is(true));
+    } finally {
+      deleteAssociationsOfStore(storeId);
+      deleteWarehouses(warehouseCode);
+    }
+  }
+
+  @Test
+  void shouldRejectUnknownBulkMode() {
+    given()
+        .contentType(ContentType.JSON)
+        .queryParam("mode", "SOMETIMES")
+        .body("[]")
+        .when()
+        .post("/fulfillment/bulk")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  void shouldCombineFiltersPageAndCount() {
+    Long firstProduct = createProduct();
+    Long secondProduct = createProduct();
+    Long storeId = createStore();
+    String first = createWarehouse();
+    String second = createWarehouse();
+    List<Long> ids =
+        given()
+            .contentType(ContentType.JSON)
+            .body(
+                "["
+                    + association(firstProduct, first, storeId)
+                    + ","
+                    + association(firstProduct, second, storeId)
+                    + ","
+                    + association(secondProduct, first, storeId)
+                    + "]")
+            .when()
+            .post("/fulfillment/bulk")
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getList("association.id", Long.class);
+
+    try {
+      // All filters apply together
+      given()
+          .queryParam("productId", firstProduct)
+          .queryParam("storeId", storeId)
+          .queryParam("warehouseCode", second)
+          .when()
+          .get("/fulfillment")
+          .then()
+          .statusCode(200)
+          .body("size()", is(1))
+          .body("[0].id", is(ids.get(1).intValue()));
+
+      // Keyset pages over the store and warehouse
+      Long firstPage =
+          given()
+              .queryParam("storeId", storeId)
+              .queryParam("warehouseCode", first)
+              .queryParam("limit", 1)
+              .when()
+              .get("/fulfillment")
+              .then()
+              .statusCode(200)
+              .body("size()", is(1))
+              .body("[0].productId", is(firstProduct.intValue()))
+              .extract()
+              .jsonPath()
+              .getLong("[0].id");
+      given()
+          .queryParam("storeId", storeId)
+          .queryParam("warehouseCode", first)
+          .queryParam("after", firstPage)
+          .queryParam("limit", 1)
+          .when()
+          .get("/fulfillment")
+          .then()
+          .statusCode(200)
+          .body("size()", is(1))
+          .body("[0].productId", is(secondProduct.intValue()));
+
+      given()
+          .queryParam("storeId", storeId)
+          .queryParam("productId", firstProduct)
+          .when()
+          .get("/fulfillment/count")
+          .then()
+          .statusCode(200)
+          .body("count", is(2));
+
+      given()
+          .queryParam("storeId", storeId)
+          .queryParam("limit", 0)
+          .when()
+          .get("/fulfillment")
+          .then()
+          .statusCode(400);
+    } finally {
+      ids.forEach(id -> given().when().delete("/fulfillment/" + id).then().statusCode(204));
+      deleteWarehouses(first, second);
+    }
+  }
+
+  @Test
+  void shouldProposeAssociationsThatPassValidation() {
+    Long firstProduct = createProduct();
+    Long secondProduct = createProduct();
+    Long storeId = createStore();
+
+    Response plan =
+        given()
+            .contentType(ContentType.JSON)
+            .body(
+                "{\"stores\": [{\"storeId\": "
+                    + storeId
+                    + ", \"productIds\": ["
+                    + firstProduct
+                    + ", "
+                    + secondProduct
+                    + ", 999999]}, {\"storeId\": 999999, \"productIds\": ["
+                    + firstProduct
+                    + "]}], \"timeBudgetMillis\": 500}")
+            .when()
+            .post("/fulfillment/plan");
+    plan.then().statusCode(200);
+
+    // Every requested product is either proposed or reported with a reason
+    List<Map<String, Object>> associations = plan.jsonPath().getList("associations");
+    List<String> reasons = plan.jsonPath().getList("unassigned.reason");
+    assertEquals(4, associations.size() + reasons.size());
+    assertTrue(reasons.contains("Product with id 999999 does not exist"));
+    assertTrue(reasons.contains("Store with id 999999 does not exist"));
+
+    if (associations.isEmpty()) {
+      return;
+    }
+    StringBuilder body = new StringBuilder("[");
+    for (Map<String, Object> association : associations) {
+      body.append(body.length() > 1 ? "," : "")
+          .append(
+              association(
+                  ((Number) association.get("productId")).longValue(),
+                  (String) association.get("warehouseCode"),
+                  ((Number) association.get("storeId")).longValue()));
+    }
+    List<Long> ids =
+        given()
+            .contentType(ContentType.JSON)
+            .queryParam("mode", "ALL_OR_NOTHING")
+            .body(body.append("]").toString())
+            .when()
+            .post("/fulfillment/bulk")
+            .then()
+            .statusCode(200)
+            .body("created", everyItem(is(true)))
+            .extract()
+            .jsonPath()
+            .getList("association.id", Long.class);
+    assertEquals(associations.size(), ids.size());
+    deleteAssociationsOfStore(storeId);
+  }
+
+  @Test
+  void shouldRejectInvalidPlanRequests() {
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"stores\": []}")
+        .when()
+        .post("/fulfillment/plan")
+        .then()
+        .statusCode(400);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"stores\": [{\"storeId\": 1, \"productIds\": [1]}], \"objective\": \"CHEAPEST\"}")
+        .when()
+        .post("/fulfillment/plan")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  void shouldKeepAllLimitsUnderConcurrentCreates() throws Exception {
+    List<Long> products = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      products.add(createProduct());
+    }
+    List<Long> stores = List.of(createStore(), createStore());
+    List<String> warehouses = new ArrayList<>(List.of("MWH.001", "MWH.012", "MWH.023"));
+    for (int i = 0; i < 2; i++) {
+      String code = uniqueCode();
+      given()
+          .contentType(ContentType.JSON)
+          .body(
+              "{\"businessUnitCode\": \""
+                  + code
+                  + "\", \"location\": \"EINDHOVEN-001\", \"capacity\": 1, \"stock\": 0}")
+          .when()
+          .post("/warehouse")
+          .then()
+          .statusCode(200);
+      warehouses.add(code);
+    }
+
+    // Every combination four times, in random order, fired from many threads at once
+    List<String> requests = new ArrayList<>();
+    for (Long productId : products) {
+      for (String warehouseCode : warehouses) {
+        for (Long storeId : stores) {
+          for (int copy = 0; copy < 4; copy++) {
+            requests.add(association(productId, warehouseCode, storeId));
+          }
+        }
+      }
+    }
+    Collections.shuffle(requests, new Random(17));
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+    List<Response> responses = new ArrayList<>();
+    try {
+      List<Future<Response>> futures = new ArrayList<>();
+      for (String request : requests) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return given()
+                      .contentType(ContentType.JSON)
+                      .body(request)
+                      .when()
+                      .post("/fulfillment");
+                }));
+      }
+      start.countDown();
+      for (Future<Response> future : futures) {
+        responses.add(future.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Only validation failures, never a unique-constraint violation or other error
+    assertTrue(responses.stream().allMatch(r -> r.statusCode() == 201 || r.statusCode() == 400));
+    List<Long> createdIds =
+        responses.stream()
+            .filter(r -> r.statusCode() == 201)
+            .map(r -> r.jsonPath().getLong("id"))
+            .toList();
+    long created = createdIds.size();
+    assertTrue(created > 0);
+
+    QuarkusTransaction.requiringNew()
+        .run(
+            () -> {
+              long stored = 0;
+              for (Long storeId : stores) {
+                assertTrue(distinctWarehousesForStore(storeId) <= 3);
+                for (Long productId : products) {
+                  assertTrue(
+                      fulfillmentRepository.count(
+                              "productId = ?1 AND storeId = ?2", productId, storeId)
+                          <= 2);
+                }
+                stored += fulfillmentRepository.count("storeId", storeId);
+              }
+              for (String warehouseCode : warehouses) {
+                assertTrue(distinctProductsInWarehouse(warehouseCode) <= 5);
+              }
+              assertEquals(created, stored);
+            });
+
+    // The in-memory graph agrees with the table
+    for (Long storeId : stores) {
+      long stored =
+          QuarkusTransaction.requiringNew()
+              .call(() -> fulfillmentRepository.count("storeId", storeId));
+      given()
+          .queryParam("storeId", storeId)
+          .when()
+          .get("/fulfillment")
+          .then()
+          .statusCode(200)
+          .body("size()", is((int) stored));
+    }
+
+    // Free the product slots of the seeded warehouses and the location slots for the other tests
+    for (Long id : createdIds) {
+      given().when().delete("/fulfillment/" + id).then().statusCode(204);
+    }
+    for (String warehouseCode : warehouses.subList(3, warehouses.size())) {
+      given().when().delete("/warehouse/" + warehouseCode).then().statusCode(204);
+    }
+  }
+
+  /**
+   * Creates a warehouse of its own for a test, so the test does not share the product limit of the
+   * seeded ones. Locations are shared with the other test classes, so the first one with room is
+   * taken; HELMOND-001 is left alone for the warehouse limit test.
+   */
+  private String createWarehouse() {
+    String code = uniqueCode();
+    for (String location :
+        List.of(
+            "AMSTERDAM-001",
+            "AMSTERDAM-002",
+            "EINDHOVEN-001",
+            "ZWOLLE-002",
+            "VETSBY-001",
+            "ZWOLLE-001",
+            "TILBURG-001")) {
+      int status =
+          given()
+              .contentType(ContentType.JSON)
+              .body(
+                  "{\"businessUnitCode\": \""
+                      + code
+                      + "\", \"location\": \""
+                      + location
+                      + "\", \"capacity\": 1, \"stock\": 0}")
+              .when()
+              .post("/warehouse")
+              .statusCode();
+      if (status == 200) {
+        return code;
+      }
+    }
+    throw new IllegalStateException("No location has room for another warehouse");
+  }
+
+  private void deleteWarehouses(String... warehouseCodes) {
+    for (String warehouseCode : warehouseCodes) {
+      given().when().delete("/warehouse/" + warehouseCode).then().statusCode(204);
+    }
+  }
+
+  private void deleteAssociationsOfStore(Long storeId) {
+    List<Long> ids =
+        given()
+            .queryParam("storeId", storeId)
+            .when()
+            .get("/fulfillment")
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getList("id", Long.class);
+    ids.forEach(id -> given().when().delete("/fulfillment/" + id).then().statusCode(204));
+  }
+
+  private Long createProduct() {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"" + uniqueName() + "\"}")
+        .when()
+        .post("/product")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
+
+  private Long createStore() {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"" + uniqueName() + "\", \"quantityProductsInStock\": 10}")
+        .when()
+        .post("/store")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
+
+  private String association(Long productId, String warehouseCode, Long storeId) {
+    return "{\"productId\": "
+        + productId
+        + ", \"warehouseCode\": \""
+        + warehouseCode
+        + "\", \"storeId\": "
+        + storeId
+        + "}";
+  }
+
+  // Counted in the table rather than the graph, to check what was actually stored
+  private long distinctWarehousesForStore(Long storeId) {
+    return fulfillmentRepository
+        .getEntityManager()
+        .createQuery(
+            "SELECT COUNT(DISTINCT a.warehouseCode) FROM FulfillmentAssociation a"
+                + " WHERE a.storeId = ?1",
+            Long.class)
+        .setParameter(1, storeId)
+        .getSingleResult();
+  }
+
+  private long distinctProductsInWarehouse(String warehouseCode) {
+    return fulfillmentRepository
+        .getEntityManager()
+        .createQuery(
+            "SELECT COUNT(DISTINCT a.productId) FROM FulfillmentAssociation a"
+                + " WHERE a.warehouseCode = ?1",
+            Long.class)
+        .setParameter(1, warehouseCode)
+        .getSingleResult();
+  }
 }
@@ -3,11 +3,10 @@ package com.fulfilment.application.monolith.fulfillment;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-import com.fulfilment.application.monolith.products.Product;
-import com.fulfilment.application.monolith.products.ProductRepository;
-import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -19,9 +18,7 @@ class FulfillmentServiceTest {
 
   @Mock private FulfillmentRepository fulfillmentRepository;
 
-  @Mock private WarehouseRepository warehouseRepository;
-
-  @Mock private ProductRepository productRepository;
+  @Mock private TransactionSynchronizationRegistry transactionRegistry;
 
   @InjectMocks private FulfillmentService fulfillmentService;
 
@@ -32,7 +29,8 @@ class FulfillmentServiceTest {
     String warehouseCode = "MWH.001";
     Long storeId = 1L;
 
-    when(productRepository.findById(productId)).thenReturn(null);
+    when(fulfillmentRepository.evaluateConstraints(productId, warehouseCode, storeId))
+        .thenReturn(facts(false, true, true, false, 0, false, 0, false, 0));
 
     // when & then
     FulfillmentValidationException exception =
@@ -51,11 +49,8 @@ class FulfillmentServiceTest {
     String warehouseCode = "MWH.NONEXISTENT";
     Long storeId = 1L;
 
-    Product product = new Product();
-    product.id = productId;
-
-    when(productRepository.findById(productId)).thenReturn(product);
-    when(warehouseRepository.findByBusinessUnitCode(warehouseCode)).thenReturn(null);
+    when(fulfillmentRepository.evaluateConstraints(productId, warehouseCode, storeId))
+        .thenReturn(facts(true, false, true, false, 0, false, 0, false, 0));
 
     // when & then
     FulfillmentValidationException exception =
@@ -67,6 +62,98 @@ class FulfillmentServiceTest {
     verify(fulfillmentRepository, never()).persist((FulfillmentAssociation) any());
   }
 
+  @Test
+  void shouldThrowExceptionWhenStoreDoesNotExist() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 999L))
+        .thenReturn(facts(true, true, false, false, 0, false, 0, false, 0));
+
+    // when & then
+    FulfillmentValidationException exception =
+        assertThrows(
+            FulfillmentValidationException.class,
+            () -> fulfillmentService.createAssociation(1L, "MWH.001", 999L));
+
+    assertTrue(exception.getMessage().contains("Store with id 999 does not exist"));
+    verify(fulfillmentRepository, never()).persist((FulfillmentAssociation) any());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenAssociationAlreadyExists() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, true, 1, true, 1, true, 1));
+
+    // when & then
+    FulfillmentValidationException exception =
+        assertThrows(
+            FulfillmentValidationException.class,
+            () -> fulfillmentService.createAssociation(1L, "MWH.001", 1L));
+
+    assertTrue(exception.getMessage().contains("Association already exists"));
+  }
+
+  @Test
+  void shouldThrowExceptionWhenProductHasMaxWarehousesInStore() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 2, false, 2, false, 1));
+
+    // when & then
+    FulfillmentValidationException exception =
+        assertThrows(
+            FulfillmentValidationException.class,
+            () -> fulfillmentService.createAssociation(1L, "MWH.001", 1L));
+
+    assertTrue(exception.getMessage().contains("is already fulfilled by 2 warehouses"));
+  }
+
+  @Test
+  void shouldThrowExceptionWhenStoreHasMaxWarehouses() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 0, false, 3, false, 1));
+
+    // when & then
+    FulfillmentValidationException exception =
+        assertThrows(
+            FulfillmentValidationException.class,
+            () -> fulfillmentService.createAssociation(1L, "MWH.001", 1L));
+
+    assertTrue(exception.getMessage().contains("3 different warehouses"));
+  }
+
+  @Test
+  void shouldThrowExceptionWhenWarehouseHasMaxProducts() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 0, true, 3, false, 5));
+
+    // when & then
+    FulfillmentValidationException exception =
+        assertThrows(
+            FulfillmentValidationException.class,
+            () -> fulfillmentService.createAssociation(1L, "MWH.001", 1L));
+
+    assertTrue(exception.getMessage().contains("5 different product types"));
+  }
+
+  @Test
+  void shouldCreateAssociationWhenWarehouseAndProductAlreadyLinked() {
+    // given - limits reached, but neither a new warehouse nor a new product is added
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 1, true, 3, true, 5));
+
+    // when
+    FulfillmentAssociation created = fulfillmentService.createAssociation(1L, "MWH.001", 1L);
+
+    // then
+    assertEquals(1L, created.productId);
+    assertEquals("MWH.001", created.warehouseCode);
+    assertEquals(1L, created.storeId);
+    verify(fulfillmentRepository).persist(created);
+  }
+
   @Test
   void shouldDeleteAssociationSuccessfully() {
     // given
@@ -181,4 +268,73 @@ class FulfillmentServiceTest {
     assertEquals(storeId, result.get(0).storeId);
     verify(fulfillmentRepository).findByStore(storeId);
   }
+
+  @Test
+  void shouldCreateValidItemsAndRejectInvalidOnesInBestEffortMode() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 0, false, 0, false, 0));
+    when(fulfillmentRepository.evaluateConstraints(2L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 0, true, 1, false, 5));
+
+    // when
+    List<FulfillmentCreationResult> results =
+        fulfillmentService.createAssociations(
+            List.of(
+                new FulfillmentAssociation(1L, "MWH.001", 1L),
+                new FulfillmentAssociation(2L, "MWH.001", 1L)),
+            false);
+
+    // then
+    assertTrue(results.get(0).isCreated());
+    assertFalse(results.get(1).isCreated());
+    assertTrue(results.get(1).error.contains("5 different product types"));
+    verify(fulfillmentRepository).persist(results.get(0).association);
+    verifyNoInteractions(transactionRegistry);
+  }
+
+  @Test
+  void shouldRollBackTheWholeBatchInAllOrNothingMode() {
+    // given
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.001", 1L))
+        .thenReturn(facts(true, true, true, false, 0, false, 0, false, 0));
+    when(fulfillmentRepository.evaluateConstraints(1L, "MWH.002", 999L))
+        .thenReturn(facts(true, true, false, false, 0, false, 0, false, 0));
+
+    // when
+    List<FulfillmentCreationResult> results =
+        fulfillmentService.createAssociations(
+            List.of(
+                new FulfillmentAssociation(1L, "MWH.001", 1L),
+                new FulfillmentAssociation(1L, "MWH.002", 999L)),
+            true);
+
+    // then
+    verify(transactionRegistry).setRollbackOnly();
+    assertFalse(results.get(0).isCreated());
+    assertTrue(results.get(0).error.contains("another item of the batch was rejected"));
+    assertTrue(results.get(1).error.contains("Store with id 999 does not exist"));
+  }
+
+  private FulfillmentConstraintFacts facts(
+      boolean productExists,
+      boolean warehouseExists,
+      boolean storeExists,
+      boolean associationExists,
+      long warehousesForProductInStore,
+      boolean warehouseAlreadyAssociatedWithStore,
+      long distinctWarehousesForStore,
+      boolean productAlreadyInWarehouse,
+      long distinctProductsInWarehouse) {
+    return new FulfillmentConstraintFacts(
+        productExists,
+        warehouseExists,
+        storeExists,
+        associationExists,
+        warehousesForProductInStore,
+        warehouseAlreadyAssociatedWithStore,
+        distinctWarehousesForStore,
+        productAlreadyInWarehouse,
+        distinctProductsInWarehouse);
+  }
 }
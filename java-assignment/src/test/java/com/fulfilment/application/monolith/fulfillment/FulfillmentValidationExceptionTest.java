@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.fulfillment;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
 import org.junit.jupiter.api.Test;
 
 class FulfillmentValidationExceptionTest {
@@ -26,4 +27,21 @@ class FulfillmentValidationExceptionTest {
     // then
     assertTrue(exception instanceof RuntimeException);
   }
+
+  @Test
+  void shouldCarryErrorCodeWithoutStackTrace() {
+    // when
+    FulfillmentValidationException exception =
+        new FulfillmentValidationException(ErrorCode.UNKNOWN_STORE, "test");
+
+    // then
+    assertEquals(ErrorCode.UNKNOWN_STORE, exception.getCode());
+    assertEquals(0, exception.getStackTrace().length);
+  }
+
+  @Test
+  void shouldDefaultToValidationFailed() {
+    assertEquals(
+        ErrorCode.VALIDATION_FAILED, new FulfillmentValidationException("test").getCode());
+  }
 }
@@ -0,0 +1,79 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted operations, given as a preset name or as {@code operation=weight,...}, for example
+ * {@code warehouse-get=90,association-create=10}.
+ */
+final class LoadMix {
+
+  static final Map<String, String> PRESETS = new LinkedHashMap<>();
+
+  static {
+    PRESETS.put("read-heavy", "warehouse-get=80,warehouse-page=10,fulfillment-by-warehouse=10");
+    PRESETS.put("association-storm", "association-create=90,fulfillment-by-warehouse=10");
+    PRESETS.put("stock-updates", "store-stock-adjust=70,store-update=20,store-get=10");
+  }
+
+  private final List<LoadOperation> operations = new ArrayList<>();
+  private final List<Integer> weights = new ArrayList<>();
+  private final int totalWeight;
+
+  private LoadMix(Map<LoadOperation, Integer> weighted) {
+    weighted.forEach(
+        (operation, weight) -> {
+          operations.add(operation);
+          weights.add(weight);
+        });
+    totalWeight = weights.stream().mapToInt(Integer::intValue).sum();
+  }
+
+  static LoadMix parse(String definition) {
+    String weights = PRESETS.getOrDefault(definition, definition);
+    Map<LoadOperation, Integer> weighted = new LinkedHashMap<>();
+    for (String entry : weights.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException(
+            "Expected one of the presets "
+                + PRESETS.keySet()
+                + " or operation=weight,... but got "
+                + definition);
+      }
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight < 1) {
+        throw new IllegalArgumentException("Weight of " + parts[0] + " must be positive");
+      }
+      if (weighted.put(LoadOperation.byLabel(parts[0].trim()), weight) != null) {
+        throw new IllegalArgumentException("Operation " + parts[0] + " is given more than once");
+      }
+    }
+    return new LoadMix(weighted);
+  }
+
+  LoadOperation pick(SplittableRandom random) {
+    int point = random.nextInt(totalWeight);
+    for (int i = 0; i < operations.size(); i++) {
+      point -= weights.get(i);
+      if (point < 0) {
+        return operations.get(i);
+      }
+    }
+    throw new IllegalStateException("Weights out of range");
+  }
+
+  /** The weights in a canonical form, for the report. */
+  @Override
+  public String toString() {
+    List<String> entries = new ArrayList<>();
+    for (int i = 0; i < operations.size(); i++) {
+      entries.add(operations.get(i).label + "=" + weights.get(i));
+    }
+    return String.join(",", entries);
+  }
+}
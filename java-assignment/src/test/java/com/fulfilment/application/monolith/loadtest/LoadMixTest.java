@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class LoadMixTest {
+
+  @Test
+  void shouldResolvePresets() {
+    // when
+    LoadMix mix = LoadMix.parse("read-heavy");
+
+    // then
+    assertEquals(LoadMix.PRESETS.get("read-heavy"), mix.toString());
+  }
+
+  @Test
+  void shouldPickOperationsInProportionToTheirWeights() {
+    // given
+    LoadMix mix = LoadMix.parse("warehouse-get=3, store-update=1");
+    SplittableRandom random = new SplittableRandom(1);
+    Map<LoadOperation, Integer> picks = new EnumMap<>(LoadOperation.class);
+
+    // when
+    for (int i = 0; i < 40_000; i++) {
+      picks.merge(mix.pick(random), 1, Integer::sum);
+    }
+
+    // then
+    assertEquals(2, picks.size());
+    assertEquals(30_000, picks.get(LoadOperation.WAREHOUSE_GET), 600);
+    assertEquals(10_000, picks.get(LoadOperation.STORE_UPDATE), 600);
+  }
+
+  @Test
+  void shouldRejectUnknownOperationsAndBadWeights() {
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("warehouse-delete=1"));
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("warehouse-get=0"));
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("write-heavy"));
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("store-get=1,store-get=2"));
+  }
+}
@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/** One kind of request the harness sends, against the ids of the loaded dataset. */
+enum LoadOperation {
+  WAREHOUSE_GET("warehouse-get") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      return get(base, "warehouse/" + targets.warehouseCode(random));
+    }
+  },
+  WAREHOUSE_PAGE("warehouse-page") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      return get(base, "warehouse?limit=100&after=" + targets.warehouseCode(random));
+    }
+  },
+  FULFILLMENT_BY_WAREHOUSE("fulfillment-by-warehouse") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      return get(base, "fulfillment?limit=100&warehouseCode=" + targets.warehouseCode(random));
+    }
+  },
+  ASSOCIATION_CREATE("association-create") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      return send(
+          base,
+          "POST",
+          "fulfillment",
+          "{\"productId\":"
+              + targets.productId(random)
+              + ",\"warehouseCode\":\""
+              + targets.warehouseCode(random)
+              + "\",\"storeId\":"
+              + targets.storeId(random)
+              + "}");
+    }
+  },
+  STORE_GET("store-get") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      return get(base, "store/" + targets.storeId(random));
+    }
+  },
+  STORE_STOCK_ADJUST("store-stock-adjust") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      // Mostly additions, so some decrements on a low stock answer 409
+      int delta = random.nextInt(-5, 11);
+      return send(
+          base, "POST", "store/" + targets.storeId(random) + "/stock", "{\"delta\":" + delta + "}");
+    }
+  },
+  STORE_UPDATE("store-update") {
+    @Override
+    HttpRequest request(URI base, LoadTargets targets, SplittableRandom random) {
+      long storeId = targets.storeId(random);
+      return send(
+          base,
+          "PUT",
+          "store/" + storeId,
+          "{\"name\":\""
+              + targets.storeName(storeId)
+              + "\",\"quantityProductsInStock\":"
+              + random.nextInt(1001)
+              + "}");
+    }
+  };
+
+  static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  final String label;
+
+  LoadOperation(String label) {
+    this.label = label;
+  }
+
+  abstract HttpRequest request(URI base, LoadTargets targets, SplittableRandom random);
+
+  static LoadOperation byLabel(String label) {
+    for (LoadOperation operation : values()) {
+      if (operation.label.equals(label)) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation '" + label + "'");
+  }
+
+  private static HttpRequest get(URI base, String path) {
+    return HttpRequest.newBuilder(base.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build();
+  }
+
+  private static HttpRequest send(URI base, String method, String path, String json) {
+    return HttpRequest.newBuilder(base.resolve(path))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Content-Type", "application/json")
+        .method(method, BodyPublishers.ofString(json))
+        .build();
+  }
+}
@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Plain text report of a run: the settings, one latency line per operation and a breakdown of
+ * every outcome other than success. It holds no timestamps or host names and every section is
+ * sorted, so two reports of the same settings differ only where the measurements do and compare
+ * with a plain {@code diff}.
+ */
+final class LoadReport {
+
+  private static final String ROW = "%-26s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n";
+
+  private LoadReport() {}
+
+  /**
+   * @param settings the run's settings in display order
+   * @param measured length of the measured window; requests scheduled in the warmup before it are
+   *     not part of {@code results}
+   */
+  static String format(Map<String, String> settings, LoadResults results, Duration measured) {
+    StringBuilder report = new StringBuilder("# Load test report\n\n");
+    settings.forEach(
+        (name, value) -> report.append(String.format(Locale.ROOT, "%-26s %s%n", name, value)));
+
+    report.append('\n');
+    report.append(
+        String.format(
+            Locale.ROOT,
+            ROW,
+            "operation",
+            "requests",
+            "ok",
+            "rejected",
+            "failed",
+            "req/s",
+            "p50 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms"));
+    double seconds = measured.toNanos() / 1e9;
+    results.operations().forEach((name, operation) -> row(report, name, operation, seconds));
+    row(report, "all", results.all(), seconds);
+
+    report.append("\nOutcomes other than ok\n");
+    for (Map.Entry<String, LoadResults.Operation> operation : results.operations().entrySet()) {
+      for (Map.Entry<String, Long> outcome : operation.getValue().outcomes().entrySet()) {
+        if (!LoadResults.OK.equals(outcome.getKey())) {
+          report.append(
+              String.format(
+                  Locale.ROOT,
+                  "%-26s %-48s %9d%n",
+                  operation.getKey(),
+                  outcome.getKey(),
+                  outcome.getValue()));
+        }
+      }
+    }
+    return report.toString();
+  }
+
+  private static void row(
+      StringBuilder report, String name, LoadResults.Operation operation, double seconds) {
+    report.append(
+        String.format(
+            Locale.ROOT,
+            ROW,
+            name,
+            operation.requests(),
+            operation.ok(),
+            operation.rejected(),
+            operation.failed(),
+            String.format(Locale.ROOT, "%.1f", operation.responses() / seconds),
+            millis(operation.percentile(0.50)),
+            millis(operation.percentile(0.99)),
+            millis(operation.percentile(0.999)),
+            millis(operation.percentile(1.0))));
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+  }
+}
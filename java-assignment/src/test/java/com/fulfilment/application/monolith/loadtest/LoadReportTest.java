@@ -0,0 +1,83 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LoadReportTest {
+
+  @Test
+  void shouldComputeNearestRankPercentiles() {
+    // given
+    LoadResults results = new LoadResults();
+    for (int millis = 1000; millis >= 1; millis--) {
+      results.record("warehouse-get", millis * 1_000_000L, LoadResults.OK);
+    }
+
+    // when
+    LoadResults.Operation operation = results.operations().get("warehouse-get");
+
+    // then
+    assertEquals(500_000_000L, operation.percentile(0.50));
+    assertEquals(990_000_000L, operation.percentile(0.99));
+    assertEquals(999_000_000L, operation.percentile(0.999));
+    assertEquals(1_000_000_000L, operation.percentile(1.0));
+  }
+
+  @Test
+  void shouldSeparateRejectionsFromFailures() {
+    // given
+    LoadResults results = new LoadResults();
+    results.record("association-create", 1, LoadResults.OK);
+    results.record("association-create", 1, "400 STORE_WAREHOUSE_LIMIT_REACHED");
+    results.record("association-create", 1, "500");
+    results.record("association-create", 1, "HttpTimeoutException");
+    results.notSent("association-create");
+
+    // when
+    LoadResults.Operation all = results.all();
+
+    // then
+    assertEquals(5, all.requests());
+    assertEquals(4, all.responses());
+    assertEquals(1, all.ok());
+    assertEquals(1, all.rejected());
+    assertEquals(3, all.failed());
+  }
+
+  @Test
+  void shouldFormatTheSameResultsIdentically() {
+    // given
+    Map<String, String> settings = new LinkedHashMap<>();
+    settings.put("mix", "stock-updates");
+    settings.put("rate", "100.0/s, open loop");
+
+    // when
+    String first = LoadReport.format(settings, sample(), Duration.ofSeconds(2));
+    String second = LoadReport.format(settings, sample(), Duration.ofSeconds(2));
+
+    // then
+    assertEquals(first, second);
+    assertTrue(first.contains("mix                        stock-updates"), first);
+    assertTrue(
+        first.matches(
+            "(?s).*store-get\\s+2\\s+1\\s+1\\s+0\\s+1\\.0"
+                + "\\s+2\\.00\\s+3\\.00\\s+3\\.00\\s+3\\.00\\n.*"),
+        first);
+    assertTrue(first.contains("all "), first);
+    assertTrue(first.matches("(?s).*store-get\\s+404\\s+1\\n.*"), first);
+    assertTrue(first.indexOf("store-get ") < first.indexOf("store-update "), first);
+  }
+
+  private static LoadResults sample() {
+    LoadResults results = new LoadResults();
+    // Recorded out of order: the report sorts operations by name
+    results.record("store-update", 5_000_000, LoadResults.OK);
+    results.record("store-get", 2_000_000, LoadResults.OK);
+    results.record("store-get", 3_000_000, "404");
+    return results;
+  }
+}
@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes per operation. Every latency is kept, so percentiles are exact rather than
+ * bucketed; a million requests take 8 MB.
+ */
+final class LoadResults {
+
+  static final String OK = "ok";
+  static final String NOT_SENT = "not sent: in-flight limit reached";
+
+  /** Results of one operation, or of all of them together. */
+  static final class Operation {
+
+    private long[] latencies = new long[1024];
+    private int responses;
+    private long notSent;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+    private boolean sorted;
+
+    void record(long latencyNanos, String outcome) {
+      if (responses == latencies.length) {
+        latencies = Arrays.copyOf(latencies, responses * 2);
+      }
+      latencies[responses++] = latencyNanos;
+      outcomes.merge(outcome, 1L, Long::sum);
+      sorted = false;
+    }
+
+    void notSent() {
+      notSent++;
+      outcomes.merge(NOT_SENT, 1L, Long::sum);
+    }
+
+    long requests() {
+      return responses + notSent;
+    }
+
+    long responses() {
+      return responses;
+    }
+
+    long ok() {
+      return outcomes.getOrDefault(OK, 0L);
+    }
+
+    /** Answers with a 4xx status: requests the application turned down. */
+    long rejected() {
+      return outcomes.entrySet().stream()
+          .filter(e -> e.getKey().startsWith("4"))
+          .mapToLong(Map.Entry::getValue)
+          .sum();
+    }
+
+    /** 5xx answers, transport failures and requests that were never sent. */
+    long failed() {
+      return requests() - ok() - rejected();
+    }
+
+    Map<String, Long> outcomes() {
+      return outcomes;
+    }
+
+    /** Nearest-rank percentile in nanoseconds, {@code fraction} in (0, 1]; 0 without responses. */
+    long percentile(double fraction) {
+      if (responses == 0) {
+        return 0;
+      }
+      if (!sorted) {
+        Arrays.sort(latencies, 0, responses);
+        sorted = true;
+      }
+      int rank = (int) Math.ceil(fraction * responses);
+      return latencies[Math.max(rank, 1) - 1];
+    }
+  }
+
+  private final Map<String, Operation> operations = new TreeMap<>();
+  private final Operation all = new Operation();
+
+  synchronized void record(String operation, long latencyNanos, String outcome) {
+    operations.computeIfAbsent(operation, k -> new Operation()).record(latencyNanos, outcome);
+    all.record(latencyNanos, outcome);
+  }
+
+  synchronized void notSent(String operation) {
+    operations.computeIfAbsent(operation, k -> new Operation()).notSent();
+    all.notSent();
+  }
+
+  /** Per operation, by name. Read only once the run is over. */
+  Map<String, Operation> operations() {
+    return operations;
+  }
+
+  Operation all() {
+    return all;
+  }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fulfilment.application.monolith.dataset.DatasetGenerator;
+import com.fulfilment.application.monolith.dataset.ZipfSampler;
+import java.util.SplittableRandom;
+
+/**
+ * Ids of the loaded dataset, picked with the dataset's skew so the load concentrates on the same
+ * hot products, warehouses and stores the data does.
+ */
+final class LoadTargets {
+
+  private final ZipfSampler stores;
+  private final ZipfSampler products;
+  private final ZipfSampler warehouses;
+
+  LoadTargets(int stores, int products, int warehouses, double skew) {
+    this.stores = new ZipfSampler(stores, skew);
+    this.products = new ZipfSampler(products, skew);
+    this.warehouses = new ZipfSampler(warehouses, skew);
+  }
+
+  long storeId(SplittableRandom random) {
+    return stores.next(random) + 1L;
+  }
+
+  String storeName(long storeId) {
+    return DatasetGenerator.storeName(storeId);
+  }
+
+  long productId(SplittableRandom random) {
+    return products.next(random) + 1L;
+  }
+
+  String warehouseCode(SplittableRandom random) {
+    return DatasetGenerator.warehouseCode(warehouses.next(random));
+  }
+}
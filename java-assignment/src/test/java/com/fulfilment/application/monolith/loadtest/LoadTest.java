@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Drives the REST endpoints of the booted application with an open-loop load and writes a
+ * latency report. Only runs when a mix is given, e.g.
+ *
+ * <pre>
+ * ./mvnw test -Dtest=LoadTest -Dloadtest.mix=read-heavy -Dloadtest.rate=500
+ * </pre>
+ *
+ * <p>Fails when any request ends in a server error, a transport failure or is not sent; 4xx
+ * rejections are expected under contention and only reported. See {@code IMPLEMENTATION.md} for
+ * all settings.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@EnabledIfSystemProperty(named = "loadtest.mix", matches = ".+")
+class LoadTest {
+
+  private static final Logger LOGGER = Logger.getLogger(LoadTest.class.getName());
+
+  @TestHTTPResource("/")
+  URI base;
+
+  @Test
+  void shouldServeTheMixWithoutFailures() throws Exception {
+    // given
+    // Settings are looked up rather than injected: the test class is a bean of every test
+    // application, and only this test's profile provides the dataset sizes
+    Config config = ConfigProvider.getConfig();
+    String mix = config.getValue("loadtest.mix", String.class);
+    double rate = config.getOptionalValue("loadtest.rate", Double.class).orElse(200.0);
+    Duration warmup = duration(config, "loadtest.warmup", Duration.ofSeconds(5));
+    Duration duration = duration(config, "loadtest.duration", Duration.ofSeconds(30));
+    int maxInFlight = config.getOptionalValue("loadtest.max-in-flight", Integer.class).orElse(256);
+    int stores = config.getValue("loadtest.dataset.stores", Integer.class);
+    int products = config.getValue("loadtest.dataset.products", Integer.class);
+    int warehouses = config.getValue("loadtest.dataset.warehouses", Integer.class);
+    double skew = config.getValue("loadtest.dataset.skew", Double.class);
+    long seed = config.getValue("loadtest.dataset.seed", Long.class);
+
+    LoadMix loadMix = LoadMix.parse(mix);
+    LoadTargets targets = new LoadTargets(stores, products, warehouses, skew);
+    HttpClient client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    Map<String, String> settings = new LinkedHashMap<>();
+    boolean preset = LoadMix.PRESETS.containsKey(mix);
+    settings.put("mix", preset ? mix + " (" + loadMix + ")" : loadMix.toString());
+    settings.put("rate", rate + "/s, open loop");
+    settings.put("warmup", warmup.toString());
+    settings.put("duration", duration.toString());
+    settings.put("max in flight", Integer.toString(maxInFlight));
+    settings.put(
+        "database",
+        config.getValue("quarkus.datasource.db-kind", String.class)
+            + ", pool of "
+            + config.getValue("quarkus.datasource.jdbc.max-size", String.class));
+    settings.put(
+        "dataset",
+        stores
+            + " stores, "
+            + products
+            + " products, "
+            + warehouses
+            + " warehouses, "
+            + config.getValue("loadtest.dataset.associations", String.class)
+            + " associations");
+    settings.put("seed / skew", seed + " / " + skew);
+
+    // when
+    LoadResults results =
+        new OpenLoopDriver(client, base, loadMix, targets, rate, maxInFlight)
+            .run(warmup, duration, seed);
+
+    // then
+    Path file =
+        config
+            .getOptionalValue("loadtest.report", Path.class)
+            .orElse(Path.of("target", "loadtest", "report-" + (preset ? mix : "custom") + ".txt"));
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    String text = LoadReport.format(settings, results, duration);
+    Files.writeString(file, text);
+    LOGGER.infof("Load test report written to %s%n%s", file.toAbsolutePath(), text);
+    assertTrue(results.all().responses() > 0, "no responses");
+    assertEquals(0, results.all().failed(), "failed requests, see " + file.toAbsolutePath());
+  }
+
+  private static Duration duration(Config config, String name, Duration defaultValue) {
+    return config.getOptionalValue(name, Duration.class).orElse(defaultValue);
+  }
+}
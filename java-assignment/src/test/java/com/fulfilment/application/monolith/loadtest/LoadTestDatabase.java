@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fulfilment.application.monolith.dataset.DatasetGenerator;
+import com.fulfilment.application.monolith.dataset.DatasetLoader;
+import com.fulfilment.application.monolith.dataset.DatasetSpec;
+import com.fulfilment.application.monolith.dataset.SyntheticLocations;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.jboss.logging.Logger;
+
+/**
+ * Migrates the load test database and fills it with a generated dataset before the application
+ * starts, so the application builds its in-memory indexes from the loaded rows as it would in
+ * production. The generated location catalog is handed to the application, and the sizes of the
+ * dataset to {@link LoadTest}, as configuration.
+ */
+public class LoadTestDatabase implements QuarkusTestResourceLifecycleManager {
+
+  private static final Logger LOGGER = Logger.getLogger(LoadTestDatabase.class.getName());
+
+  private static final Path DIRECTORY = Path.of("target", "loadtest");
+
+  private Map<String, String> config;
+
+  @Override
+  public void init(Map<String, String> initArgs) {
+    config = initArgs;
+  }
+
+  @Override
+  public Map<String, String> start() {
+    DatasetSpec spec = new DatasetSpec();
+    spec.seed = Long.getLong("loadtest.seed", spec.seed);
+    spec.stores = Integer.getInteger("loadtest.stores", 20_000);
+    spec.products = Integer.getInteger("loadtest.products", 5_000);
+    spec.warehouses = Integer.getInteger("loadtest.warehouses", 2_000);
+    spec.skew = Double.parseDouble(System.getProperty("loadtest.skew", "1.0"));
+    int locationCount = Integer.getInteger("loadtest.locations", 500);
+
+    String url = config.get("quarkus.datasource.jdbc.url");
+    String username = config.getOrDefault("quarkus.datasource.username", "sa");
+    String password = config.getOrDefault("quarkus.datasource.password", "");
+    try {
+      Files.createDirectories(DIRECTORY);
+      if (url.equals(LoadTestProfile.H2_URL)) {
+        // A fresh file per run, so schema changes never meet an old migration history
+        Files.deleteIfExists(DIRECTORY.resolve("loadtest.mv.db"));
+      }
+      Flyway.configure()
+          .dataSource(url, username, password)
+          .locations(
+              config
+                  .getOrDefault("quarkus.flyway.locations", "db/migration/common,db/migration/h2")
+                  .split(","))
+          .load()
+          .migrate();
+
+      List<Location> locations = SyntheticLocations.generate(locationCount, spec.seed);
+      Path catalog = DIRECTORY.resolve("locations.csv").toAbsolutePath();
+      SyntheticLocations.write(locations, catalog);
+
+      DatasetGenerator.Summary summary;
+      long start = System.nanoTime();
+      try (Connection connection = DriverManager.getConnection(url, username, password)) {
+        DatasetLoader loader = new DatasetLoader(connection);
+        loader.clear();
+        summary = new DatasetGenerator(spec, locations).generate(loader);
+      }
+      LOGGER.infof("Loaded %s in %d ms", summary, (System.nanoTime() - start) / 1_000_000);
+
+      return Map.of(
+          "location.catalog.file", catalog.toString(),
+          "loadtest.dataset.stores", Long.toString(summary.stores()),
+          "loadtest.dataset.products", Long.toString(summary.products()),
+          "loadtest.dataset.warehouses", Long.toString(summary.warehouses()),
+          "loadtest.dataset.associations", Long.toString(summary.associations()),
+          "loadtest.dataset.seed", Long.toString(spec.seed),
+          "loadtest.dataset.skew", Double.toString(spec.skew));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Could not load the load test dataset", e);
+    }
+  }
+
+  @Override
+  public void stop() {}
+}
@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application for {@link LoadTest} on a database of its own: an H2 file database in
+ * PostgreSQL mode under {@code target/loadtest} by default, or the PostgreSQL database given with
+ * {@code -Dloadtest.jdbc-url}, whose content is replaced. The store outbox is dispatched in the
+ * background as in production and spans are not written to a file.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+  static final String H2_URL = "jdbc:h2:file:./target/loadtest/loadtest;MODE=PostgreSQL";
+
+  @Override
+  public Map<String, String> getConfigOverrides() {
+    Map<String, String> config = new HashMap<>();
+    String url = System.getProperty("loadtest.jdbc-url");
+    if (url != null && url.startsWith("jdbc:postgresql:")) {
+      config.put("quarkus.datasource.db-kind", "postgresql");
+      config.put("quarkus.datasource.jdbc.url", url);
+      config.put(
+          "quarkus.datasource.username", System.getProperty("loadtest.username", "postgres"));
+      config.put(
+          "quarkus.datasource.password", System.getProperty("loadtest.password", "admin"));
+      config.put("quarkus.flyway.locations", "db/migration/common,db/migration/postgresql");
+    } else if (url != null) {
+      throw new IllegalArgumentException("Only PostgreSQL URLs are supported: " + url);
+    } else {
+      config.put("quarkus.datasource.jdbc.url", H2_URL);
+    }
+    config.put("quarkus.datasource.jdbc.max-size", System.getProperty("loadtest.pool-size", "20"));
+    config.put("store.outbox.dispatch-interval", "1s");
+    config.put("store.outbox.coalesce-window", "500ms");
+    config.put("tracing.export.file", "");
+    return config;
+  }
+
+  @Override
+  public List<TestResourceEntry> testResources() {
+    return List.of(new TestResourceEntry(LoadTestDatabase.class, getConfigOverrides()));
+  }
+}
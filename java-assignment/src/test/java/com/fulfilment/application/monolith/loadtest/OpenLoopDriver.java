@@ -0,0 +1,114 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends requests at a fixed rate whether or not earlier ones have been answered, the way
+ * independent clients do. A slow server therefore builds a queue instead of slowing the load down,
+ * and every latency is measured from the moment the request was due rather than from when it was
+ * actually sent, so a stalled scheduler or connection pool shows up in the percentiles instead of
+ * hiding them.
+ *
+ * <p>At most {@code maxInFlight} requests are outstanding; a request due while that many are
+ * waiting is not sent and counted as a failure. Requests due in the warmup are sent but not
+ * recorded.
+ */
+final class OpenLoopDriver {
+
+  private static final Pattern ERROR_CODE = Pattern.compile("\"errorCode\"\\s*:\\s*\"([A-Z_]+)\"");
+
+  private final HttpClient client;
+  private final URI base;
+  private final LoadMix mix;
+  private final LoadTargets targets;
+  private final double ratePerSecond;
+  private final int maxInFlight;
+
+  OpenLoopDriver(
+      HttpClient client,
+      URI base,
+      LoadMix mix,
+      LoadTargets targets,
+      double ratePerSecond,
+      int maxInFlight) {
+    if (!(ratePerSecond > 0) || maxInFlight < 1) {
+      throw new IllegalArgumentException("Rate and in-flight limit must be positive");
+    }
+    this.client = client;
+    this.base = base;
+    this.mix = mix;
+    this.targets = targets;
+    this.ratePerSecond = ratePerSecond;
+    this.maxInFlight = maxInFlight;
+  }
+
+  LoadResults run(Duration warmup, Duration measured, long seed) throws InterruptedException {
+    LoadResults results = new LoadResults();
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    SplittableRandom random = new SplittableRandom(seed);
+    long start = System.nanoTime();
+    long measuredFrom = start + warmup.toNanos();
+    long end = measuredFrom + measured.toNanos();
+    for (long n = 0; ; n++) {
+      long due = start + (long) (n * 1e9 / ratePerSecond);
+      if (due - end >= 0) {
+        break;
+      }
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      LoadOperation operation = mix.pick(random);
+      var request = operation.request(base, targets, random);
+      boolean recorded = due - measuredFrom >= 0;
+      if (!inFlight.tryAcquire()) {
+        if (recorded) {
+          results.notSent(operation.label);
+        }
+        continue;
+      }
+      client
+          .sendAsync(request, BodyHandlers.ofString())
+          .whenComplete(
+              (response, failure) -> {
+                long latency = System.nanoTime() - due;
+                if (recorded) {
+                  results.record(operation.label, latency, outcome(response, failure));
+                }
+                // Released only once recorded, so draining all permits means the results are final
+                inFlight.release();
+              });
+    }
+    // Every request times out eventually, so all permits come back
+    long drain = LoadOperation.REQUEST_TIMEOUT.plusSeconds(5).toMillis();
+    if (!inFlight.tryAcquire(maxInFlight, drain, TimeUnit.MILLISECONDS)) {
+      throw new IllegalStateException("Requests still outstanding after " + drain + " ms");
+    }
+    return results;
+  }
+
+  /** {@code ok}, the status with the error code of the body if any, or the failure's type. */
+  static String outcome(HttpResponse<String> response, Throwable failure) {
+    if (failure != null) {
+      Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+      return cause.getClass().getSimpleName();
+    }
+    int status = response.statusCode();
+    if (status >= 200 && status < 300) {
+      return LoadResults.OK;
+    }
+    Matcher code = ERROR_CODE.matcher(response.body() != null ? response.body() : "");
+    return code.find() ? status + " " + code.group(1) : Integer.toString(status);
+  }
+}
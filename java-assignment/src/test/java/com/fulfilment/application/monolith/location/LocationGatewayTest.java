@@ -3,16 +3,25 @@ package com.fulfilment.application.monolith.location;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class LocationGatewayTest {
 
+  @TempDir Path catalogDirectory;
+
   private LocationGateway locationGateway;
 
   @BeforeEach
   void setUp() {
     locationGateway = new LocationGateway();
+    locationGateway.init();
   }
 
   @Test
@@ -146,4 +155,129 @@ class LocationGatewayTest {
     // then
     assertNull(location); // Should not match partial identifier
   }
+
+  @Test
+  void shouldReturnNullForNullIdentifier() {
+    assertNull(locationGateway.resolveByIdentifier(null));
+  }
+
+  @Test
+  void shouldLoadBundledCatalogByDefault() {
+    // when
+    LocationCatalog catalog = locationGateway.getCatalog();
+
+    // then
+    assertEquals(8, catalog.size());
+    assertEquals("classpath:locations.csv", catalog.getSource());
+    assertNotNull(catalog.getLoadTime());
+    assertFalse(locationGateway.reloadIfChanged());
+  }
+
+  @Test
+  void shouldLoadCatalogFromFileAndReloadItWhenItChanges() throws Exception {
+    // given
+    Path file = catalogDirectory.resolve("locations.csv");
+    Files.writeString(
+        file, "identification,maxNumberOfWarehouses,maxCapacity\nROTTERDAM-001,4,80\n");
+    locationGateway.catalogFile = Optional.of(file.toString());
+
+    // when
+    assertTrue(locationGateway.reloadIfChanged());
+
+    // then
+    assertEquals(1, locationGateway.getCatalog().size());
+    assertEquals(80, locationGateway.resolveByIdentifier("ROTTERDAM-001").maxCapacity);
+    assertNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+    assertFalse(locationGateway.reloadIfChanged());
+
+    // when the file is replaced
+    Files.writeString(file, "ROTTERDAM-001,4,80\nUTRECHT-001,2,60\n");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+
+    // then
+    assertTrue(locationGateway.reloadIfChanged());
+    assertEquals(2, locationGateway.getCatalog().size());
+    assertEquals(2, locationGateway.resolveByIdentifier("UTRECHT-001").maxNumberOfWarehouses);
+  }
+
+  @Test
+  void shouldLoadOnlyTheConfiguredFileAtStartup() throws Exception {
+    // given
+    Path file = catalogDirectory.resolve("locations.csv");
+    Files.writeString(file, "ROTTERDAM-001,4,80\n");
+    LocationGateway gateway = new LocationGateway();
+    gateway.catalogFile = Optional.of(file.toString());
+
+    // when
+    gateway.init();
+
+    // then
+    assertEquals(file.toString(), gateway.getCatalog().getSource());
+    assertEquals(1, gateway.getCatalog().size());
+  }
+
+  @Test
+  void shouldFallBackToBundledCatalogWhenFileFailsAtStartup() {
+    // given
+    LocationGateway gateway = new LocationGateway();
+    gateway.catalogFile = Optional.of(catalogDirectory.resolve("missing.csv").toString());
+
+    // when
+    gateway.init();
+
+    // then
+    assertEquals("classpath:locations.csv", gateway.getCatalog().getSource());
+    assertNotNull(gateway.resolveByIdentifier("ZWOLLE-001"));
+  }
+
+  @Test
+  void shouldKeepCurrentCatalogWhenFileIsInvalid() throws Exception {
+    // given
+    Path file = catalogDirectory.resolve("broken.csv");
+    Files.writeString(file, "ROTTERDAM-001,4,80\nUTRECHT-001,not-a-number,60\n");
+    locationGateway.catalogFile = Optional.of(file.toString());
+
+    // when
+    boolean reloaded = locationGateway.reloadIfChanged();
+
+    // then
+    assertFalse(reloaded);
+    assertEquals(8, locationGateway.getCatalog().size());
+    assertNotNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+  }
+
+  @Test
+  void shouldRejectDuplicateLocations() throws Exception {
+    // given
+    Path file = catalogDirectory.resolve("duplicates.csv");
+    Files.writeString(file, "ROTTERDAM-001,4,80\nROTTERDAM-001,2,60\n");
+    locationGateway.catalogFile = Optional.of(file.toString());
+
+    // when & then
+    assertFalse(locationGateway.reloadIfChanged());
+    assertNull(locationGateway.resolveByIdentifier("ROTTERDAM-001"));
+  }
+
+  @Test
+  void shouldFindNearestBundledLocations() {
+    // when - a point in Eindhoven
+    var nearest = locationGateway.findNearest(51.44, 5.47, 2, l -> true);
+
+    // then
+    assertEquals(2, nearest.size());
+    assertEquals("EINDHOVEN-001", nearest.get(0).location.identification);
+    assertEquals("HELMOND-001", nearest.get(1).location.identification);
+    assertTrue(nearest.get(0).distanceKm < nearest.get(1).distanceKm);
+  }
+
+  @Test
+  void shouldFindLocationsWithinRadius() {
+    // when - 10 km around Amsterdam
+    var within = locationGateway.findWithinRadius(52.36, 4.90, 10, l -> true);
+
+    // then
+    assertEquals(2, within.size());
+    assertTrue(
+        within.stream().allMatch(n -> n.location.identification.startsWith("AMSTERDAM-")));
+  }
 }
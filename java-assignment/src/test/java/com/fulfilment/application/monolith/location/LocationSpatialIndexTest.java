@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class LocationSpatialIndexTest {
+
+  @Test
+  void shouldComputeGreatCircleDistances() {
+    // given
+    Location amsterdam = new Location("AMSTERDAM-001", 5, 100, 52.3676, 4.9041);
+    Location eindhoven = new Location("EINDHOVEN-001", 2, 70, 51.4416, 5.4697);
+    LocationSpatialIndex index = new LocationSpatialIndex(List.of(amsterdam, eindhoven));
+
+    // when
+    List<NearbyLocation> nearest = index.nearest(52.3676, 4.9041, 2, l -> true);
+
+    // then
+    assertEquals("AMSTERDAM-001", nearest.get(0).location.identification);
+    assertEquals(0, nearest.get(0).distanceKm, 0.001);
+    assertEquals("EINDHOVEN-001", nearest.get(1).location.identification);
+    assertEquals(110, nearest.get(1).distanceKm, 2);
+  }
+
+  @Test
+  void shouldSkipLocationsWithoutCoordinates() {
+    // given
+    LocationSpatialIndex index =
+        new LocationSpatialIndex(
+            List.of(new Location("NOWHERE-001", 1, 10), new Location("HERE-001", 1, 10, 0.0, 0.0)));
+
+    // when
+    List<NearbyLocation> nearest = index.nearest(0, 0, 5, l -> true);
+
+    // then
+    assertEquals(1, nearest.size());
+    assertEquals("HERE-001", nearest.get(0).location.identification);
+  }
+
+  @Test
+  void shouldMatchBruteForceForNearestAndRadiusQueries() {
+    // given
+    Random random = new Random(42);
+    List<Location> locations = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      locations.add(
+          new Location(
+              "LOC-" + i,
+              1 + random.nextInt(5),
+              random.nextInt(200),
+              random.nextDouble() * 180 - 90,
+              random.nextDouble() * 360 - 180));
+    }
+    LocationSpatialIndex index = new LocationSpatialIndex(locations);
+    Predicate<Location> filter = l -> l.maxCapacity >= 50;
+
+    for (int query = 0; query < 50; query++) {
+      double latitude = random.nextDouble() * 180 - 90;
+      double longitude = random.nextDouble() * 360 - 180;
+      List<NearbyLocation> expected = bruteForce(locations, latitude, longitude, filter);
+
+      // when
+      List<NearbyLocation> nearest = index.nearest(latitude, longitude, 7, filter);
+      List<NearbyLocation> within = index.withinRadius(latitude, longitude, 1500, filter);
+
+      // then
+      assertEquals(names(expected.subList(0, 7)), names(nearest));
+      assertEquals(
+          names(expected.stream().filter(n -> n.distanceKm <= 1500).toList()), names(within));
+    }
+  }
+
+  private static List<NearbyLocation> bruteForce(
+      List<Location> locations, double latitude, double longitude, Predicate<Location> filter) {
+    return locations.stream()
+        .filter(filter)
+        .map(l -> new NearbyLocation(l, haversine(latitude, longitude, l.latitude, l.longitude)))
+        .sorted(Comparator.comparingDouble(n -> n.distanceKm))
+        .toList();
+  }
+
+  private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a =
+        Math.pow(Math.sin(dLat / 2), 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.pow(Math.sin(dLon / 2), 2);
+    return 2 * LocationSpatialIndex.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+  }
+
+  private static List<String> names(List<NearbyLocation> nearby) {
+    return nearby.stream().map(n -> n.location.identification).toList();
+  }
+}
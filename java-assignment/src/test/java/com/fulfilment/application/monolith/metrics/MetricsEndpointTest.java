@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.metrics;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.matchesPattern;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class MetricsEndpointTest {
+
+  @Test
+  public void shouldExposeEndpointRepositoryAndStatementMetrics() {
+    // given
+    given().when().get("product").then().statusCode(200);
+    given().when().get("fulfillment").then().statusCode(200);
+    given().when().get("warehouse/MWH.001").then().statusCode(200);
+    given().when().get("warehouse/MWH.NONE").then().statusCode(404);
+
+    // when / then
+    given()
+        .when()
+        .get("/q/metrics")
+        .then()
+        .statusCode(200)
+        .body(
+            allOf(
+                containsString("http_server_requests_seconds_bucket{"),
+                containsString("uri=\"/fulfillment\""),
+                containsString("status=\"404\""),
+                containsString("app_method_seconds_count{class=\"FulfillmentService\""),
+                containsString("class=\"WarehouseRepository\""),
+                containsString("http_server_sql_statements_bucket{"),
+                containsString("resource=\"WarehouseResourceImpl\""),
+                // listing products runs at least one query
+                matchesPattern(
+                    "(?s).*http_server_sql_statements_sum\\{method=\"get\","
+                        + "resource=\"ProductResource\",?} [1-9].*")));
+  }
+}
@@ -144,4 +144,79 @@ class ProductResourceTest {
         .then()
         .statusCode(422);
   }
+
+  @Test
+  void shouldFoldAndApplyStockMovements() {
+    Long first = createProduct(10);
+    Long second = createProduct(5);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "[{\"productId\": " + second + ", \"delta\": 4},"
+                + " {\"productId\": " + first + ", \"delta\": -3},"
+                + " {\"productId\": " + first + ", \"delta\": -2},"
+                + " {\"productId\": " + first + ", \"delta\": 1}]")
+        .when()
+        .post("/product/stock-movements")
+        .then()
+        .statusCode(200)
+        .body("size()", is(2))
+        .body("[0].productId", is(first.intValue()))
+        .body("[0].delta", is(-4))
+        .body("[0].movements", is(3))
+        .body("[0].status", is("APPLIED"))
+        .body("[0].stock", is(6))
+        .body("[1].stock", is(9));
+
+    given().when().get("/product/" + first).then().statusCode(200).body("stock", is(6));
+  }
+
+  @Test
+  void shouldReportRejectedStockMovementsPerProduct() {
+    Long product = createProduct(2);
+    Long other = createProduct(0);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "[{\"productId\": " + product + ", \"delta\": -3},"
+                + " {\"productId\": " + other + ", \"delta\": 7},"
+                + " {\"productId\": 999990, \"delta\": 1}]")
+        .when()
+        .post("/product/stock-movements")
+        .then()
+        .statusCode(200)
+        .body("size()", is(3))
+        .body("find { it.productId == " + product + " }.status", is("INSUFFICIENT_STOCK"))
+        .body("find { it.productId == " + other + " }.status", is("APPLIED"))
+        .body("find { it.productId == " + other + " }.stock", is(7))
+        .body("find { it.productId == 999990 }.status", is("NOT_FOUND"));
+
+    given().when().get("/product/" + product).then().statusCode(200).body("stock", is(2));
+  }
+
+  @Test
+  void shouldRejectIncompleteStockMovements() {
+    given()
+        .contentType(ContentType.JSON)
+        .body("[{\"productId\": 1}]")
+        .when()
+        .post("/product/stock-movements")
+        .then()
+        .statusCode(422);
+  }
+
+  private Long createProduct(int stock) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"" + uniqueName() + "\", \"stock\": " + stock + "}")
+        .when()
+        .post("/product")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
 }
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.schema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class SchemaIndexVerifierTest {
+
+  @Inject SchemaIndexVerifier schemaIndexVerifier;
+
+  @Test
+  void shouldFindAllIndexesCreatedByMigrations() throws Exception {
+    // when
+    List<String> missing = schemaIndexVerifier.findMissingIndexes();
+
+    // then
+    assertTrue(missing.isEmpty(), "missing indexes: " + missing);
+  }
+}
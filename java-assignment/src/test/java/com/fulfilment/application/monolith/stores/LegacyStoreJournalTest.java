@@ -0,0 +1,171 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LegacyStoreJournalTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void shouldReplayAppendedRecordsWithTheirOffsets() throws Exception {
+    // given
+    LegacyStoreJournal journal = new LegacyStoreJournal(directory.toString(), 1024);
+    long first = journal.append(bytes("first"));
+    long second = journal.append(bytes("second"));
+
+    // when
+    List<String> replayed = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+    journal.replay(
+        0,
+        (offset, payload) -> {
+          offsets.add(offset);
+          replayed.add(new String(payload, StandardCharsets.UTF_8));
+        });
+
+    // then
+    assertEquals(List.of("first", "second"), replayed);
+    assertEquals(List.of(first, second), offsets);
+    assertEquals(0, first);
+    journal.close();
+  }
+
+  @Test
+  void shouldRollSegmentsAndReplayFromAnyOffset() throws Exception {
+    // given - room for about three records per segment
+    LegacyStoreJournal journal = new LegacyStoreJournal(directory.toString(), 64);
+    List<Long> offsets = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      offsets.add(journal.append(bytes("record-" + i)));
+    }
+
+    // when
+    List<String> replayed = new ArrayList<>();
+    journal.replay(offsets.get(4), (offset, payload) -> replayed.add(string(payload)));
+
+    // then
+    assertTrue(journal.getSegmentCount() > 1);
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(journal.getSegmentCount(), files.count());
+    }
+    assertEquals(6, replayed.size());
+    assertEquals("record-4", replayed.get(0));
+    assertEquals("record-9", replayed.get(5));
+    journal.close();
+  }
+
+  @Test
+  void shouldContinueAfterReopeningAndDropATornRecord() throws Exception {
+    // given
+    LegacyStoreJournal journal = new LegacyStoreJournal(directory.toString(), 1024);
+    journal.append(bytes("kept"));
+    long end = journal.getEndOffset();
+    journal.close();
+    Path segment;
+    try (Stream<Path> files = Files.list(directory)) {
+      segment = files.findFirst().orElseThrow();
+    }
+    // half of a record header, as left behind by a crash
+    Files.write(segment, new byte[] {0, 0}, StandardOpenOption.APPEND);
+
+    // when
+    LegacyStoreJournal reopened = new LegacyStoreJournal(directory.toString(), 1024);
+    long next = reopened.append(bytes("after restart"));
+
+    // then
+    assertEquals(end, next);
+    List<String> replayed = new ArrayList<>();
+    reopened.replay(0, (offset, payload) -> replayed.add(string(payload)));
+    assertEquals(List.of("kept", "after restart"), replayed);
+    reopened.close();
+  }
+
+  @Test
+  void shouldDropThePartOfAFailedAppendThatReachedTheSegment() throws Exception {
+    // given - a disk that fills up after the header of the next record
+    AtomicBoolean diskFull = new AtomicBoolean();
+    LegacyStoreJournal journal =
+        new LegacyStoreJournal(directory.toString(), 1024) {
+          @Override
+          void write(FileChannel segment, ByteBuffer[] record) throws IOException {
+            if (diskFull.get()) {
+              segment.write(record[0]);
+              throw new IOException("No space left on device");
+            }
+            super.write(segment, record);
+          }
+        };
+    journal.append(bytes("before"));
+    long end = journal.getEndOffset();
+    diskFull.set(true);
+
+    // when
+    assertThrows(IOException.class, () -> journal.append(bytes("failed")));
+    diskFull.set(false);
+    long next = journal.append(bytes("after"));
+
+    // then
+    assertEquals(end, next);
+    List<String> replayed = new ArrayList<>();
+    journal.replay(0, (offset, payload) -> replayed.add(string(payload)));
+    assertEquals(List.of("before", "after"), replayed);
+    journal.close();
+    List<String> reopened = new ArrayList<>();
+    LegacyStoreJournal restarted = new LegacyStoreJournal(directory.toString(), 1024);
+    restarted.replay(0, (offset, payload) -> reopened.add(string(payload)));
+    assertEquals(List.of("before", "after"), reopened);
+    restarted.close();
+  }
+
+  @Test
+  void shouldKeepEveryRecordOfConcurrentWriters() throws Exception {
+    // given
+    LegacyStoreJournal journal = new LegacyStoreJournal(directory.toString(), 4096);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<Long>> appends = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < 200; i++) {
+      byte[] payload = bytes("event-" + i);
+      appends.add(executor.submit(() -> journal.append(payload)));
+    }
+    List<Long> offsets = new ArrayList<>();
+    for (Future<Long> append : appends) {
+      offsets.add(append.get());
+    }
+    executor.shutdown();
+
+    // then
+    List<Long> replayedOffsets = Collections.synchronizedList(new ArrayList<>());
+    journal.replay(0, (offset, payload) -> replayedOffsets.add(offset));
+    Collections.sort(offsets);
+    assertEquals(offsets, replayedOffsets);
+    journal.close();
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] payload) {
+    return new String(payload, StandardCharsets.UTF_8);
+  }
+}
@@ -2,16 +2,32 @@ package com.fulfilment.application.monolith.stores;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class LegacyStoreManagerGatewayTest {
 
+  @TempDir Path journalDirectory;
+
+  private LegacyStoreJournal journal;
+
   private LegacyStoreManagerGateway gateway;
 
   @BeforeEach
   void setUp() {
-    gateway = new LegacyStoreManagerGateway();
+    journal = new LegacyStoreJournal(journalDirectory.toString(), 1024);
+    gateway = new LegacyStoreManagerGateway(journal);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    journal.close();
   }
 
   @Test
@@ -59,4 +75,25 @@ class LegacyStoreManagerGatewayTest {
     // when & then - just verify it doesn't throw
     gateway.onStoreEvent(event);
   }
+
+  @Test
+  void shouldAppendEventsToTheJournal() throws Exception {
+    // given
+    Store store = new Store("Journal Store");
+    store.id = 5L;
+    store.quantityProductsInStock = 12;
+
+    // when
+    gateway.onStoreEvent(new StoreEvent(store, StoreEvent.Type.CREATED));
+    gateway.onStoreEvent(new StoreEvent(store, StoreEvent.Type.UPDATED));
+
+    // then
+    List<String> records = new ArrayList<>();
+    journal.replay(
+        0, (offset, payload) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+    assertEquals(2, records.size());
+    assertTrue(records.get(0).startsWith("Store created."));
+    assertTrue(records.get(1).startsWith("Store updated."));
+    assertTrue(records.get(1).contains("items on stock =12"));
+  }
 }
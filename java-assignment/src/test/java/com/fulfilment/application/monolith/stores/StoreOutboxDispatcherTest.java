@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StoreOutboxDispatcherTest {
+
+  @Mock private StoreOutboxRepository outboxRepository;
+
+  @Mock private LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+  private StoreOutboxDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    dispatcher =
+        new StoreOutboxDispatcher(
+            outboxRepository,
+            legacyStoreManagerGateway,
+            100,
+            Duration.ofSeconds(1),
+            Duration.ofMinutes(5));
+  }
+
+  @Test
+  void shouldDeliverEntriesAndRemoveThem() {
+    // given
+    StoreOutboxEntry first = entry(1L, StoreEvent.Type.CREATED, "TONSTAD");
+    StoreOutboxEntry second = entry(2L, StoreEvent.Type.UPDATED, "KALLAX");
+    when(outboxRepository.findDispatchable(any(), anyInt())).thenReturn(List.of(first, second));
+
+    // when
+    int delivered = dispatcher.dispatchBatch();
+
+    // then
+    assertEquals(2, delivered);
+    InOrder inOrder = inOrder(legacyStoreManagerGateway, outboxRepository);
+    inOrder
+        .verify(legacyStoreManagerGateway)
+        .onStoreEvent(argThat(e -> "TONSTAD".equals(e.getStore().name)));
+    inOrder.verify(outboxRepository).delete(first);
+    inOrder
+        .verify(legacyStoreManagerGateway)
+        .onStoreEvent(argThat(e -> "KALLAX".equals(e.getStore().name)));
+    inOrder.verify(outboxRepository).delete(second);
+    assertEquals(2, dispatcher.getSentEvents());
+    assertEquals(0, dispatcher.getMergedEvents());
+  }
+
+  @Test
+  void shouldCoalesceEventsOfOneStoreIntoItsLatestState() {
+    // given
+    StoreOutboxEntry created = entry(1L, StoreEvent.Type.CREATED, "TONSTAD");
+    StoreOutboxEntry updated = entry(1L, StoreEvent.Type.UPDATED, "TONSTAD-2");
+    StoreOutboxEntry updatedAgain = entry(1L, StoreEvent.Type.UPDATED, "TONSTAD-3");
+    when(outboxRepository.findDispatchable(any(), anyInt()))
+        .thenReturn(List.of(created, updated, updatedAgain));
+
+    // when
+    int delivered = dispatcher.dispatchBatch();
+
+    // then
+    assertEquals(3, delivered);
+    verify(legacyStoreManagerGateway)
+        .onStoreEvent(
+            argThat(
+                e ->
+                    e.getType() == StoreEvent.Type.CREATED
+                        && "TONSTAD-3".equals(e.getStore().name)));
+    verifyNoMoreInteractions(legacyStoreManagerGateway);
+    verify(outboxRepository).delete(created);
+    verify(outboxRepository).delete(updated);
+    verify(outboxRepository).delete(updatedAgain);
+    assertEquals(1, dispatcher.getSentEvents());
+    assertEquals(2, dispatcher.getMergedEvents());
+  }
+
+  @Test
+  void shouldRetryStoreWhoseDeliveryFailedWithoutBlockingOthers() {
+    // given
+    StoreOutboxEntry failing = entry(1L, StoreEvent.Type.UPDATED, "FAILING");
+    StoreOutboxEntry laterOfSameStore = entry(1L, StoreEvent.Type.UPDATED, "FAILING");
+    StoreOutboxEntry otherStore = entry(2L, StoreEvent.Type.CREATED, "KALLAX");
+    when(outboxRepository.findDispatchable(any(), anyInt()))
+        .thenReturn(List.of(failing, laterOfSameStore, otherStore));
+    doThrow(new IllegalStateException("legacy system down"))
+        .when(legacyStoreManagerGateway)
+        .onStoreEvent(argThat(e -> "FAILING".equals(e.getStore().name)));
+
+    // when
+    int delivered = dispatcher.dispatchBatch();
+
+    // then
+    assertEquals(1, delivered);
+    verify(outboxRepository).delete(otherStore);
+    verify(outboxRepository, never()).delete(failing);
+    verify(outboxRepository, never()).delete(laterOfSameStore);
+    assertEquals(1, failing.attempts);
+    assertTrue(failing.nextAttemptAt.isAfter(LocalDateTime.now()));
+    assertTrue(failing.lastError.contains("legacy system down"));
+    assertEquals(0, laterOfSameStore.attempts);
+    assertEquals(1, dispatcher.getSentEvents());
+  }
+
+  @Test
+  void shouldDoubleBackoffUpToTheMaximum() {
+    assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+    assertEquals(Duration.ofSeconds(2), dispatcher.backoff(2));
+    assertEquals(Duration.ofSeconds(8), dispatcher.backoff(4));
+    assertEquals(Duration.ofMinutes(5), dispatcher.backoff(30));
+  }
+
+  private StoreOutboxEntry entry(Long storeId, StoreEvent.Type type, String name) {
+    Store store = new Store(name);
+    store.id = storeId;
+    return new StoreOutboxEntry(new StoreEvent(store, type), LocalDateTime.now());
+  }
+}
@@ -0,0 +1,110 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class StoreOutboxTest {
+
+  @Inject StoreOutboxRepository outboxRepository;
+
+  @Inject StoreOutboxDispatcher dispatcher;
+
+  @Test
+  void shouldRecordStoreEventsAndDeliverThemInTheBackground() {
+    String name = "Outbox-" + UUID.randomUUID().toString().substring(0, 8);
+    Long id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 7}")
+            .when()
+            .post("/store")
+            .then()
+            .statusCode(201)
+            .extract()
+            .jsonPath()
+            .getLong("id");
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 8}")
+        .when()
+        .put("/store/" + id)
+        .then()
+        .statusCode(200);
+
+    assertEquals(2, pendingFor(id));
+
+    long sentBefore = dispatcher.getSentEvents();
+    long mergedBefore = dispatcher.getMergedEvents();
+
+    dispatcher.drainAt(LocalDateTime.now().plus(coalesceWindow()));
+
+    // the creation and the update reach the legacy system as one event; other tests' stores may
+    // be drained in the same run
+    assertEquals(0, pendingFor(id));
+    assertTrue(dispatcher.getSentEvents() - sentBefore >= 1);
+    assertTrue(dispatcher.getMergedEvents() - mergedBefore >= 1);
+    given()
+        .when()
+        .get("/store/outbox/stats")
+        .then()
+        .statusCode(200)
+        .body("sent", greaterThanOrEqualTo(1))
+        .body("merged", greaterThanOrEqualTo(1));
+  }
+
+  @Test
+  void shouldCoalesceChangesWhoseWindowsStraddleADispatchTick() {
+    String name = "Outbox-" + UUID.randomUUID().toString().substring(0, 8);
+    Long id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 7}")
+            .when()
+            .post("/store")
+            .then()
+            .statusCode(201)
+            .extract()
+            .jsonPath()
+            .getLong("id");
+    LocalDateTime windowEnd =
+        QuarkusTransaction.requiringNew()
+            .call(() -> outboxRepository.findOldestPendingForStore(id).nextAttemptAt);
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 8}")
+        .when()
+        .put("/store/" + id)
+        .then()
+        .statusCode(200);
+
+    long mergedBefore = dispatcher.getMergedEvents();
+
+    // the tick falls after the creation's window closes but before the update's own would
+    dispatcher.drainAt(windowEnd);
+
+    assertEquals(0, pendingFor(id));
+    assertTrue(dispatcher.getMergedEvents() - mergedBefore >= 1);
+  }
+
+  private static Duration coalesceWindow() {
+    return ConfigProvider.getConfig().getValue("store.outbox.coalesce-window", Duration.class);
+  }
+
+  private long pendingFor(Long storeId) {
+    return QuarkusTransaction.requiringNew()
+        .call(() -> outboxRepository.countPendingForStore(storeId));
+  }
+}
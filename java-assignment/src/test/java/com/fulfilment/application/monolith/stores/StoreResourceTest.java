@@ -3,10 +3,18 @@ package com.fulfilment.application.monolith.stores;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -203,4 +211,93 @@ class StoreResourceTest {
         .then()
         .statusCode(422);
   }
+
+  @Test
+  void shouldAdjustStockByDelta() {
+    Long id = createStore(10);
+
+    adjustStock(id, 5).then().statusCode(200).body("quantityProductsInStock", is(15));
+    adjustStock(id, -15).then().statusCode(200).body("quantityProductsInStock", is(0));
+
+    given()
+        .when()
+        .get("/store/" + id)
+        .then()
+        .statusCode(200)
+        .body("quantityProductsInStock", is(0));
+  }
+
+  @Test
+  void shouldRejectStockDeltaBelowZero() {
+    Long id = createStore(2);
+
+    adjustStock(id, -3).then().statusCode(409);
+
+    given()
+        .when()
+        .get("/store/" + id)
+        .then()
+        .statusCode(200)
+        .body("quantityProductsInStock", is(2));
+  }
+
+  @Test
+  void shouldRejectStockDeltaForUnknownStoreOrMissingDelta() {
+    adjustStock(999995L, 1).then().statusCode(404);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body("{}")
+        .when()
+        .post("/store/" + createStore(1) + "/stock")
+        .then()
+        .statusCode(422);
+  }
+
+  @Test
+  void shouldNotLoseConcurrentStockDeltas() throws Exception {
+    Long id = createStore(100);
+    int requests = 40;
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < requests; i++) {
+        int delta = i % 2 == 0 ? 3 : -1;
+        statuses.add(executor.submit(() -> adjustStock(id, delta).statusCode()));
+      }
+      for (Future<Integer> status : statuses) {
+        assertEquals(200, status.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    given()
+        .when()
+        .get("/store/" + id)
+        .then()
+        .statusCode(200)
+        .body("quantityProductsInStock", is(100 + requests / 2 * 3 - requests / 2));
+  }
+
+  private Long createStore(int stock) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"" + uniqueName() + "\", \"quantityProductsInStock\": " + stock + "}")
+        .when()
+        .post("/store")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
+
+  private Response adjustStock(Long id, int delta) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": " + delta + "}")
+        .when()
+        .post("/store/" + id + "/stock");
+  }
 }
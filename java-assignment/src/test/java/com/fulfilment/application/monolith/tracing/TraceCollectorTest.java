@@ -0,0 +1,72 @@
+package com.fulfilment.application.monolith.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class TraceCollectorTest {
+
+  @Test
+  void shouldKeepOnlyTheMostRecentSpans() {
+    // given
+    TraceCollector collector = new TraceCollector(3);
+    Tracer tracer = tracer(collector);
+    List<String> traceIds = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < 5; i++) {
+      Span span = tracer.spanBuilder("span-" + i).startSpan();
+      traceIds.add(span.getSpanContext().getTraceId());
+      span.end();
+    }
+
+    // then
+    assertTrue(collector.trace(traceIds.get(0)).isEmpty());
+    assertTrue(collector.trace(traceIds.get(1)).isEmpty());
+    for (int i = 2; i < 5; i++) {
+      assertEquals("span-" + i, collector.trace(traceIds.get(i)).get(0).getName());
+    }
+    assertEquals(3, collector.slowestRoots(0, 10).size());
+  }
+
+  @Test
+  void shouldCollectSpansEndedConcurrently() throws Exception {
+    // given
+    TraceCollector collector = new TraceCollector(10_000);
+    Tracer tracer = tracer(collector);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> writers = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < 8; i++) {
+      writers.add(
+          executor.submit(
+              () -> {
+                for (int j = 0; j < 500; j++) {
+                  tracer.spanBuilder("concurrent").startSpan().end();
+                }
+              }));
+    }
+    for (Future<?> writer : writers) {
+      writer.get();
+    }
+    executor.shutdown();
+
+    // then
+    assertEquals(4000, collector.slowestRoots(0, Integer.MAX_VALUE).size());
+    collector.clear();
+    assertTrue(collector.slowestRoots(0, Integer.MAX_VALUE).isEmpty());
+  }
+
+  private static Tracer tracer(TraceCollector collector) {
+    return SdkTracerProvider.builder().addSpanProcessor(collector).build().get("test");
+  }
+}
@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.tracing;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.common.mapper.TypeRef;
+import io.restassured.http.ContentType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TraceResourceTest {
+
+  @Test
+  public void shouldCollectRequestUseCaseAndStatementSpans() throws Exception {
+    // given - the trace ids are chosen by the client through the W3C traceparent header
+    String productTrace = traceId();
+    String fulfillmentTrace = traceId();
+    Long productId =
+        given()
+            .header("traceparent", traceparent(productTrace))
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"TRACED-" + traceId().substring(0, 12) + "\", \"stock\": 5}")
+            .when()
+            .post("/product")
+            .then()
+            .statusCode(201)
+            .extract()
+            .jsonPath()
+            .getLong("id");
+
+    // when
+    given()
+        .header("traceparent", traceparent(fulfillmentTrace))
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"productId\": "
+                + productId
+                + ", \"warehouseCode\": \"MWH.NOTEXIST999\", \"storeId\": 999999}")
+        .when()
+        .post("/fulfillment")
+        .then()
+        .statusCode(400);
+
+    // then - the product insert is a statement span under the request
+    List<Map<String, Object>> productSpans =
+        awaitSpans(productTrace, spans -> spans.stream().anyMatch(this::isStatement));
+    assertTrue(productSpans.stream().anyMatch(s -> "SERVER".equals(s.get("kind"))));
+
+    // and the rejected association is a failed use case span under the request
+    List<Map<String, Object>> fulfillmentSpans =
+        awaitSpans(fulfillmentTrace, spans -> spans.stream().anyMatch(this::isCreateAssociation));
+    Map<String, Object> createAssociation =
+        fulfillmentSpans.stream().filter(this::isCreateAssociation).findFirst().orElseThrow();
+    assertEquals("ERROR", createAssociation.get("status"));
+    assertTrue(
+        fulfillmentSpans.stream()
+            .anyMatch(s -> s.get("spanId").equals(createAssociation.get("parentSpanId"))));
+
+    // and both traces reach the trace file
+    Path file = Path.of("target/traces.jsonl");
+    long deadline = System.currentTimeMillis() + 20_000;
+    String content = "";
+    while (System.currentTimeMillis() < deadline) {
+      content = Files.exists(file) ? Files.readString(file) : "";
+      if (content.contains(productTrace) && content.contains(fulfillmentTrace)) {
+        break;
+      }
+      Thread.sleep(200);
+    }
+    assertTrue(content.contains(productTrace) && content.contains(fulfillmentTrace));
+  }
+
+  @Test
+  public void shouldListSlowestTracesAndRejectUnknownOnes() {
+    given().when().get("/traces").then().statusCode(200);
+    given().queryParam("limit", 0).when().get("/traces").then().statusCode(400);
+    given().when().get("/traces/" + traceId()).then().statusCode(404);
+  }
+
+  private List<Map<String, Object>> awaitSpans(
+      String traceId, Predicate<List<Map<String, Object>>> complete) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    List<Map<String, Object>> spans = List.of();
+    while (System.currentTimeMillis() < deadline) {
+      var response = given().when().get("/traces/" + traceId);
+      if (response.statusCode() == 200) {
+        spans = response.as(new TypeRef<>() {});
+        if (complete.test(spans)) {
+          return spans;
+        }
+      }
+      Thread.sleep(100);
+    }
+    fail("Trace " + traceId + " incomplete: " + spans);
+    return spans;
+  }
+
+  private boolean isStatement(Map<String, Object> span) {
+    return ((Map<?, ?>) span.get("attributes")).containsKey("db.statement");
+  }
+
+  private boolean isCreateAssociation(Map<String, Object> span) {
+    return "FulfillmentService.createAssociation".equals(span.get("name"));
+  }
+
+  private static String traceId() {
+    return UUID.randomUUID().toString().replace("-", "");
+  }
+
+  private static String traceparent(String traceId) {
+    return "00-" + traceId + "-" + traceId.substring(0, 16) + "-01";
+  }
+}
@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveWarehouseIndexTest {
+
+  @Mock private TransactionSynchronizationRegistry transactionRegistry;
+
+  private ActiveWarehouseIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ActiveWarehouseIndex(transactionRegistry);
+  }
+
+  @Test
+  void shouldPublishImmediatelyOutsideTransaction() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+
+    // when
+    index.put(createWarehouse("MWH.001", 100));
+
+    // then
+    assertEquals(100, index.get("MWH.001").capacity);
+    assertTrue(index.contains("MWH.001"));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void shouldReturnCopiesSoCallersCannotCorruptTheIndex() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    index.put(createWarehouse("MWH.001", 100));
+
+    // when
+    index.get("MWH.001").capacity = 5;
+
+    // then
+    assertEquals(100, index.get("MWH.001").capacity);
+  }
+
+  @Test
+  void shouldPublishTransactionalChangesOnlyAfterCommit() {
+    // given
+    Object transaction = new Object();
+    when(transactionRegistry.getTransactionKey()).thenReturn(transaction);
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+
+    // when
+    index.put(createWarehouse("MWH.002", 50));
+
+    // then - staged, not yet visible to other transactions
+    ArgumentCaptor<Synchronization> synchronization =
+        ArgumentCaptor.forClass(Synchronization.class);
+    verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    assertNull(index.get("MWH.002"));
+
+    // when
+    synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+    // then
+    assertEquals(50, index.get("MWH.002").capacity);
+  }
+
+  @Test
+  void shouldSeeOwnStagedChangesInsideTransaction() {
+    // given
+    Object transaction = new Object();
+    when(transactionRegistry.getTransactionKey()).thenReturn(transaction);
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+    index.put(createWarehouse("MWH.003", 30));
+    ArgumentCaptor<Object> pending = ArgumentCaptor.forClass(Object.class);
+    verify(transactionRegistry).putResource(any(), pending.capture());
+
+    // when
+    when(transactionRegistry.getResource(any())).thenReturn(pending.getValue());
+
+    // then
+    assertEquals(30, index.get("MWH.003").capacity);
+  }
+
+  @Test
+  void shouldDiscardChangesOnRollback() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    index.put(createWarehouse("MWH.004", 40));
+    when(transactionRegistry.getTransactionKey()).thenReturn(new Object());
+    when(transactionRegistry.getResource(any())).thenReturn(null);
+
+    // when
+    index.remove("MWH.004");
+    ArgumentCaptor<Synchronization> synchronization =
+        ArgumentCaptor.forClass(Synchronization.class);
+    verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+    synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+    // then
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    assertNotNull(index.get("MWH.004"));
+  }
+
+  @Test
+  void shouldReloadWholeIndex() {
+    // given
+    when(transactionRegistry.getTransactionKey()).thenReturn(null);
+    index.put(createWarehouse("MWH.OLD", 10));
+
+    // when
+    index.reload(List.of(createWarehouse("MWH.NEW", 20)));
+
+    // then
+    assertNull(index.get("MWH.OLD"));
+    assertEquals(20, index.get("MWH.NEW").capacity);
+  }
+
+  private Warehouse createWarehouse(String businessUnitCode, Integer capacity) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    warehouse.location = "AMSTERDAM-001";
+    warehouse.capacity = capacity;
+    warehouse.stock = 0;
+    return warehouse;
+  }
+}
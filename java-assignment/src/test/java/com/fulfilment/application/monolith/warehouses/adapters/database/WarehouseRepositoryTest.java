@@ -2,11 +2,17 @@ package com.fulfilment.application.monolith.warehouses.adapters.database;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -76,6 +82,18 @@ class WarehouseRepositoryTest {
     assertTrue(all.stream().allMatch(w -> w.archivedAt == null));
   }
 
+  @Test
+  @Order(4)
+  void shouldGetActiveWarehousesPageAfterBusinessUnitCode() {
+    // when
+    List<Warehouse> page = warehouseRepository.findActivePage("MWH.001", 2);
+
+    // then
+    assertTrue(page.size() <= 2);
+    assertTrue(page.stream().allMatch(w -> w.businessUnitCode.compareTo("MWH.001") > 0));
+    assertTrue(page.stream().allMatch(w -> w.archivedAt == null));
+  }
+
   @Test
   @Order(5)
   @Transactional
@@ -164,4 +182,123 @@ class WarehouseRepositoryTest {
     assertEquals(0, count);
     assertEquals(0, capacity);
   }
+
+  @Test
+  @Order(11)
+  @Transactional
+  void shouldMaintainLocationAggregateOnWrites() {
+    // given
+    Warehouse first = new Warehouse();
+    first.businessUnitCode = "MWH.AGG001";
+    first.location = "AGGREGATE-001";
+    first.capacity = 30;
+    first.stock = 5;
+    Warehouse second = new Warehouse();
+    second.businessUnitCode = "MWH.AGG002";
+    second.location = "AGGREGATE-001";
+    second.capacity = 20;
+    second.stock = 5;
+
+    // when
+    warehouseRepository.create(first);
+    warehouseRepository.create(second);
+
+    // then
+    LocationAggregate aggregate = warehouseRepository.getLocationAggregate("AGGREGATE-001");
+    assertEquals(2, aggregate.activeWarehouses);
+    assertEquals(50, aggregate.totalCapacity);
+
+    // when - move one warehouse, archive the other
+    first.location = "AGGREGATE-002";
+    first.capacity = 35;
+    warehouseRepository.update(first);
+    second.archivedAt = LocalDateTime.now();
+    warehouseRepository.update(second);
+
+    // then
+    assertEquals(0, warehouseRepository.getLocationAggregate("AGGREGATE-001").activeWarehouses);
+    assertEquals(0, warehouseRepository.getLocationAggregate("AGGREGATE-001").totalCapacity);
+    assertEquals(1, warehouseRepository.countActiveWarehousesInLocation("AGGREGATE-002"));
+    assertEquals(35, warehouseRepository.getTotalCapacityInLocation("AGGREGATE-002"));
+
+    // when
+    warehouseRepository.remove(first);
+
+    // then
+    assertEquals(0, warehouseRepository.countActiveWarehousesInLocation("AGGREGATE-002"));
+    assertEquals(0, warehouseRepository.getTotalCapacityInLocation("AGGREGATE-002"));
+  }
+
+  @Test
+  @Order(12)
+  @Transactional
+  void shouldRebuildLocationAggregatesFromWarehouseTable() {
+    // given
+    LocationAggregate maintained = warehouseRepository.getLocationAggregate("AMSTERDAM-001");
+    long activeRows =
+        warehouseRepository.count("location = ?1 AND archivedAt IS NULL", "AMSTERDAM-001");
+
+    // when
+    warehouseRepository.rebuildLocationAggregates();
+
+    // then
+    LocationAggregate rebuilt = warehouseRepository.getLocationAggregate("AMSTERDAM-001");
+    assertEquals(activeRows, rebuilt.activeWarehouses);
+    assertEquals(maintained.activeWarehouses, rebuilt.activeWarehouses);
+    assertEquals(maintained.totalCapacity, rebuilt.totalCapacity);
+  }
+
+  @Test
+  @Order(13)
+  @Transactional
+  void shouldStreamActiveWarehousesWithoutFillingTheSecondLevelCache() {
+    // given
+    Cache cache = warehouseRepository.getEntityManager().getEntityManagerFactory().getCache();
+    cache.evict(DbWarehouse.class);
+    List<Long> activeIds =
+        warehouseRepository
+            .getEntityManager()
+            .createQuery("SELECT w.id FROM DbWarehouse w WHERE w.archivedAt IS NULL", Long.class)
+            .getResultList();
+    List<String> streamed = new ArrayList<>();
+
+    // when
+    warehouseRepository.streamActive(warehouse -> streamed.add(warehouse.businessUnitCode));
+
+    // then
+    assertEquals(activeIds.size(), streamed.size());
+    assertTrue(activeIds.stream().noneMatch(id -> cache.contains(DbWarehouse.class, id)));
+  }
+
+  @Test
+  @Order(14)
+  void shouldRejectASecondActiveWarehouseWithTheSameCode() {
+    // given
+    Warehouse first = new Warehouse();
+    first.businessUnitCode = "MWH.UNIQUE001";
+    first.location = "UNIQUE-001";
+    first.capacity = 10;
+    first.stock = 0;
+    Warehouse second = new Warehouse();
+    second.businessUnitCode = "MWH.UNIQUE001";
+    second.location = "UNIQUE-002";
+    second.capacity = 10;
+    second.stock = 0;
+
+    // when - both get past the use case check, as racing creates in different locations can
+    WarehouseValidationException exception =
+        assertThrows(
+            WarehouseValidationException.class,
+            () ->
+                QuarkusTransaction.requiringNew()
+                    .run(
+                        () -> {
+                          warehouseRepository.create(first);
+                          warehouseRepository.create(second);
+                        }));
+
+    // then
+    assertEquals(ErrorCode.WAREHOUSE_ALREADY_EXISTS, exception.getCode());
+    assertNull(warehouseRepository.findByBusinessUnitCode("MWH.UNIQUE001"));
+  }
 }
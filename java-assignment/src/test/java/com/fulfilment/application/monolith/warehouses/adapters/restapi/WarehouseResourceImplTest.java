@@ -2,11 +2,22 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -26,6 +37,66 @@ class WarehouseResourceImplTest {
         .body("size()", greaterThanOrEqualTo(0));
   }
 
+  @Test
+  void shouldPageThroughWarehousesByBusinessUnitCode() {
+    List<String> firstPage =
+        given()
+            .queryParam("limit", 2)
+            .when()
+            .get("/warehouse")
+            .then()
+            .statusCode(200)
+            .body("size()", is(2))
+            .extract()
+            .jsonPath()
+            .getList("businessUnitCode", String.class);
+
+    assertTrue(firstPage.get(0).compareTo(firstPage.get(1)) < 0);
+
+    given()
+        .queryParam("after", firstPage.get(1))
+        .queryParam("limit", 2)
+        .when()
+        .get("/warehouse")
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", everyItem(greaterThan(firstPage.get(1))));
+  }
+
+  @Test
+  void shouldRejectInvalidPageSize() {
+    given().queryParam("limit", 0).when().get("/warehouse").then().statusCode(400);
+    given().queryParam("limit", 5000).when().get("/warehouse").then().statusCode(400);
+  }
+
+  @Test
+  void shouldExportWarehousesAsNewlineDelimitedJson() {
+    String code = uniqueCode();
+    given()
+        .contentType(ContentType.JSON)
+        .body(
+            "{\"businessUnitCode\": \""
+                + code
+                + "\", \"location\": \"AMSTERDAM-001\", \"capacity\": 1, \"stock\": 1}")
+        .when()
+        .post("/warehouse")
+        .then()
+        .statusCode(200);
+
+    String export =
+        given()
+            .when()
+            .get("/warehouse/export")
+            .then()
+            .statusCode(200)
+            .contentType("application/x-ndjson")
+            .extract()
+            .asString();
+
+    assertTrue(export.lines().anyMatch(line -> line.contains("\"" + code + "\"")));
+    assertTrue(export.lines().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+  }
+
   @Test
   void shouldCreateWarehouse() {
     String code = uniqueCode();
@@ -133,7 +204,29 @@ class WarehouseResourceImplTest {
         .when()
         .post("/warehouse/MWH.NOTEXIST888/replacement")
         .then()
-        .statusCode(404);
+        .statusCode(404)
+        .body("errorCode", is("WAREHOUSE_NOT_FOUND"));
+  }
+
+  @Test
+  void shouldRejectReplacementAtUnknownLocationAsBadRequest() {
+    // the message says the location "does not exist", the warehouse itself does
+    given()
+        .contentType(ContentType.JSON)
+        .body("""
+        {
+          "businessUnitCode": "MWH.001",
+          "location": "NOWHERE-001",
+          "capacity": 60,
+          "stock": 10
+        }
+        """)
+        .when()
+        .post("/warehouse/MWH.001/replacement")
+        .then()
+        .statusCode(400)
+        .body("errorCode", is("LOCATION_NOT_FOUND"))
+        .body("error", is("Location 'NOWHERE-001' does not exist"));
   }
 
   @Test
@@ -252,4 +345,255 @@ class WarehouseResourceImplTest {
         .then()
         .statusCode(400);
   }
+
+  @Test
+  void shouldCreateWarehousesInBulk() {
+    String first = uniqueCode();
+    String second = uniqueCode();
+    String bulkJson =
+        String.format(
+            """
+        [
+          {"businessUnitCode": "%s", "location": "AMSTERDAM-002", "capacity": 5, "stock": 1},
+          {"businessUnitCode": "%s", "location": "AMSTERDAM-002", "capacity": 5, "stock": 1},
+          {"businessUnitCode": "%s", "location": "INVALID-LOCATION", "capacity": 5, "stock": 1}
+        ]
+        """,
+            first, first, second);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(bulkJson)
+        .when()
+        .post("/warehouse/bulk")
+        .then()
+        .statusCode(200)
+        .body("size()", is(3))
+        .body("[0].created", is(true))
+        .body("[0].warehouse.businessUnitCode", is(first))
+        .body("[1].created", is(false))
+        .body("[2].created", is(false));
+
+    given().when().get("/warehouse/" + first).then().statusCode(200);
+    given().when().get("/warehouse/" + second).then().statusCode(404);
+  }
+
+  @Test
+  void shouldRejectNullBulkItemsAndMissingCodesPerItem() {
+    String bulkJson =
+        """
+        [
+          null,
+          {"location": "AMSTERDAM-002", "capacity": 5, "stock": 1}
+        ]
+        """;
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(bulkJson)
+        .when()
+        .post("/warehouse/bulk")
+        .then()
+        .statusCode(200)
+        .body("size()", is(2))
+        .body("[0].created", is(false))
+        .body("[0].error", is("Business unit code is required"))
+        .body("[1].created", is(false))
+        .body("[1].error", is("Business unit code is required"));
+  }
+
+  @Test
+  void shouldRejectOversizedBulkRequests() {
+    StringBuilder bulkJson = new StringBuilder("[");
+    for (int i = 0; i <= WarehouseResourceImpl.MAX_BULK_SIZE; i++) {
+      bulkJson.append(i == 0 ? "" : ",").append("{\"location\": \"AMSTERDAM-002\"}");
+    }
+    bulkJson.append("]");
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(bulkJson.toString())
+        .when()
+        .post("/warehouse/bulk")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  void shouldNotExceedLocationLimitUnderConcurrentCreates() throws Exception {
+    // HELMOND-001 allows a single warehouse, so exactly one of the racing creates may succeed
+    int attempts = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(attempts);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < attempts; i++) {
+        String code = uniqueCode();
+        statuses.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return given()
+                      .contentType(ContentType.JSON)
+                      .body(
+                          "{\"businessUnitCode\": \""
+                              + code
+                              + "\", \"location\": \"HELMOND-001\", \"capacity\": 10,"
+                              + " \"stock\": 1}")
+                      .when()
+                      .post("/warehouse")
+                      .statusCode();
+                }));
+      }
+      start.countDown();
+
+      int created = 0;
+      for (Future<Integer> status : statuses) {
+        if (status.get(30, TimeUnit.SECONDS) == 200) {
+          created++;
+        }
+      }
+      assertEquals(1, created);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldCreateOneWarehouseUnderConcurrentCreatesOfTheSameCode() throws Exception {
+    // The racing creates are spread over locations, so the location reservations do not serialize
+    // them all and the unique index on active codes has to reject the losers
+    String code = uniqueCode();
+    List<String> locations =
+        List.of("AMSTERDAM-001", "AMSTERDAM-002", "ZWOLLE-002", "EINDHOVEN-001");
+    int attempts = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(attempts);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < attempts; i++) {
+        String location = locations.get(i % locations.size());
+        statuses.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return given()
+                      .contentType(ContentType.JSON)
+                      .body(
+                          "{\"businessUnitCode\": \""
+                              + code
+                              + "\", \"location\": \""
+                              + location
+                              + "\", \"capacity\": 1, \"stock\": 0}")
+                      .when()
+                      .post("/warehouse")
+                      .statusCode();
+                }));
+      }
+      start.countDown();
+
+      int created = 0;
+      for (Future<Integer> response : statuses) {
+        int status = response.get(30, TimeUnit.SECONDS);
+        assertTrue(status == 200 || status == 400, "unexpected status " + status);
+        if (status == 200) {
+          created++;
+        }
+      }
+      assertEquals(1, created);
+    } finally {
+      executor.shutdownNow();
+      // Free the location slot for the other tests
+      given().when().delete("/warehouse/" + code);
+    }
+  }
+
+  @Test
+  void shouldReplaceOneWarehouseAfterAnotherUnderConcurrentReplacements() throws Exception {
+    // Each replacement must archive the warehouse the previous one created, not the original row
+    String code = uniqueCode();
+    String json =
+        "{\"businessUnitCode\": \""
+            + code
+            + "\", \"location\": \"EINDHOVEN-001\", \"capacity\": 5, \"stock\": 1}";
+    given().contentType(ContentType.JSON).body(json).when().post("/warehouse").then().statusCode(200);
+    int attempts = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(attempts);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < attempts; i++) {
+        statuses.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return given()
+                      .contentType(ContentType.JSON)
+                      .body(json)
+                      .when()
+                      .post("/warehouse/" + code + "/replacement")
+                      .statusCode();
+                }));
+      }
+      start.countDown();
+
+      for (Future<Integer> status : statuses) {
+        assertEquals(200, status.get(30, TimeUnit.SECONDS));
+      }
+      // the page starting just before the code holds every active warehouse with that code
+      given()
+          .queryParam("after", code.substring(0, code.length() - 1))
+          .queryParam("limit", 2)
+          .when()
+          .get("/warehouse")
+          .then()
+          .statusCode(200)
+          .body("findAll { it.businessUnitCode == '" + code + "' }.size()", is(1));
+    } finally {
+      executor.shutdownNow();
+      given().when().delete("/warehouse/" + code);
+    }
+  }
+
+  @Test
+  void shouldFindAvailableLocationsNearestFirst() {
+    List<Float> distances =
+        given()
+            .queryParam("latitude", 52.37)
+            .queryParam("longitude", 4.90)
+            .queryParam("limit", 3)
+            .when()
+            .get("/warehouse/locations/available")
+            .then()
+            .statusCode(200)
+            .body("size()", is(3))
+            .extract()
+            .jsonPath()
+            .getList("distanceKm", Float.class);
+
+    assertTrue(distances.get(0) <= distances.get(1) && distances.get(1) <= distances.get(2));
+  }
+
+  @Test
+  void shouldReturnNoLocationsFarFromAnyLocation() {
+    given()
+        .queryParam("latitude", 0)
+        .queryParam("longitude", -30)
+        .queryParam("radiusKm", 100)
+        .when()
+        .get("/warehouse/locations/available")
+        .then()
+        .statusCode(200)
+        .body("size()", is(0));
+  }
+
+  @Test
+  void shouldRejectLocationQueryWithoutCoordinates() {
+    given()
+        .queryParam("latitude", 52.37)
+        .when()
+        .get("/warehouse/locations/available")
+        .then()
+        .statusCode(400);
+  }
 }
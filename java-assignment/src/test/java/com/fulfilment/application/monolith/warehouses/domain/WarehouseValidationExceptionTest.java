@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
 import org.junit.jupiter.api.Test;
 
 class WarehouseValidationExceptionTest {
@@ -26,4 +27,21 @@ class WarehouseValidationExceptionTest {
     // then
     assertTrue(exception instanceof RuntimeException);
   }
+
+  @Test
+  void shouldCarryErrorCodeWithoutStackTrace() {
+    // when
+    WarehouseValidationException exception =
+        new WarehouseValidationException(ErrorCode.STOCK_MISMATCH, "test");
+
+    // then
+    assertEquals(ErrorCode.STOCK_MISMATCH, exception.getCode());
+    assertEquals(0, exception.getStackTrace().length);
+  }
+
+  @Test
+  void shouldDefaultToValidationFailed() {
+    assertEquals(
+        ErrorCode.VALIDATION_FAILED, new WarehouseValidationException("test").getCode());
+  }
 }
@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LocationAggregateTest {
+
+  @Test
+  void shouldCreateLocationAggregateWithConstructor() {
+    // when
+    LocationAggregate aggregate = new LocationAggregate("AMSTERDAM-001", 2, 80);
+
+    // then
+    assertEquals("AMSTERDAM-001", aggregate.location);
+    assertEquals(2, aggregate.activeWarehouses);
+    assertEquals(80, aggregate.totalCapacity);
+  }
+
+  @Test
+  void shouldCreateEmptyLocationAggregate() {
+    // when
+    LocationAggregate aggregate = LocationAggregate.empty("ZWOLLE-001");
+
+    // then
+    assertEquals("ZWOLLE-001", aggregate.location);
+    assertEquals(0, aggregate.activeWarehouses);
+    assertEquals(0, aggregate.totalCapacity);
+  }
+}
@@ -6,11 +6,18 @@ import static org.mockito.Mockito.*;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCreationResult;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -36,8 +43,8 @@ class CreateWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001")).thenReturn(location);
-    when(warehouseRepository.countActiveWarehousesInLocation("AMSTERDAM-001")).thenReturn(0L);
-    when(warehouseRepository.getTotalCapacityInLocation("AMSTERDAM-001")).thenReturn(0);
+    when(warehouseRepository.lockLocationAggregate("AMSTERDAM-001"))
+        .thenReturn(new LocationAggregate("AMSTERDAM-001", 0, 0));
 
     // when
     useCase.create(warehouse);
@@ -52,6 +59,10 @@ class CreateWarehouseUseCaseTest {
     Warehouse warehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 50, 10);
     Warehouse existing = createWarehouse("MWH.001", "AMSTERDAM-001", 100, 20);
 
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    when(warehouseRepository.lockLocationAggregate("AMSTERDAM-001"))
+        .thenReturn(new LocationAggregate("AMSTERDAM-001", 1, 100));
     when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existing);
 
     // when & then
@@ -59,6 +70,10 @@ class CreateWarehouseUseCaseTest {
         assertThrows(WarehouseValidationException.class, () -> useCase.create(warehouse));
 
     assertTrue(exception.getMessage().contains("already exists"));
+    // the code is checked under the location's reservation, not before it
+    InOrder inOrder = inOrder(warehouseRepository);
+    inOrder.verify(warehouseRepository).lockLocationAggregate("AMSTERDAM-001");
+    inOrder.verify(warehouseRepository).findByBusinessUnitCode("MWH.001");
     verify(warehouseRepository, never()).create(any());
   }
 
@@ -67,7 +82,6 @@ class CreateWarehouseUseCaseTest {
     // given
     Warehouse warehouse = createWarehouse("MWH.NEW", "INVALID-LOCATION", 50, 10);
 
-    when(warehouseRepository.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("INVALID-LOCATION")).thenReturn(null);
 
     // when & then
@@ -86,7 +100,8 @@ class CreateWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("ZWOLLE-001")).thenReturn(location);
-    when(warehouseRepository.countActiveWarehousesInLocation("ZWOLLE-001")).thenReturn(1L);
+    when(warehouseRepository.lockLocationAggregate("ZWOLLE-001"))
+        .thenReturn(new LocationAggregate("ZWOLLE-001", 1, 30));
 
     // when & then
     WarehouseValidationException exception =
@@ -104,8 +119,8 @@ class CreateWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("ZWOLLE-001")).thenReturn(location);
-    when(warehouseRepository.countActiveWarehousesInLocation("ZWOLLE-001")).thenReturn(0L);
-    when(warehouseRepository.getTotalCapacityInLocation("ZWOLLE-001")).thenReturn(0);
+    when(warehouseRepository.lockLocationAggregate("ZWOLLE-001"))
+        .thenReturn(new LocationAggregate("ZWOLLE-001", 0, 0));
 
     // when & then
     WarehouseValidationException exception =
@@ -123,8 +138,8 @@ class CreateWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.NEW")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001")).thenReturn(location);
-    when(warehouseRepository.countActiveWarehousesInLocation("AMSTERDAM-001")).thenReturn(0L);
-    when(warehouseRepository.getTotalCapacityInLocation("AMSTERDAM-001")).thenReturn(0);
+    when(warehouseRepository.lockLocationAggregate("AMSTERDAM-001"))
+        .thenReturn(new LocationAggregate("AMSTERDAM-001", 0, 0));
 
     // when & then
     WarehouseValidationException exception =
@@ -134,6 +149,61 @@ class CreateWarehouseUseCaseTest {
     verify(warehouseRepository, never()).create(any());
   }
 
+  @Test
+  void shouldCreateValidWarehousesInBulkAndReportRejectedOnes() {
+    // given
+    Warehouse first = createWarehouse("MWH.B1", "EINDHOVEN-001", 30, 10);
+    Warehouse duplicate = createWarehouse("MWH.B1", "EINDHOVEN-001", 10, 5);
+    Warehouse existing = createWarehouse("MWH.001", "EINDHOVEN-001", 10, 5);
+    Warehouse unknownLocation = createWarehouse("MWH.B2", "UNKNOWN-001", 10, 5);
+    Warehouse second = createWarehouse("MWH.B3", "EINDHOVEN-001", 20, 5);
+    Warehouse overLimit = createWarehouse("MWH.B4", "EINDHOVEN-001", 5, 5);
+    List<Warehouse> batch = List.of(first, duplicate, existing, unknownLocation, second, overLimit);
+
+    when(warehouseRepository.findActiveBusinessUnitCodes(any())).thenReturn(Set.of("MWH.001"));
+    when(warehouseRepository.lockLocationAggregates(any())).thenReturn(new HashMap<>());
+    when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
+        .thenReturn(new Location("EINDHOVEN-001", 2, 70));
+    when(locationResolver.resolveByIdentifier("UNKNOWN-001")).thenReturn(null);
+
+    // when
+    List<WarehouseCreationResult> results = useCase.createAll(batch);
+
+    // then
+    assertEquals(6, results.size());
+    assertTrue(results.get(0).isCreated());
+    assertTrue(results.get(1).error.contains("more than once in the batch"));
+    assertTrue(results.get(2).error.contains("already exists"));
+    assertTrue(results.get(3).error.contains("does not exist"));
+    assertTrue(results.get(4).isCreated());
+    // the two accepted warehouses already fill the location
+    assertTrue(results.get(5).error.contains("Maximum number of warehouses"));
+    verify(warehouseRepository).createAll(List.of(first, second));
+  }
+
+  @Test
+  void shouldAccumulateCapacityAcrossTheBatch() {
+    // given
+    Warehouse first = createWarehouse("MWH.C1", "AMSTERDAM-001", 60, 10);
+    Warehouse second = createWarehouse("MWH.C2", "AMSTERDAM-001", 30, 10);
+    Map<String, LocationAggregate> aggregates = new HashMap<>();
+    aggregates.put("AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 1, 20));
+
+    when(warehouseRepository.findActiveBusinessUnitCodes(any())).thenReturn(Set.of());
+    when(warehouseRepository.lockLocationAggregates(any())).thenReturn(aggregates);
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+
+    // when
+    List<WarehouseCreationResult> results = useCase.createAll(List.of(first, second));
+
+    // then
+    assertTrue(results.get(0).isCreated());
+    assertFalse(results.get(1).isCreated());
+    assertTrue(results.get(1).error.contains("exceed location max capacity"));
+    verify(warehouseRepository).createAll(List.of(first));
+  }
+
   private Warehouse createWarehouse(
       String businessUnitCode, String location, Integer capacity, Integer stock) {
     Warehouse warehouse = new Warehouse();
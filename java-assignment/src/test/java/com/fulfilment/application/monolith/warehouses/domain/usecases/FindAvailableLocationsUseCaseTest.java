@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAvailability;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyLocation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FindAvailableLocationsUseCaseTest {
+
+  @Mock private WarehouseRepository warehouseRepository;
+
+  @Mock private LocationResolver locationResolver;
+
+  private FindAvailableLocationsUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    useCase = new FindAvailableLocationsUseCase(warehouseRepository, locationResolver);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldOnlyAcceptLocationsWithRoomLeft() {
+    // given
+    Location full = new Location("ZWOLLE-001", 1, 40, 52.5, 6.1);
+    Location tooSmall = new Location("TILBURG-001", 2, 40, 51.6, 5.1);
+    Location available = new Location("AMSTERDAM-001", 5, 100, 52.4, 4.9);
+    Location empty = new Location("VETSBY-001", 1, 90, 57.7, 12.0);
+    when(warehouseRepository.getAllLocationAggregates())
+        .thenReturn(
+            Map.of(
+                "ZWOLLE-001", new LocationAggregate("ZWOLLE-001", 1, 10),
+                "TILBURG-001", new LocationAggregate("TILBURG-001", 1, 30),
+                "AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 2, 60)));
+    ArgumentCaptor<Predicate<Location>> filter = ArgumentCaptor.forClass(Predicate.class);
+    when(locationResolver.findNearest(eq(52.0), eq(5.0), eq(3), filter.capture()))
+        .thenReturn(List.of(new NearbyLocation(available, 12.5)));
+
+    // when
+    List<LocationAvailability> result = useCase.findAvailable(52.0, 5.0, null, 3, 20);
+
+    // then
+    assertFalse(filter.getValue().test(full));
+    assertFalse(filter.getValue().test(tooSmall));
+    assertTrue(filter.getValue().test(available));
+    assertTrue(filter.getValue().test(empty));
+    assertEquals(1, result.size());
+    assertEquals(12.5, result.get(0).distanceKm);
+    assertEquals(2, result.get(0).activeWarehouses);
+    assertEquals(40, result.get(0).remainingCapacity);
+  }
+
+  @Test
+  void shouldSearchWithinRadiusAndCapResults() {
+    // given
+    Location first = new Location("AMSTERDAM-001", 5, 100, 52.37, 4.90);
+    Location second = new Location("AMSTERDAM-002", 3, 75, 52.34, 4.87);
+    when(warehouseRepository.getAllLocationAggregates()).thenReturn(Map.of());
+    when(locationResolver.findWithinRadius(eq(52.35), eq(4.88), eq(25.0), any()))
+        .thenReturn(List.of(new NearbyLocation(first, 1.5), new NearbyLocation(second, 2.0)));
+
+    // when
+    List<LocationAvailability> result = useCase.findAvailable(52.35, 4.88, 25.0, 1, 0);
+
+    // then
+    assertEquals(1, result.size());
+    assertEquals("AMSTERDAM-001", result.get(0).location.identification);
+    assertEquals(100, result.get(0).remainingCapacity);
+    verify(locationResolver, never()).findNearest(anyDouble(), anyDouble(), anyInt(), any());
+  }
+
+  @Test
+  void shouldRejectInvalidQueries() {
+    assertThrows(
+        WarehouseValidationException.class, () -> useCase.findAvailable(91, 0, null, 10, 0));
+    assertThrows(
+        WarehouseValidationException.class, () -> useCase.findAvailable(0, 181, null, 10, 0));
+    assertThrows(
+        WarehouseValidationException.class, () -> useCase.findAvailable(0, 0, -1.0, 10, 0));
+    assertThrows(
+        WarehouseValidationException.class, () -> useCase.findAvailable(0, 0, null, 0, 0));
+    assertThrows(
+        WarehouseValidationException.class, () -> useCase.findAvailable(0, 0, null, 10, -5));
+    verifyNoInteractions(warehouseRepository, locationResolver);
+  }
+}
@@ -3,14 +3,20 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.fulfilment.application.monolith.errors.ErrorCode;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -37,7 +43,9 @@ class ReplaceWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001")).thenReturn(location);
-    when(warehouseRepository.getTotalCapacityInLocation("AMSTERDAM-001")).thenReturn(100);
+    when(warehouseRepository.lockLocationAggregates(Set.of("AMSTERDAM-001")))
+        .thenReturn(Map.of("AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 1, 100)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(existingWarehouse);
 
     // when
     useCase.replace(newWarehouse);
@@ -89,6 +97,9 @@ class ReplaceWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001")).thenReturn(location);
+    when(warehouseRepository.lockLocationAggregates(Set.of("AMSTERDAM-001")))
+        .thenReturn(Map.of("AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 1, 100)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(existingWarehouse);
 
     // when & then
     WarehouseValidationException exception =
@@ -107,6 +118,9 @@ class ReplaceWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
     when(locationResolver.resolveByIdentifier("AMSTERDAM-001")).thenReturn(location);
+    when(warehouseRepository.lockLocationAggregates(Set.of("AMSTERDAM-001")))
+        .thenReturn(Map.of("AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 1, 100)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(existingWarehouse);
 
     // when & then
     WarehouseValidationException exception =
@@ -125,7 +139,9 @@ class ReplaceWarehouseUseCaseTest {
 
     when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
     when(locationResolver.resolveByIdentifier("ZWOLLE-001")).thenReturn(location);
-    when(warehouseRepository.getTotalCapacityInLocation("ZWOLLE-001")).thenReturn(30);
+    when(warehouseRepository.lockLocationAggregates(Set.of("ZWOLLE-001")))
+        .thenReturn(Map.of("ZWOLLE-001", new LocationAggregate("ZWOLLE-001", 1, 30)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(existingWarehouse);
 
     // when & then
     WarehouseValidationException exception =
@@ -135,6 +151,107 @@ class ReplaceWarehouseUseCaseTest {
     verify(warehouseRepository, never()).create(any());
   }
 
+  @Test
+  void shouldReserveBothLocationsWhenMovingWarehouse() {
+    // given
+    Warehouse existingWarehouse = createWarehouse("MWH.001", "ZWOLLE-001", 30, 10);
+    Warehouse newWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 40, 10);
+
+    when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    when(warehouseRepository.lockLocationAggregates(Set.of("ZWOLLE-001", "AMSTERDAM-001")))
+        .thenReturn(
+            Map.of(
+                "ZWOLLE-001", new LocationAggregate("ZWOLLE-001", 1, 30),
+                "AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 2, 60)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(existingWarehouse);
+
+    // when
+    useCase.replace(newWarehouse);
+
+    // then
+    verify(warehouseRepository).update(existingWarehouse);
+    verify(warehouseRepository).create(newWarehouse);
+  }
+
+  @Test
+  void shouldRejectMoveToLocationWithoutRoomForAnotherWarehouse() {
+    // given
+    Warehouse existingWarehouse = createWarehouse("MWH.001", "ZWOLLE-001", 30, 10);
+    Warehouse newWarehouse = createWarehouse("MWH.001", "HELMOND-001", 30, 10);
+
+    when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
+    when(locationResolver.resolveByIdentifier("HELMOND-001"))
+        .thenReturn(new Location("HELMOND-001", 1, 45));
+    when(warehouseRepository.lockLocationAggregates(Set.of("ZWOLLE-001", "HELMOND-001")))
+        .thenReturn(
+            Map.of(
+                "ZWOLLE-001", new LocationAggregate("ZWOLLE-001", 1, 30),
+                "HELMOND-001", new LocationAggregate("HELMOND-001", 1, 10)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(existingWarehouse);
+
+    // when & then
+    WarehouseValidationException exception =
+        assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
+
+    assertEquals(ErrorCode.LOCATION_WAREHOUSE_LIMIT_REACHED, exception.getCode());
+    verify(warehouseRepository, never()).update(any());
+    verify(warehouseRepository, never()).create(any());
+  }
+
+  @Test
+  void shouldRejectWarehouseArchivedWhileWaitingForTheLocations() {
+    // given - a concurrent replace archived the row read first, and its replacement was archived too
+    Warehouse existingWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 100, 50);
+    Warehouse newWarehouse = createWarehouse("MWH.001", "AMSTERDAM-001", 100, 50);
+
+    when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(existingWarehouse);
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 200));
+    when(warehouseRepository.lockLocationAggregates(Set.of("AMSTERDAM-001")))
+        .thenReturn(Map.of("AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 1, 100)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(null);
+
+    // when & then
+    WarehouseValidationException exception =
+        assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
+
+    assertEquals(ErrorCode.WAREHOUSE_NOT_FOUND, exception.getCode());
+    verify(warehouseRepository, never()).update(any());
+  }
+
+  @Test
+  void shouldReplaceTheWarehouseAsItIsOnceTheLocationsAreReserved() {
+    // given - a concurrent replace moved the warehouse to EINDHOVEN-001 while this one waited
+    Warehouse readFirst = createWarehouse("MWH.001", "AMSTERDAM-001", 40, 10);
+    Warehouse moved = createWarehouse("MWH.001", "EINDHOVEN-001", 30, 10);
+    Warehouse newWarehouse = createWarehouse("MWH.001", "ZWOLLE-002", 20, 10);
+
+    when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(readFirst);
+    when(locationResolver.resolveByIdentifier("ZWOLLE-002"))
+        .thenReturn(new Location("ZWOLLE-002", 2, 50));
+    when(warehouseRepository.lockLocationAggregates(Set.of("AMSTERDAM-001", "ZWOLLE-002")))
+        .thenReturn(
+            Map.of(
+                "AMSTERDAM-001", new LocationAggregate("AMSTERDAM-001", 0, 0),
+                "ZWOLLE-002", new LocationAggregate("ZWOLLE-002", 0, 0)));
+    when(warehouseRepository.lockLocationAggregates(List.of("EINDHOVEN-001")))
+        .thenReturn(Map.of("EINDHOVEN-001", new LocationAggregate("EINDHOVEN-001", 1, 30)));
+    when(warehouseRepository.findActiveInDatabase("MWH.001")).thenReturn(moved);
+
+    // when
+    useCase.replace(newWarehouse);
+
+    // then - the moved warehouse is archived, after its location was reserved as well
+    InOrder inOrder = inOrder(warehouseRepository);
+    inOrder.verify(warehouseRepository).lockLocationAggregates(List.of("EINDHOVEN-001"));
+    inOrder.verify(warehouseRepository).update(moved);
+    inOrder.verify(warehouseRepository).create(newWarehouse);
+    assertNotNull(moved.archivedAt);
+    assertNull(readFirst.archivedAt);
+  }
+
   private Warehouse createWarehouse(
       String businessUnitCode, String location, Integer capacity, Integer stock) {
     Warehouse warehouse = new Warehouse();
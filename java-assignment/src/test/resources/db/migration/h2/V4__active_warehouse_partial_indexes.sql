@@ -0,0 +1,4 @@
+-- H2 has no partial indexes; create plain indexes under the same names as the PostgreSQL migration.
+
+CREATE INDEX warehouse_active_bu_code_idx ON warehouse (businessUnitCode, archivedAt);
+CREATE INDEX warehouse_active_location_idx ON warehouse (location, archivedAt, capacity);
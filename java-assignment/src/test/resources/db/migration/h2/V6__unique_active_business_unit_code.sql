@@ -0,0 +1,7 @@
+-- H2 has no partial indexes; a generated column holds the code of active rows and NULL for archived
+-- ones, which the unique index does not compare. Same index name as the PostgreSQL migration.
+
+ALTER TABLE warehouse ADD COLUMN activeBusinessUnitCode VARCHAR(255)
+    GENERATED ALWAYS AS (CASE WHEN archivedAt IS NULL THEN businessUnitCode END);
+DROP INDEX warehouse_active_bu_code_idx;
+CREATE UNIQUE INDEX warehouse_active_bu_code_idx ON warehouse (activeBusinessUnitCode);